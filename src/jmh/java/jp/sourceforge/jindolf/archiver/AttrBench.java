@@ -0,0 +1,149 @@
+/*
+ * attribute output benchmark
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 日時、16進、整数、URIの各属性のXML出力。
+ *
+ * <p>実行は
+ * {@code mvn -Pjmh verify -Djmh.benchmarks=AttrBench}
+ * で行う。
+ * デフォルトでGCプロファイラが有効となり、
+ * 1操作あたりの割り当てバイト数(gc.alloc.rate.norm)が出力される。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttrBench{
+
+    private static final String BASE =
+            "http://www.wolfg.x0.com/";
+    private static final String URL =
+            BASE + "index.rb?vid=123&meslog=000_ready";
+
+    private CountWriter writer;
+    private XmlOut xmlOut;
+    private long epochMs;
+    private int count;
+
+
+    /**
+     * 測定データを用意する。
+     */
+    @Setup
+    public void setup(){
+        this.writer = new CountWriter();
+        this.xmlOut = new XmlOut(this.writer);
+        this.epochMs = 1466871486000L;
+        this.count = 0;
+        return;
+    }
+
+    /**
+     * 日時属性を出力する。
+     * @return 出力文字数
+     * @throws IOException 出力エラー
+     */
+    @Benchmark
+    public long dateTime() throws IOException{
+        this.epochMs += 1001L;
+        this.xmlOut.dateTimeAttr("time", this.epochMs);
+        return this.writer.count;
+    }
+
+    /**
+     * デコードエラー要素を出力する。
+     * @return 出力文字数
+     * @throws IOException 出力エラー
+     */
+    @Benchmark
+    public long decodeError() throws IOException{
+        byte bVal = (byte) this.count++;
+        this.xmlOut.dumpDecodeError(bVal);
+        this.xmlOut.dumpSjisMapError((byte) 0x87, bVal);
+        return this.writer.count;
+    }
+
+    /**
+     * 整数属性を出力する。
+     * @return 出力文字数
+     * @throws IOException 出力エラー
+     */
+    @Benchmark
+    public long integer() throws IOException{
+        this.xmlOut.attrOut("day", this.count++);
+        return this.writer.count;
+    }
+
+    /**
+     * 相対URI属性を出力する。
+     * @return 出力文字数
+     * @throws IOException 出力エラー
+     */
+    @Benchmark
+    public long relativeUri() throws IOException{
+        this.xmlOut.relativeUriAttrOut("sourceURI", BASE, URL);
+        return this.writer.count;
+    }
+
+
+    /**
+     * 文字数を数えるだけの捨て先。
+     */
+    private static final class CountWriter extends Writer{
+
+        private long count = 0L;
+
+        /**
+         * {@inheritDoc}
+         * @param cbuf {@inheritDoc}
+         * @param off {@inheritDoc}
+         * @param len {@inheritDoc}
+         */
+        @Override
+        public void write(char[] cbuf, int off, int len){
+            this.count += len;
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void flush(){
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close(){
+            return;
+        }
+
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * system event output benchmark
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import jp.sourceforge.jindolf.corelib.SysEventType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 大きな村の投票集計イベントの構築とXML出力。
+ *
+ * <p>実行は
+ * {@code mvn -Pjmh verify -Djmh.benchmarks=EventDataBench}
+ * で行う。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDataBench{
+
+    /** 投票数。 */
+    @Param({"16", "256", "4096"})
+    public int votes;
+
+    private AvatarData[] avatars;
+
+
+    /**
+     * 測定データを用意する。
+     */
+    @Setup
+    public void setup(){
+        this.avatars = new AvatarData[this.votes];
+        for(int idx = 0; idx < this.votes; idx++){
+            AvatarData avatar = new AvatarData();
+            avatar.setAvatarId("ukavatar" + idx);
+            this.avatars[idx] = avatar;
+        }
+        return;
+    }
+
+    /**
+     * 投票集計イベントを構築する。
+     * @param type COUNTINGもしくはEXECUTION
+     * @return イベント
+     */
+    private EventData buildEvent(SysEventType type){
+        EventData event = new EventData();
+        event.setEventType(type);
+        event.addLine(new DecodedContent("vote"));
+
+        int num = this.avatars.length;
+        for(int idx = 0; idx < num; idx++){
+            AvatarData voteBy = this.avatars[idx];
+            AvatarData voteTo = this.avatars[(idx * 7 + 1) % num];
+            if(type == SysEventType.COUNTING){
+                event.addAvatarData(voteBy);
+                event.addAvatarData(voteTo);
+            }else{
+                event.addAvatarData(voteTo);
+                event.addInteger(idx);
+            }
+        }
+        event.addAvatarData(this.avatars[0]);
+
+        return event;
+    }
+
+    /**
+     * 投票集計イベントを構築し出力する。
+     * @return 出力文字数
+     * @throws IOException 出力エラー
+     */
+    @Benchmark
+    public long counting() throws IOException{
+        EventData event = buildEvent(SysEventType.COUNTING);
+        return dump(event);
+    }
+
+    /**
+     * 処刑イベントを構築し出力する。
+     * @return 出力文字数
+     * @throws IOException 出力エラー
+     */
+    @Benchmark
+    public long execution() throws IOException{
+        EventData event = buildEvent(SysEventType.EXECUTION);
+        return dump(event);
+    }
+
+    /**
+     * イベントを捨て先へXML出力する。
+     * @param event イベント
+     * @return 出力文字数
+     * @throws IOException 出力エラー
+     */
+    private static long dump(EventData event) throws IOException{
+        CountWriter writer = new CountWriter();
+        XmlOut xmlOut = new XmlOut(writer);
+        event.dumpXml(xmlOut);
+        xmlOut.flush();
+        return writer.count;
+    }
+
+
+    /**
+     * 文字数を数えるだけの捨て先。
+     */
+    private static final class CountWriter extends Writer{
+
+        private long count = 0L;
+
+        /**
+         * {@inheritDoc}
+         * @param cbuf {@inheritDoc}
+         * @param off {@inheritDoc}
+         * @param len {@inheritDoc}
+         */
+        @Override
+        public void write(char[] cbuf, int off, int len){
+            this.count += len;
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void flush(){
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close(){
+            return;
+        }
+
+    }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * validated output benchmark
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import jp.sourceforge.jindolf.corelib.LandDef;
+import jp.sourceforge.jindolf.corelib.PeriodType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+/**
+ * 傍受用Readerを介したXML文書の出力と検証。
+ *
+ * <p>実行は
+ * {@code mvn -Pjmh verify -Djmh.benchmarks=SnifWriterBench}
+ * で行う。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnifWriterBench{
+
+    private static final int WRITE_SIZE = 256;
+    private static final int READ_SIZE = 8 * 1024;
+
+    /** Period数。 */
+    @Param({"100", "1000"})
+    public int periods;
+
+    private String doc;
+    private ExecutorService executor;
+
+
+    /**
+     * 測定データを用意する。
+     * @throws IOException 出力エラー
+     */
+    @Setup
+    public void setup() throws IOException{
+        LandDef landDef = LandUtils.getLandDef("wolfg");
+        List<PeriodResource> resList = new ArrayList<>();
+        for(int day = 0; day < this.periods; day++){
+            PeriodType type;
+            if(day == 0)                     type = PeriodType.PROLOGUE;
+            else if(day == this.periods - 1) type = PeriodType.EPILOGUE;
+            else                             type = PeriodType.PROGRESS;
+            resList.add(new PeriodResource(landDef, 1, type, day,
+                    "http://example.com/wolf.cgi?vid=1&meslog=" + day,
+                    0L, null));
+        }
+
+        VillageData village = new VillageData(resList);
+        village.setFullName("村1");
+        village.setCommitHour(0);
+        village.setCommitMinute(0);
+        for(PeriodResource resource : resList){
+            PeriodData period = new PeriodData(village, resource);
+            period.setCommitMonth(1);
+            period.setCommitDay(resource.getDay() % 28 + 1);
+            period.setCommitHour(0);
+            period.setCommitMinute(0);
+            village.addPeriodData(period);
+        }
+
+        StringWriter writer = new StringWriter();
+        new XmlOut(writer).dumpVillageData(village);
+        this.doc = writer.toString();
+
+        this.executor = Executors.newSingleThreadExecutor();
+
+        return;
+    }
+
+    /**
+     * 後始末をする。
+     */
+    @TearDown
+    public void tearDown(){
+        this.executor.shutdownNow();
+        return;
+    }
+
+    /**
+     * 文書を傍受用Writerへ細切れに書き込む。
+     * @param snif 傍受用Writer
+     * @throws IOException 出力エラー
+     */
+    private void writeDoc(SnifWriter snif) throws IOException{
+        String text = this.doc;
+        int docLen = text.length();
+        try(Writer writer = new BufferedWriter(snif)){
+            for(int pos = 0; pos < docLen; pos += WRITE_SIZE){
+                int len = Math.min(WRITE_SIZE, docLen - pos);
+                writer.write(text, pos, len);
+            }
+        }
+        return;
+    }
+
+    /**
+     * 文書を出力し、別スレッドで検証する。
+     * @return 出力文字数
+     * @throws IOException 出力エラー
+     * @throws SAXException 検証エラー
+     * @throws InterruptedException 割り込まれた
+     * @throws ExecutionException 検証エラー
+     */
+    @Benchmark
+    public long validated()
+            throws IOException, SAXException,
+                   InterruptedException, ExecutionException{
+        CountWriter sink = new CountWriter();
+        SnifWriter snif = new SnifWriter(sink);
+        ValidateTask task = new ValidateTask(snif.getSnifReader(),
+                                             XmlUtils.createValidator());
+        Future<Void> future = this.executor.submit(task);
+
+        writeDoc(snif);
+        future.get();
+
+        return sink.count;
+    }
+
+    /**
+     * 文書を出力し、別スレッドで読み捨てる。
+     * @return 出力文字数
+     * @throws IOException 出力エラー
+     * @throws InterruptedException 割り込まれた
+     * @throws ExecutionException 入力エラー
+     */
+    @Benchmark
+    public long teeOnly()
+            throws IOException, InterruptedException, ExecutionException{
+        CountWriter sink = new CountWriter();
+        SnifWriter snif = new SnifWriter(sink);
+        Reader reader = snif.getSnifReader();
+        Future<Long> future = this.executor.submit(() -> {
+            char[] buf = new char[READ_SIZE];
+            long total = 0L;
+            for(;;){
+                int len = reader.read(buf, 0, buf.length);
+                if(len < 0) break;
+                total += len;
+            }
+            reader.close();
+            return total;
+        });
+
+        writeDoc(snif);
+
+        return future.get();
+    }
+
+
+    /**
+     * 文字数を数えるだけの捨て先。
+     */
+    private static final class CountWriter extends Writer{
+
+        private long count = 0L;
+
+        /**
+         * {@inheritDoc}
+         * @param cbuf {@inheritDoc}
+         * @param off {@inheritDoc}
+         * @param len {@inheritDoc}
+         */
+        @Override
+        public void write(char[] cbuf, int off, int len){
+            this.count += len;
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void flush(){
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close(){
+            return;
+        }
+
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * windows-31j fallback benchmark
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * windows-31jによる2バイト復号の、変換表と従来実装との比較。
+ *
+ * <p>従来実装は共有デコーダを同期化して用いていたもので、
+ * 比較のためにここへ複製してある。
+ * 複数スレッドでの測定ではロック競合の影響が現れる。
+ *
+ * <p>実行は {@code mvn -Pjmh verify} で行う。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Win31jBench{
+
+    private static final CharsetDecoder LEGACY_DECODER;
+    private static final ByteBuffer LEGACY_BUFFER = ByteBuffer.allocate(2);
+
+    static{
+        LEGACY_DECODER = Win31j.CS_WIN31J.newDecoder();
+        LEGACY_DECODER.onMalformedInput(CodingErrorAction.REPORT);
+        LEGACY_DECODER.onUnmappableCharacter(CodingErrorAction.REPORT);
+    }
+
+
+    /** 測定に用いる2バイトデータ。NEC特殊文字とIBM拡張文字。 */
+    private byte[] pairs;
+
+
+    /**
+     * 従来実装。
+     * @param b1 1バイト目
+     * @param b2 2バイト目
+     * @return 復号化された1文字
+     */
+    private static synchronized char legacyChar(byte b1, byte b2){
+        char replaced;
+
+        LEGACY_DECODER.reset();
+        LEGACY_BUFFER.clear();
+        LEGACY_BUFFER.put(b1).put(b2);
+        LEGACY_BUFFER.flip();
+
+        try{
+            replaced = LEGACY_DECODER.decode(LEGACY_BUFFER).charAt(0);
+        }catch(CharacterCodingException e){
+            replaced = Win31j.REP_CHAR;
+        }
+
+        return replaced;
+    }
+
+
+    /**
+     * 測定データを用意する。
+     */
+    @Setup
+    public void setup(){
+        int[] leads = {0x87, 0xed, 0xee, 0xfa, 0xfb};
+        int trails = 0xfc - 0x40 + 1;
+
+        this.pairs = new byte[leads.length * trails * 2];
+        int pos = 0;
+        for(int lead : leads){
+            for(int trail = 0x40; trail <= 0xfc; trail++){
+                this.pairs[pos++] = (byte) lead;
+                this.pairs[pos++] = (byte) trail;
+            }
+        }
+
+        Win31j.getWin31jChar((byte) 0x87, (byte) 0x40);
+
+        return;
+    }
+
+    /**
+     * 変換表による復号。
+     * @param hole 結果の捨て先
+     */
+    @Benchmark
+    public void table(Blackhole hole){
+        byte[] data = this.pairs;
+        for(int pos = 0; pos < data.length; pos += 2){
+            hole.consume(Win31j.getWin31jChar(data[pos], data[pos + 1]));
+        }
+        return;
+    }
+
+    /**
+     * 従来実装による復号。
+     * @param hole 結果の捨て先
+     */
+    @Benchmark
+    public void legacy(Blackhole hole){
+        byte[] data = this.pairs;
+        for(int pos = 0; pos < data.length; pos += 2){
+            hole.consume(legacyChar(data[pos], data[pos + 1]));
+        }
+        return;
+    }
+
+    /**
+     * 4スレッドでの変換表による復号。
+     * @param hole 結果の捨て先
+     */
+    @Benchmark
+    @Threads(4)
+    public void tableThreads4(Blackhole hole){
+        table(hole);
+        return;
+    }
+
+    /**
+     * 4スレッドでの従来実装による復号。
+     * @param hole 結果の捨て先
+     */
+    @Benchmark
+    @Threads(4)
+    public void legacyThreads4(Blackhole hole){
+        legacy(hole);
+        return;
+    }
+
+}
@@ -21,6 +21,7 @@
 public class AvatarData{
 
     private static final List<PreDefAvatar> PREDEF_AVATAR_LIST;
+    private static final NameIndex<PreDefAvatar> PREDEF_AVATAR_INDEX;
 
     static{
         DocumentBuilderFactory factory =
@@ -35,6 +36,11 @@
         }catch(SAXException e){
             throw new ExceptionInInitializerError(e);
         }
+
+        PREDEF_AVATAR_INDEX = new NameIndex<>(PREDEF_AVATAR_LIST.size());
+        for(PreDefAvatar avatar : PREDEF_AVATAR_LIST){
+            PREDEF_AVATAR_INDEX.putIfAbsent(avatar.getFullName(), avatar);
+        }
     }
 
 
@@ -74,13 +80,8 @@ public AvatarData(PreDefAvatar predefAvatar){
      * @return 見つかったプリセット済みAvatar。見つからなければnull。
      */
     public static PreDefAvatar getPreDefAvatar(CharSequence seq){
-        for(PreDefAvatar avatar : PREDEF_AVATAR_LIST){
-            String fullName = avatar.getFullName();
-            if(fullName.contentEquals(seq)){
-                return avatar;
-            }
-        }
-        return null;
+        PreDefAvatar result = PREDEF_AVATAR_INDEX.get(seq);
+        return result;
     }
 
     /**
@@ -157,7 +158,7 @@ public void setFaceIconUri(String faceIconUri){
      * @throws IOException 出力エラー
      */
     public void dumpXml(XmlOut writer) throws IOException{
-        writer.append("<avatar");
+        writer.startTag("avatar");
         writer.nl();
 
         writer.indent(1);
@@ -178,7 +179,7 @@ public void dumpXml(XmlOut writer) throws IOException{
             // F1014対策
         }
 
-        writer.append("/>");
+        writer.closeEmptyTag();
         writer.nl();
 
         return;
@@ -11,22 +11,19 @@
 import io.bitbucket.olyutorskii.jiocema.DecodeNotifier;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
-import java.net.URLConnection;
 import java.nio.charset.Charset;
 import jp.osdn.jindolf.parser.HtmlParseException;
 import jp.osdn.jindolf.parser.HtmlParser;
 import jp.osdn.jindolf.parser.content.ContentBuilder;
-import jp.osdn.jindolf.parser.content.ContentBuilderSJ;
 import jp.osdn.jindolf.parser.content.DecodedContent;
-import jp.osdn.jindolf.parser.content.SjisNotifier;
 
 /**
  * 入力から内部構造を生成する。
  */
 public final class Builder{
 
-    private static final int BUF_SZ = 100 * 1024;
+    private static final ContentPool POOL =
+            new ContentPool(ContentPool.DEF_MAX_IDLE);
 
 
     /**
@@ -40,6 +37,11 @@ private Builder(){
 
     /**
      * 入力ストリームをデコードする。
+     *
+     * <p>デコーダとデコード結果格納先は
+     * {@link #builderFromPage(Charset, RawPage)}と同じプールから取り出される。
+     * デコード結果が格納先を参照し続けるため、格納先は返却されない。
+     *
      * @param charset 文字コード指定
      * @param istream 入力ストリーム
      * @return デコード結果
@@ -49,30 +51,104 @@ private Builder(){
     public static DecodedContent contentFromStream(Charset charset,
                                                      InputStream istream)
             throws IOException, DecodeBreakException{
-        DecodeNotifier decoder;
-        ContentBuilder builder;
-
         String name = charset.name();
+        boolean sjis;
         if("Shift_JIS".equalsIgnoreCase(name)){
-            decoder = new SjisNotifier();
-            builder = new ContentBuilderSJ(BUF_SZ);
+            sjis = true;
         }else if("UTF-8".equalsIgnoreCase(name)){
-            decoder = new DecodeNotifier(charset.newDecoder());
-            builder = new ContentBuilder(BUF_SZ);
+            sjis = false;
         }else{
             assert false;
             return null;
         }
 
-        decoder.setCharDecodeListener(builder);
+        ContentBuilder builder = POOL.acquireBuilder(sjis, -1);
 
-        decoder.decode(istream);
+        if(sjis){
+            SjisDecoder decoder = POOL.acquireSjisDecoder();
+            decoder.setCharDecodeListener(builder);
+            decoder.decode(istream);
+            POOL.releaseSjisDecoder(decoder);
+        }else{
+            DecodeNotifier decoder = POOL.acquireUtf8Decoder();
+            decoder.setCharDecodeListener(builder);
+            decoder.decode(istream);
+            POOL.releaseUtf8Decoder(decoder);
+        }
 
         DecodedContent content = builder.getContent();
 
         return content;
     }
 
+    /**
+     * ページをデコードする。
+     *
+     * <p>デコーダとデコード結果格納先はプールから取り出され、
+     * 村や日をまたいで再利用される。
+     * デコード結果を使い終えたら{@link #releaseBuilder(ContentBuilder)}
+     * で格納先を返却すること。
+     * 返却しなかった場合は再利用されないだけで、害は無い。
+     *
+     * @param charset 文字コード指定
+     * @param page ページ
+     * @return デコード結果を格納した格納先
+     * @throws IOException 入力エラー
+     * @throws DecodeBreakException デコードエラー
+     */
+    public static ContentBuilder builderFromPage(Charset charset,
+                                                   RawPage page)
+            throws IOException, DecodeBreakException{
+        String name = charset.name();
+        boolean sjis;
+        if("Shift_JIS".equalsIgnoreCase(name)){
+            sjis = true;
+        }else if("UTF-8".equalsIgnoreCase(name)){
+            sjis = false;
+        }else{
+            assert false;
+            return null;
+        }
+
+        ContentBuilder builder = POOL.acquireBuilder(sjis, page.getLength());
+
+        if(sjis){
+            SjisDecoder decoder = POOL.acquireSjisDecoder();
+            decoder.setCharDecodeListener(builder);
+            decoder.decode(page.getBody());
+            POOL.releaseSjisDecoder(decoder);
+        }else{
+            DecodeNotifier decoder = POOL.acquireUtf8Decoder();
+            decoder.setCharDecodeListener(builder);
+            try(InputStream istream = page.openStream()){
+                decoder.decode(istream);
+            }
+            POOL.releaseUtf8Decoder(decoder);
+        }
+
+        return builder;
+    }
+
+    /**
+     * {@link #builderFromPage(Charset, RawPage)}で得た格納先を返却する。
+     *
+     * <p>返却後は格納先のデコード結果を参照してはならない。
+     *
+     * @param builder 格納先
+     */
+    public static void releaseBuilder(ContentBuilder builder){
+        POOL.releaseBuilder(builder);
+        return;
+    }
+
+    /**
+     * デコード用プールの統計レポートを得る。
+     * @return レポート文字列
+     */
+    public static String getPoolReport(){
+        return POOL.getReport();
+    }
+
     /**
      * 村の各日々をロードしパースする。
      * @param villageData 村情報
@@ -82,38 +158,49 @@ public static DecodedContent contentFromStream(Charset charset,
      */
     public static void fillVillageData(VillageData villageData)
             throws IOException, DecodeBreakException, HtmlParseException {
+        fillVillageData(villageData, 1);
+        return;
+    }
+
+    /**
+     * 村の各日々をロードしパースする。
+     *
+     * <p>各日のダウンロードは最大で指定スレッド数まで並行して行われ、
+     * デコード、パースとも重ねて進行する。
+     * パースはプロローグからエピローグへの順に
+     * 呼び出し元スレッドで行われるため、
+     * Avatarの採番などの結果はスレッド数に依存しない。
+     *
+     * @param villageData 村情報
+     * @param fetchThreads ダウンロードスレッド数
+     * @throws IOException 入力エラー
+     * @throws DecodeBreakException デコードエラー
+     * @throws HtmlParseException パースエラー
+     * @throws IllegalArgumentException スレッド数が正でない
+     * @see PeriodPipeline
+     */
+    public static void fillVillageData(VillageData villageData,
+                                         int fetchThreads)
+            throws IOException,
+                   DecodeBreakException,
+                   HtmlParseException,
+                   IllegalArgumentException {
+        PeriodPipeline pipeline = new PeriodPipeline(fetchThreads);
+        pipeline.fillVillageData(villageData);
+        return;
+    }
+
+    /**
+     * 各日ページ用のパーサを生成する。
+     * @param handler ハンドラ
+     * @return パーサ
+     */
+    public static HtmlParser createParser(Handler handler){
         HtmlParser parser = new HtmlParser();
-        Handler handler = new Handler();
         parser.setBasicHandler   (handler);
         parser.setTalkHandler    (handler);
         parser.setSysEventHandler(handler);
-
-        handler.initVillageData(villageData);
-
-        Charset charset = villageData.getLandDef().getEncoding();
-
-        for(PeriodResource resource : villageData.getPeriodResourceList()){
-            handler.initPeriodResource(resource);
-            URL url;
-            url = resource.getResourceUrl();
-            if(url == null){
-                url = new URL(resource.getOrigUrlText());
-            }
-
-            DecodedContent content;
-            URLConnection conn = url.openConnection();
-            try(InputStream istream = conn.getInputStream()){//;
-                if(resource.getDownTimeMs() <= 0){
-                    long downTimeMs = conn.getDate();
-                    resource.setDownTimeMs(downTimeMs);
-                }
-                content = contentFromStream(charset, istream);
-            }
-
-            parser.parseAutomatic(content);
-        }
-
-        return;
+        return parser;
     }
 
 }
@@ -0,0 +1,86 @@
+/*
+ * byte buffer stream
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * バッファの現在位置からリミットまでを読み出す入力ストリーム。
+ *
+ * <p>バッファの位置は読み出しに応じて進む。
+ */
+class ByteBufferInputStream extends InputStream{
+
+    private final ByteBuffer buf;
+
+
+    /**
+     * コンストラクタ。
+     * @param buf バッファ
+     */
+    ByteBufferInputStream(ByteBuffer buf){
+        super();
+        this.buf = buf;
+        return;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int read(){
+        if( ! this.buf.hasRemaining() ) return -1;
+        int result = this.buf.get() & 0xff;
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param bytes {@inheritDoc}
+     * @param off {@inheritDoc}
+     * @param len {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int read(byte[] bytes, int off, int len){
+        if(len == 0) return 0;
+        int remain = this.buf.remaining();
+        if(remain <= 0) return -1;
+
+        int result = Math.min(len, remain);
+        this.buf.get(bytes, off, result);
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param num {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public long skip(long num){
+        if(num <= 0L) return 0L;
+        int result = (int) Math.min(num, (long) this.buf.remaining());
+        this.buf.position(this.buf.position() + result);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int available(){
+        return this.buf.remaining();
+    }
+
+}
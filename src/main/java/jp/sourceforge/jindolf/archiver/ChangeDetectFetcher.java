@@ -0,0 +1,142 @@
+/*
+ * change detecting fetcher
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 取得したページ内容の変化を検出するページ取得手段。
+ *
+ * <p>URLごとに直前に取得したページ内容のハッシュ値を保持し、
+ * 初めて取得したページや内容の異なるページがあれば変化ありとする。
+ */
+public class ChangeDetectFetcher implements ResourceFetcher{
+
+    private static final String ALG_DIGEST = "SHA-1";
+    private static final int BUFSZ = 4 * 1024;
+
+
+    private final ResourceFetcher delegate;
+
+    private final Map<String, byte[]> digestMap = new ConcurrentHashMap<>();
+    private final AtomicBoolean changed = new AtomicBoolean();
+
+
+    /**
+     * コンストラクタ。
+     * @param delegate 委譲先
+     */
+    public ChangeDetectFetcher(ResourceFetcher delegate){
+        super();
+        if(delegate == null) throw new NullPointerException();
+        this.delegate = delegate;
+        return;
+    }
+
+
+    /**
+     * ページ内容のハッシュ値を得る。
+     * @param page ページ
+     * @return ハッシュ値
+     * @throws IOException 入力エラー
+     */
+    static byte[] digestPage(RawPage page) throws IOException{
+        MessageDigest digest;
+        try{
+            digest = MessageDigest.getInstance(ALG_DIGEST);
+        }catch(NoSuchAlgorithmException e){
+            throw new AssertionError(e);
+        }
+
+        byte[] buf = new byte[BUFSZ];
+        try(InputStream istream = page.openStream()){
+            for(;;){
+                int len = istream.read(buf);
+                if(len < 0) break;
+                digest.update(buf, 0, len);
+            }
+        }
+
+        byte[] result = digest.digest();
+        return result;
+    }
+
+
+    /**
+     * 前回の問い合わせ以降にページ内容の変化があったか調べる。
+     *
+     * <p>問い合わせると変化の記録は消去される。
+     *
+     * @return 変化があればtrue
+     */
+    public boolean checkChanged(){
+        boolean result = this.changed.getAndSet(false);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param url {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public RawPage fetch(URL url) throws IOException{
+        RawPage page = this.delegate.fetch(url);
+
+        byte[] digest = digestPage(page);
+        byte[] prevDigest = this.digestMap.put(url.toString(), digest);
+        if( ! Arrays.equals(digest, prevDigest) ){
+            this.changed.set(true);
+        }
+
+        return page;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param origUrl {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public URL getResourceUrl(URL origUrl) throws IOException{
+        return this.delegate.getResourceUrl(origUrl);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param url {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void notifyComplete(URL url) throws IOException{
+        this.delegate.notifyComplete(url);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param url {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void notifyBroken(URL url) throws IOException{
+        this.delegate.notifyBroken(url);
+        return;
+    }
+
+}
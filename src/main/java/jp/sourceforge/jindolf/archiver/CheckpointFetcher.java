@@ -0,0 +1,180 @@
+/*
+ * checkpointing fetcher
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+import jp.sourceforge.jindolf.corelib.LandDef;
+
+/**
+ * 一つの村の取得済みページを作業ディレクトリに保存するページ取得手段。
+ *
+ * <p>途中で中断された村を再実行すると、
+ * 保存済みのページは通信無しで再利用され、
+ * 未取得のページのみが委譲先から取得される。
+ * Avatarの採番や更新時刻などのパース結果は
+ * 保存済みページを同じ順にパースし直すことで復元される。
+ *
+ * <p>日一覧ページも保存されるため、
+ * 再実行で得られる村の構成は最初の実行時点のものとなる。
+ * 村の出力に成功したら{@link #discard()}で作業ディレクトリを破棄する。
+ */
+public class CheckpointFetcher implements ResourceFetcher{
+
+    private static final String FORM_REPORT =
+            "checkpoint: 再開={0} 保存={1}";
+
+
+    private final ResourceFetcher delegate;
+    private final PageCache store;
+
+    private final AtomicInteger resumeCount = new AtomicInteger();
+    private final AtomicInteger saveCount = new AtomicInteger();
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>村ごとの作業ディレクトリが無ければ作成される。
+     *
+     * @param delegate 委譲先
+     * @param villageDir 村ごとの作業ディレクトリ
+     * @throws IOException ディレクトリを作成できない
+     */
+    public CheckpointFetcher(ResourceFetcher delegate, Path villageDir)
+            throws IOException{
+        super();
+        if(delegate == null) throw new NullPointerException();
+        this.delegate = delegate;
+        this.store = new PageCache(villageDir);
+        return;
+    }
+
+
+    /**
+     * 村ごとの作業ディレクトリを得る。
+     * @param workDir 作業ディレクトリ
+     * @param landDef 国情報
+     * @param vid 村番号
+     * @return 村ごとの作業ディレクトリ
+     */
+    public static Path getVillageDir(Path workDir, LandDef landDef, int vid){
+        Path result = workDir.resolve(landDef.getLandId())
+                             .resolve(Integer.toString(vid));
+        return result;
+    }
+
+
+    /**
+     * 村ごとの作業ディレクトリを得る。
+     * @return 作業ディレクトリ
+     */
+    public Path getDir(){
+        return this.store.getDir();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>保存済みのページがあればそれを返す。
+     * 無ければ委譲先から取得し、保存してから返す。
+     *
+     * @param url {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public RawPage fetch(URL url) throws IOException{
+        String urlText = url.toString();
+
+        RawPage saved = this.store.load(urlText);
+        if(saved != null){
+            this.resumeCount.incrementAndGet();
+            return saved;
+        }
+
+        RawPage page = this.delegate.fetch(url);
+        this.store.store(urlText, page);
+        this.saveCount.incrementAndGet();
+
+        return page;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param origUrl {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public URL getResourceUrl(URL origUrl) throws IOException{
+        return this.delegate.getResourceUrl(origUrl);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param url {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void notifyComplete(URL url) throws IOException{
+        this.delegate.notifyComplete(url);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>保存済みのページも破棄する。
+     *
+     * @param url {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void notifyBroken(URL url) throws IOException{
+        this.store.remove(url.toString());
+        this.delegate.notifyBroken(url);
+        return;
+    }
+
+    /**
+     * 村ごとの作業ディレクトリを中身ごと破棄する。
+     * @throws IOException 入出力エラー
+     */
+    public void discard() throws IOException{
+        Path dir = getDir();
+        if( ! Files.isDirectory(dir) ) return;
+
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(dir)){
+            for(Path file : stream){
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dir);
+
+        return;
+    }
+
+    /**
+     * 利用状況レポートを得る。
+     * @return レポート文字列
+     */
+    public String getReport(){
+        String result = MessageFormat.format(FORM_REPORT,
+                this.resumeCount.get(),
+                this.saveCount.get()
+        );
+        return result;
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * decode buffer pool
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import io.bitbucket.olyutorskii.jiocema.DecodeNotifier;
+import java.nio.charset.Charset;
+import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import jp.osdn.jindolf.parser.content.ContentBuilder;
+import jp.osdn.jindolf.parser.content.ContentBuilderSJ;
+
+/**
+ * デコーダとデコード結果格納先の再利用プール。
+ *
+ * <p>パイプラインの各段のスレッドは村ごとに作り直されるため、
+ * スレッドごとではなく全スレッドで共有する上限付きのプールとする。
+ * 取り出したインスタンスは利用を終えたスレッドが返却する。
+ *
+ * <p>返却されなかったインスタンスは通常どおりGCに回収される。
+ * 極端に大きなページを格納した格納先はプールに保持しない。
+ */
+final class ContentPool{
+
+    /** デフォルトの種類ごとの保持上限数。 */
+    static final int DEF_MAX_IDLE = 16;
+    /** 保持する格納先の最大文字数。 */
+    static final int MAX_RETAIN_CHARS = 1024 * 1024;
+
+    private static final int MIN_CAPACITY = 4 * 1024;
+
+    private static final Charset CS_UTF8 = Charset.forName("UTF-8");
+
+    private static final String FORM_REPORT =
+            "pool: 生成={0} 再利用={1}";
+
+
+    private final IdleStack<ContentBuilder> sjisBuilders;
+    private final IdleStack<ContentBuilder> utf8Builders;
+    private final IdleStack<SjisDecoder> sjisDecoders;
+    private final IdleStack<DecodeNotifier> utf8Decoders;
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger reused = new AtomicInteger();
+
+
+    /**
+     * コンストラクタ。
+     * @param maxIdle 種類ごとの保持上限数
+     * @throws IllegalArgumentException 上限数が負
+     */
+    ContentPool(int maxIdle) throws IllegalArgumentException{
+        super();
+        if(maxIdle < 0) throw new IllegalArgumentException();
+        this.sjisBuilders = new IdleStack<>(maxIdle);
+        this.utf8Builders = new IdleStack<>(maxIdle);
+        this.sjisDecoders = new IdleStack<>(maxIdle);
+        this.utf8Decoders = new IdleStack<>(maxIdle);
+        return;
+    }
+
+
+    /**
+     * 新規に作る格納先の容量を決める。
+     * @param sizeHint 入力バイト数の見込み。不明なら負
+     * @return 容量
+     */
+    static int capacityFor(int sizeHint){
+        if(sizeHint < MIN_CAPACITY) return MIN_CAPACITY;
+        return sizeHint;
+    }
+
+
+    /**
+     * デコード結果格納先を取り出す。
+     *
+     * <p>Shift_JISとwindows-31jの2バイト文字エラーを扱うため、
+     * Shift_JIS用には{@link ContentBuilderSJ}が用いられる。
+     *
+     * <p>新規に作る場合の容量は入力バイト数から決められる。
+     * Shift_JISとUTF-8とも文字数は入力バイト数を超えないため、
+     * 入力バイト数が分かっていれば格納先の伸長は起きない。
+     *
+     * @param sjis Shift_JIS用ならtrue
+     * @param sizeHint 入力バイト数の見込み。不明なら負
+     * @return 格納先
+     */
+    ContentBuilder acquireBuilder(boolean sjis, int sizeHint){
+        IdleStack<ContentBuilder> stack;
+        if(sjis) stack = this.sjisBuilders;
+        else     stack = this.utf8Builders;
+
+        ContentBuilder result = stack.poll();
+        if(result != null){
+            this.reused.incrementAndGet();
+            return result;
+        }
+
+        this.created.incrementAndGet();
+        int capacity = capacityFor(sizeHint);
+        if(sjis) result = new ContentBuilderSJ(capacity);
+        else     result = new ContentBuilder(capacity);
+
+        return result;
+    }
+
+    /**
+     * デコード結果格納先を返却する。
+     *
+     * <p>返却後は格納先のデコード結果を参照してはならない。
+     *
+     * @param builder 格納先
+     */
+    void releaseBuilder(ContentBuilder builder){
+        if(builder.getContent().length() > MAX_RETAIN_CHARS) return;
+
+        if(builder instanceof ContentBuilderSJ){
+            this.sjisBuilders.offer(builder);
+        }else{
+            this.utf8Builders.offer(builder);
+        }
+
+        return;
+    }
+
+    /**
+     * Shift_JISデコーダを取り出す。
+     * @return デコーダ
+     */
+    SjisDecoder acquireSjisDecoder(){
+        SjisDecoder result = this.sjisDecoders.poll();
+        if(result == null) result = new SjisDecoder();
+        return result;
+    }
+
+    /**
+     * Shift_JISデコーダを返却する。
+     * @param decoder デコーダ
+     */
+    void releaseSjisDecoder(SjisDecoder decoder){
+        decoder.setCharDecodeListener(null);
+        this.sjisDecoders.offer(decoder);
+        return;
+    }
+
+    /**
+     * UTF-8デコーダを取り出す。
+     * @return デコーダ
+     */
+    DecodeNotifier acquireUtf8Decoder(){
+        DecodeNotifier result = this.utf8Decoders.poll();
+        if(result == null){
+            result = new DecodeNotifier(CS_UTF8.newDecoder());
+        }
+        return result;
+    }
+
+    /**
+     * UTF-8デコーダを返却する。
+     * @param decoder デコーダ
+     */
+    void releaseUtf8Decoder(DecodeNotifier decoder){
+        decoder.setCharDecodeListener(null);
+        this.utf8Decoders.offer(decoder);
+        return;
+    }
+
+    /**
+     * 新規に作られた格納先の数を得る。
+     * @return 生成数
+     */
+    int getCreatedCount(){
+        return this.created.get();
+    }
+
+    /**
+     * 再利用された格納先の数を得る。
+     * @return 再利用数
+     */
+    int getReusedCount(){
+        return this.reused.get();
+    }
+
+    /**
+     * 統計レポートを得る。
+     * @return レポート文字列
+     */
+    String getReport(){
+        String result = MessageFormat.format(FORM_REPORT,
+                getCreatedCount(),
+                getReusedCount()
+        );
+        return result;
+    }
+
+
+    /**
+     * 上限付きの待機インスタンス置き場。
+     * @param <T> インスタンスの型
+     */
+    private static final class IdleStack<T>{
+
+        private final Deque<T> deque = new ArrayDeque<>();
+        private final int maxIdle;
+
+        /**
+         * コンストラクタ。
+         * @param maxIdle 保持上限数
+         */
+        IdleStack(int maxIdle){
+            super();
+            this.maxIdle = maxIdle;
+            return;
+        }
+
+        /**
+         * インスタンスを取り出す。
+         * @return インスタンス。無ければnull
+         */
+        synchronized T poll(){
+            T result = this.deque.pollFirst();
+            return result;
+        }
+
+        /**
+         * インスタンスを置く。上限を超える分は捨てられる。
+         * @param obj インスタンス
+         */
+        synchronized void offer(T obj){
+            if(this.deque.size() >= this.maxIdle) return;
+            this.deque.addFirst(obj);
+            return;
+        }
+
+    }
+
+}
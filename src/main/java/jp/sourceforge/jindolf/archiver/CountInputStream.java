@@ -0,0 +1,79 @@
+/*
+ * byte counting stream
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 読み込んだバイト数を数える入力ストリーム。
+ */
+class CountInputStream extends FilterInputStream{
+
+    private long count = 0L;
+
+    /**
+     * コンストラクタ。
+     * @param istream 入力ストリーム
+     */
+    CountInputStream(InputStream istream){
+        super(istream);
+        return;
+    }
+
+    /**
+     * 読み込んだバイト数を得る。
+     * @return バイト数
+     */
+    long getCount(){
+        return this.count;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public int read() throws IOException{
+        int result = super.read();
+        if(result >= 0) this.count++;
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param buf {@inheritDoc}
+     * @param off {@inheritDoc}
+     * @param len {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public int read(byte[] buf, int off, int len) throws IOException{
+        int result = super.read(buf, off, len);
+        if(result > 0) this.count += result;
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param num {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public long skip(long num) throws IOException{
+        long result = super.skip(num);
+        if(result > 0) this.count += result;
+        return result;
+    }
+
+}
+
@@ -0,0 +1,187 @@
+/*
+ * local directory fetcher
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+
+/**
+ * ローカルディレクトリに保存されたページの取得。
+ *
+ * <p>ページは wget -x と同じく
+ * 「ホスト名/パス?クエリ」のファイル配置で保存されているものとする。
+ * パスが空もしくは/で終わる場合は index.html が補われる。
+ *
+ * <p>応答時刻にはファイルの更新時刻が用いられる。
+ *
+ * <p>一定以上の大きさのファイルはメモリマップされ、
+ * ヒープへコピーされることなくデコーダへ渡される。
+ *
+ * <p>file: スキームのURLは保存先ファイルそのものを指すものとする。
+ */
+public class DirFetcher implements ResourceFetcher{
+
+    private static final String INDEX = "index.html";
+    private static final String SCHEME_FILE = "file";
+
+    private static final long MMAP_THRESHOLD = 64 * 1024;
+
+    private static final String FMT_INVPATH = "不正なパスです。 {0}";
+    private static final String FMT_NOFILE = "ファイルがありません。 {0}";
+
+
+    private final Path root;
+
+
+    /**
+     * コンストラクタ。
+     * @param root 保存先ディレクトリ
+     */
+    public DirFetcher(Path root){
+        super();
+        this.root = root;
+        return;
+    }
+
+
+    /**
+     * 保存先ディレクトリを得る。
+     * @return 保存先ディレクトリ
+     */
+    public Path getRoot(){
+        return this.root;
+    }
+
+    /**
+     * URLに対応するファイルのパスを得る。
+     * @param url URL
+     * @return ファイルのパス
+     * @throws IOException URLがディレクトリ外を指す
+     */
+    public Path toPath(URL url) throws IOException{
+        Path result = this.root.resolve(url.getHost());
+
+        String path = url.getPath();
+        if(path.isEmpty() || path.endsWith("/")){
+            path += INDEX;
+        }
+
+        String query = url.getQuery();
+        if(query != null){
+            path += "?" + query;
+        }
+
+        for(String name : path.split("/")){
+            if(name.isEmpty()) continue;
+            if(".".equals(name) || "..".equals(name)){
+                String msg = MessageFormat.format(FMT_INVPATH, url);
+                throw new IOException(msg);
+            }
+            result = result.resolve(name);
+        }
+
+        return result;
+    }
+
+    /**
+     * ファイルの内容を読み込む。
+     *
+     * <p>大きなファイルは読み込み専用でメモリマップされる。
+     *
+     * @param path ファイル
+     * @return ファイルの内容
+     * @throws IOException 入力エラー
+     */
+    private static ByteBuffer readBody(Path path) throws IOException{
+        ByteBuffer result;
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            long size = channel.size();
+            if(size >= MMAP_THRESHOLD){
+                result = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }else{
+                result = ByteBuffer.allocate((int) size);
+                while(result.hasRemaining()){
+                    if(channel.read(result) < 0) break;
+                }
+                result.flip();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * URLに対応する保存先ファイルを得る。
+     * @param url URL
+     * @return ファイルのパス
+     * @throws IOException URLが不正
+     */
+    private Path resolveFile(URL url) throws IOException{
+        if( ! SCHEME_FILE.equalsIgnoreCase(url.getProtocol()) ){
+            return toPath(url);
+        }
+
+        Path result;
+        try{
+            result = Paths.get(url.toURI());
+        }catch(URISyntaxException | IllegalArgumentException e){
+            String msg = MessageFormat.format(FMT_INVPATH, url);
+            throw new IOException(msg, e);
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>保存先ファイルを指す file: スキームのURLを返す。
+     *
+     * @param origUrl {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public URL getResourceUrl(URL origUrl) throws IOException{
+        Path path = resolveFile(origUrl);
+        URL result = path.toUri().toURL();
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param url {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public RawPage fetch(URL url) throws IOException{
+        Path path = resolveFile(url);
+        if( ! Files.isRegularFile(path) ){
+            String msg = MessageFormat.format(FMT_NOFILE, path);
+            throw new FileNotFoundException(msg);
+        }
+
+        ByteBuffer body = readBody(path);
+        long dateMs = Files.getLastModifiedTime(path).toMillis();
+
+        RawPage result = new RawPage(body, dateMs);
+        return result;
+    }
+
+}
@@ -8,7 +8,9 @@
 package jp.sourceforge.jindolf.archiver;
 
 import java.io.IOException;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import jp.osdn.jindolf.parser.content.DecodedContent;
 import jp.sourceforge.jindolf.corelib.GameRole;
@@ -16,16 +18,24 @@
 
 /**
  * システムイベント モデル。
+ *
+ * <p>イベント種別ごとの付随情報は添字で参照されるため、
+ * 整数情報はint配列に、その他は配列リストに保持される。
  */
 public class EventData extends TopicData{
 
+    private static final int INTS_INIT = 4;
+
+    private static final char DEL_CHAR = '\u007f';
+
+
     private SysEventType eventType = null;
 
-    private final List<AvatarData> avatarList = new LinkedList<>();
-    private final List<Integer> intList = new LinkedList<>();
-    private final List<GameRole> roleList = new LinkedList<>();
-    private final List<DecodedContent> strList =
-            new LinkedList<>();
+    private final List<AvatarData> avatarList = new ArrayList<>();
+    private int[] intArray = new int[INTS_INIT];
+    private int intNum = 0;
+    private final List<GameRole> roleList = new ArrayList<>();
+    private final List<DecodedContent> strList = new ArrayList<>();
 
 
     /**
@@ -36,6 +46,15 @@ public EventData(){
         return;
     }
 
+    /**
+     * コンストラクタ。
+     * @param arena 行の格納先
+     */
+    EventData(LineArena arena){
+        super(arena);
+        return;
+    }
+
 
     /**
      * イベント種別からXML要素名を取得する。
@@ -103,6 +122,110 @@ public static String getRoleAttrValue(GameRole role){
         return roleName;
     }
 
+    /**
+     * 前後から取り除く空白もしくは制御文字か判定する。
+     *
+     * <p>正規表現の{@code [\s\p{Cntrl}]}に相当する。
+     *
+     * @param chVal 文字
+     * @return 取り除くならtrue
+     */
+    private static boolean isTrimChar(char chVal){
+        boolean result = chVal <= '\u0020' || chVal == DEL_CHAR;
+        return result;
+    }
+
+    /**
+     * 空白文字か判定する。
+     *
+     * <p>正規表現の{@code \s}に相当する。
+     *
+     * @param chVal 文字
+     * @return 空白文字ならtrue
+     */
+    private static boolean isSpaceChar(char chVal){
+        switch(chVal){
+        case '\u0020':
+        case '\t':
+        case '\n':
+        case '\u000b':
+        case '\f':
+        case '\r':
+            return true;
+        default:
+            break;
+        }
+        return false;
+    }
+
+    /**
+     * 空白もしくは制御文字以外の行末文字か判定する。
+     *
+     * <p>正規表現の行末{@code $}の直後に置かれうる文字のうち、
+     * {@link #isTrimChar(char)}に該当しないもの。
+     *
+     * @param chVal 文字
+     * @return 該当すればtrue
+     */
+    private static boolean isLineEnd(char chVal){
+        switch(chVal){
+        case '\u0085':
+        case '\u2028':
+        case '\u2029':
+            return true;
+        default:
+            break;
+        }
+        return false;
+    }
+
+    /**
+     * プレイヤーURIを整形する。
+     *
+     * <p>前後の空白と制御文字を取り除き、連続する空白を一つの空白にまとめる。
+     * 結果は正規表現
+     * {@code ^[\s\p{Cntrl}]+}と{@code [\s\p{Cntrl}]+$}を空文字列へ、
+     * {@code [\s]+}を空白へ順に置換した場合と一致する。
+     *
+     * @param src 元の文字列
+     * @param dst 結果の格納先。元の内容は捨てられる
+     */
+    static void normalizeUri(CharSequence src, StringBuilder dst){
+        dst.setLength(0);
+
+        int start = 0;
+        int end = src.length();
+        while(start < end && isTrimChar(src.charAt(start))){
+            start++;
+        }
+
+        int keepFrom = end;
+        if(start < end && isLineEnd(src.charAt(end - 1))){
+            keepFrom = end - 1;
+        }
+
+        int trimEnd = keepFrom;
+        while(trimEnd > start && isTrimChar(src.charAt(trimEnd - 1))){
+            trimEnd--;
+        }
+
+        boolean inSpace = false;
+        for(int pos = start; pos < trimEnd; pos++){
+            char chVal = src.charAt(pos);
+            if(isSpaceChar(chVal)){
+                if( ! inSpace ) dst.append('\u0020');
+                inSpace = true;
+            }else{
+                dst.append(chVal);
+                inSpace = false;
+            }
+        }
+
+        dst.append(src, keepFrom, end);
+
+        return;
+    }
+
     /**
      * avatarRef要素をXML出力する。
      * @param writer 出力先
@@ -111,10 +234,11 @@ public static String getRoleAttrValue(GameRole role){
      */
     public static void dumpAvatarRef(XmlOut writer, AvatarData avatar)
             throws IOException{
-        writer.append("<avatarRef");
+        writer.startTag("avatarRef");
         writer.sp();
         writer.attrOut("avatarId", avatar.getAvatarId());
-        writer.append(" />");
+        writer.sp();
+        writer.closeEmptyTag();
         writer.nl();
         return;
     }
@@ -145,15 +269,38 @@ public void addAvatarData(AvatarData avatarData){
         return;
     }
 
+    /**
+     * 追加順のAvatar情報並びを取得する。
+     * @return Avatar情報並び
+     */
+    List<AvatarData> getAvatarList(){
+        return Collections.unmodifiableList(this.avatarList);
+    }
+
     /**
      * 整数情報を追加する。
      * @param intVal 整数情報
      */
     public void addInteger(int intVal){
-        this.intList.add(intVal);
+        if(this.intNum >= this.intArray.length){
+            this.intArray =
+                    Arrays.copyOf(this.intArray, this.intArray.length * 2);
+        }
+        this.intArray[this.intNum++] = intVal;
         return;
     }
 
+    /**
+     * 整数情報を取得する。
+     * @param index 追加順の位置
+     * @return 整数情報
+     * @throws IndexOutOfBoundsException 範囲外の位置
+     */
+    private int getInteger(int index) throws IndexOutOfBoundsException{
+        if(index >= this.intNum) throw new IndexOutOfBoundsException();
+        return this.intArray[index];
+    }
+
     /**
      * 役職情報を追加する。
      * @param role 役職情報
@@ -178,11 +325,11 @@ public void addDecodedContent(DecodedContent seq){
      * @throws IOException 出力エラー
      */
     public void dumpOnstageAttr(XmlOut writer) throws IOException{
-        int entryNo = this.intList.get(0);
+        int entryNo = getInteger(0);
         AvatarData avatarData = this.avatarList.get(0);
 
         writer.sp();
-        writer.attrOut("entryNo", Integer.toString(entryNo));
+        writer.attrOut("entryNo", entryNo);
         writer.sp();
         writer.attrOut("avatarId", avatarData.getAvatarId());
 
@@ -225,7 +372,7 @@ public void dumpCountingAttr(XmlOut writer) throws IOException{
      */
     public void dumpExecutionAttr(XmlOut writer) throws IOException{
         int totalAvatar = this.avatarList.size();
-        int totalVotes = this.intList.size();
+        int totalVotes = this.intNum;
         if(totalAvatar != totalVotes){
             AvatarData victim = this.avatarList.get(totalAvatar - 1);
             writer.sp();
@@ -240,19 +387,19 @@ public void dumpExecutionAttr(XmlOut writer) throws IOException{
      * @throws IOException 出力エラー
      */
     public void dumpAskEntryAttr(XmlOut writer) throws IOException{
-        int hour     = this.intList.get(0);
-        int minute   = this.intList.get(1);
-        int minLimit = this.intList.get(2);
-        int maxLimit = this.intList.get(3);
+        int hour     = getInteger(0);
+        int minute   = getInteger(1);
+        int minLimit = getInteger(2);
+        int maxLimit = getInteger(3);
 
         writer.sp();
         writer.timeAttrOut("commitTime", hour, minute);
 
         writer.sp();
-        writer.attrOut("minMembers", Integer.toString(minLimit));
+        writer.attrOut("minMembers", minLimit);
 
         writer.sp();
-        writer.attrOut("maxMembers", Integer.toString(maxLimit));
+        writer.attrOut("maxMembers", maxLimit);
 
         return;
     }
@@ -263,8 +410,8 @@ public void dumpAskEntryAttr(XmlOut writer) throws IOException{
      * @throws IOException 出力エラー
      */
     public void dumpAskCommitAttr(XmlOut writer) throws IOException{
-        int hour     = this.intList.get(0);
-        int minute   = this.intList.get(1);
+        int hour     = getInteger(0);
+        int minute   = getInteger(1);
 
         writer.sp();
         writer.timeAttrOut("limitVote", hour, minute);
@@ -282,8 +429,8 @@ public void dumpAskCommitAttr(XmlOut writer) throws IOException{
      */
     public void dumpStayEpilogueAttr(XmlOut writer) throws IOException{
         GameRole role = this.roleList.get(0);
-        int hour   = this.intList.get(0);
-        int minute = this.intList.get(1);
+        int hour   = getInteger(0);
+        int minute = getInteger(1);
 
         String winner;
         switch(role){
@@ -309,16 +456,17 @@ public void dumpStayEpilogueAttr(XmlOut writer) throws IOException{
     public void dumpOpenroleElem(XmlOut writer) throws IOException{
         int num = this.roleList.size();
         for(int index = 0; index < num; index++){
-            int heads = this.intList.get(index);
+            int heads = getInteger(index);
             GameRole role = this.roleList.get(index);
             String roleName = getRoleAttrValue(role);
 
-            writer.append("<roleHeads");
+            writer.startTag("roleHeads");
             writer.sp();
             writer.attrOut("role", roleName);
             writer.sp();
-            writer.attrOut("heads", Integer.toString(heads));
-            writer.append(" />");
+            writer.attrOut("heads", heads);
+            writer.sp();
+            writer.closeEmptyTag();
             writer.nl();
         }
         return;
@@ -371,12 +519,13 @@ public void dumpCountingElem(XmlOut writer) throws IOException{
         for(int index = 0; index < total; index += 2){
             AvatarData voteBy = this.avatarList.get(index);
             AvatarData voteTo = this.avatarList.get(index + 1);
-            writer.append("<vote");
+            writer.startTag("vote");
             writer.sp();
             writer.attrOut("byWhom", voteBy.getAvatarId());
             writer.sp();
             writer.attrOut("target", voteTo.getAvatarId());
-            writer.append(" />");
+            writer.sp();
+            writer.closeEmptyTag();
             writer.nl();
         }
         return;
@@ -388,16 +537,17 @@ public void dumpCountingElem(XmlOut writer) throws IOException{
      * @throws IOException 出力エラー
      */
     public void dumpExecutionElem(XmlOut writer) throws IOException{
-        int total = this.intList.size();
+        int total = this.intNum;
         for(int index = 0; index < total; index++){
             AvatarData voteTo = this.avatarList.get(index);
-            int count = this.intList.get(index);
-            writer.append("<nominated");
+            int count = getInteger(index);
+            writer.startTag("nominated");
             writer.sp();
             writer.attrOut("avatarId", voteTo.getAvatarId());
             writer.sp();
-            writer.attrOut("count", "" + count);
-            writer.append(" />");
+            writer.attrOut("count", count);
+            writer.sp();
+            writer.closeEmptyTag();
             writer.nl();
         }
         return;
@@ -410,21 +560,22 @@ public void dumpExecutionElem(XmlOut writer) throws IOException{
      */
     public void dumpPlayerlistElem(XmlOut writer) throws IOException{
         int num = this.avatarList.size();
+        StringBuilder uriText = new StringBuilder();
 
         for(int index = 0; index < num; index++){
             AvatarData avatar = this.avatarList.get(index);
             DecodedContent uri     = this.strList.get(index * 2);
             DecodedContent account = this.strList.get(index * 2 + 1);
-            int isLiving = this.intList.get(index);
+            int isLiving = getInteger(index);
             String survive;
             if(isLiving == 0) survive = "false";
             else              survive = "true";
             GameRole role = this.roleList.get(index);
             String roleName = getRoleAttrValue(role);
 
-            writer.append("<playerInfo");
+            writer.startTag("playerInfo");
             writer.sp();
-            writer.attrOut("playerId", account.toString());
+            writer.attrOut("playerId", account);
             writer.sp();
             writer.attrOut("avatarId", avatar.getAvatarId());
             writer.sp();
@@ -432,16 +583,14 @@ public void dumpPlayerlistElem(XmlOut writer) throws IOException{
             writer.sp();
             writer.attrOut("role", roleName);
 
-            String uriStr = uri.toString();
-            uriStr = uriStr.replaceAll("^[\\s\\p{Cntrl}]+", "");
-            uriStr = uriStr.replaceAll("[\\s\\p{Cntrl}]+$", "");
-            uriStr = uriStr.replaceAll("[\\s]+", "\u0020");
-            if(uriStr.length() > 0){
+            normalizeUri(uri, uriText);
+            if(uriText.length() > 0){
                 writer.sp();
-                writer.attrOut("uri", uriStr);
+                writer.attrOut("uri", uriText);
             }
 
-            writer.append(" />");
+            writer.sp();
+            writer.closeEmptyTag();
             writer.nl();
         }
 
@@ -486,8 +635,8 @@ public void dumpAssaultAttr(XmlOut writer) throws IOException{
         writer.indent(1);
         writer.attrOut("xname", xname);
 
-        int hour = this.intList.get(0);
-        int minute = this.intList.get(1);
+        int hour = getInteger(0);
+        int minute = getInteger(1);
         writer.sp();
         writer.timeAttrOut("time", hour, minute);
         writer.nl();
@@ -511,8 +660,7 @@ public void dumpAssaultAttr(XmlOut writer) throws IOException{
     public void dumpXml(XmlOut writer) throws IOException{
         String tagName = getTagName(this.eventType);
 
-        writer.append("<");
-        writer.append(tagName);
+        writer.startTag(tagName);
 
         boolean hasAttr = true;
         switch(this.eventType){
@@ -552,7 +700,7 @@ public void dumpXml(XmlOut writer) throws IOException{
         }
 
         if(hasAttr) writer.sp();
-        writer.append(">");
+        writer.closeStartTag();
         writer.nl();
 
         dumpLines(writer);
@@ -584,9 +732,7 @@ public void dumpXml(XmlOut writer) throws IOException{
             break;
         }
 
-        writer.append("</");
-        writer.append(tagName);
-        writer.append(">");
+        writer.endTag(tagName);
         writer.nl();
 
         return;
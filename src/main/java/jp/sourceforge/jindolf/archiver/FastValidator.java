@@ -0,0 +1,279 @@
+/*
+ * fast structural validator
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.text.MessageFormat;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Set;
+import jp.sourceforge.jindolf.corelib.TalkType;
+import org.xml.sax.SAXException;
+
+/**
+ * 村モデルの構造検査。
+ *
+ * <p>XML出力を読み直すことなく、
+ * スキーマが課す制約のうちモデルの内容次第で破られうるものを検査する。
+ * 必須の値の有無、時刻や日付の範囲、avatarIdの一意性、
+ * 発言とシステムイベントからのavatarId参照が対象となる。
+ * 要素の並びや整形式性はXML出力の実装で保証されるため検査しない。
+ *
+ * <p>Periodは出力の前に一つずつ検査でき、
+ * 最初に見つかった違反のみが記録される。
+ *
+ * <p>スレッドセーフではない。
+ */
+final class FastValidator{
+
+    private static final String FMT_NOVALUE =
+            "{0} 要素の {1} がありません。";
+    private static final String FMT_RANGE =
+            "{0} 要素の {1} が範囲外です。 {2}";
+    private static final String FMT_DUPID =
+            "avatarId が重複しています。 {0}";
+    private static final String FMT_UNDEFID =
+            "{0} 要素が未定義の avatarId を参照しています。 {1}";
+
+    private static final int MAX_MONTH = 12;
+    private static final int MAX_DAY = 31;
+    private static final int MAX_HOUR = 23;
+    private static final int MAX_MINUTE = 59;
+
+
+    private final Set<String> avatarIdSet = new HashSet<>();
+    private int syncedAvatars = 0;
+
+    private String errMsg = null;
+
+
+    /**
+     * コンストラクタ。
+     */
+    FastValidator(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 村全体を検査する。
+     * @param village 村モデル
+     * @throws SAXException 違反が見つかった
+     */
+    static void validate(VillageData village) throws SAXException{
+        FastValidator validator = new FastValidator();
+        validator.checkVillage(village);
+        validator.verify();
+        return;
+    }
+
+
+    /**
+     * 違反を記録する。
+     *
+     * <p>既に違反が記録されていれば何もしない。
+     *
+     * @param msg 違反の説明
+     */
+    private void fail(String msg){
+        if(this.errMsg == null) this.errMsg = msg;
+        return;
+    }
+
+    /**
+     * 違反が記録されているか判定する。
+     * @return 違反があればtrue
+     */
+    boolean hasError(){
+        return this.errMsg != null;
+    }
+
+    /**
+     * 違反が記録されていれば例外を投げる。
+     * @throws SAXException 違反が記録されている
+     */
+    void verify() throws SAXException{
+        if(this.errMsg != null) throw new SAXException(this.errMsg);
+        return;
+    }
+
+    /**
+     * 必須の値を検査する。
+     * @param value 値
+     * @param elem 要素名
+     * @param attr 属性名
+     */
+    private void checkValue(Object value, String elem, String attr){
+        if(value == null){
+            fail(MessageFormat.format(FMT_NOVALUE, elem, attr));
+        }
+        return;
+    }
+
+    /**
+     * 値の範囲を検査する。
+     * @param value 値
+     * @param min 下限
+     * @param max 上限
+     * @param elem 要素名
+     * @param attr 属性名
+     */
+    private void checkRange(int value, int min, int max,
+                            String elem, String attr){
+        if(value < min || max < value){
+            String text = Integer.toString(value);
+            fail(MessageFormat.format(FMT_RANGE, elem, attr, text));
+        }
+        return;
+    }
+
+    /**
+     * 村に登録されたAvatarのうち未検査のものを検査し、
+     * avatarIdを参照先として登録する。
+     * @param village 村モデル
+     */
+    private void syncAvatars(VillageData village){
+        List<AvatarData> avatarList = village.getAvatarList();
+        if(avatarList.size() <= this.syncedAvatars) return;
+
+        ListIterator<AvatarData> it =
+                avatarList.listIterator(this.syncedAvatars);
+        while(it.hasNext()){
+            AvatarData avatar = it.next();
+            String avatarId = avatar.getAvatarId();
+
+            checkValue(avatarId, "avatar", "avatarId");
+            checkValue(avatar.getFullName(), "avatar", "fullName");
+            checkValue(avatar.getShortName(), "avatar", "shortName");
+
+            if(avatarId != null && ! this.avatarIdSet.add(avatarId)){
+                fail(MessageFormat.format(FMT_DUPID, avatarId));
+            }
+
+            this.syncedAvatars++;
+        }
+
+        return;
+    }
+
+    /**
+     * Avatar参照を検査する。
+     * @param avatar Avatarモデル
+     * @param elem 参照元の要素名
+     */
+    private void checkAvatarRef(AvatarData avatar, String elem){
+        if(avatar == null){
+            fail(MessageFormat.format(FMT_NOVALUE, elem, "avatarId"));
+            return;
+        }
+
+        String avatarId = avatar.getAvatarId();
+        if( ! this.avatarIdSet.contains(avatarId) ){
+            fail(MessageFormat.format(FMT_UNDEFID, elem, avatarId));
+        }
+
+        return;
+    }
+
+    /**
+     * 村の属性とAvatar一覧、メモリ上の全Periodを検査する。
+     *
+     * <p>一時ファイルへ書き出し済みのPeriodは、
+     * 書き出す際に{@link #checkPeriod(VillageData, PeriodData)}で検査されていなければならない。
+     *
+     * @param village 村モデル
+     */
+    void checkVillage(VillageData village){
+        checkValue(village.getFullName(), "village", "fullName");
+        checkValue(village.getGraveIconUri(), "village", "graveIconURI");
+        checkRange(village.getCommitHour(), 0, MAX_HOUR,
+                   "village", "commitTime");
+        checkRange(village.getCommitMinute(), 0, MAX_MINUTE,
+                   "village", "commitTime");
+
+        syncAvatars(village);
+
+        for(PeriodData period : village.getPeriodDataList()){
+            checkPeriod(village, period);
+        }
+
+        return;
+    }
+
+    /**
+     * Periodとその全発言、全システムイベントを検査する。
+     *
+     * <p>参照されるAvatarは全て村に登録済みでなければならない。
+     *
+     * @param village Periodを書き出す村モデル
+     * @param period Periodモデル
+     */
+    void checkPeriod(VillageData village, PeriodData period){
+        if(hasError()) return;
+
+        syncAvatars(village);
+
+        checkValue(period.getDisclosureType(), "period", "disclosure");
+        checkRange(period.getCommitMonth(), 1, MAX_MONTH,
+                   "period", "nextCommitDay");
+        checkRange(period.getCommitDay(), 1, MAX_DAY,
+                   "period", "nextCommitDay");
+        checkRange(period.getCommitHour(), 0, MAX_HOUR,
+                   "period", "commitTime");
+        checkRange(period.getCommitMinute(), 0, MAX_MINUTE,
+                   "period", "commitTime");
+
+        for(TopicData topic : period.getTopicList()){
+            if(topic instanceof TalkData){
+                checkTalk((TalkData) topic);
+            }else if(topic instanceof EventData){
+                checkEvent((EventData) topic);
+            }
+            if(hasError()) break;
+        }
+
+        return;
+    }
+
+    /**
+     * 発言を検査する。
+     * @param talk 発言モデル
+     */
+    private void checkTalk(TalkData talk){
+        TalkType type = talk.getTalkType();
+        checkValue(type, "talk", "type");
+        checkAvatarRef(talk.getAvatarData(), "talk");
+        checkValue(talk.getXName(), "talk", "xname");
+        checkRange(talk.getHour(), 0, MAX_HOUR, "talk", "time");
+        checkRange(talk.getMinute(), 0, MAX_MINUTE, "talk", "time");
+        if(type != TalkType.GRAVE){
+            checkValue(talk.getFaceIconUri(), "talk", "faceIconURI");
+        }
+        return;
+    }
+
+    /**
+     * システムイベントを検査する。
+     * @param event システムイベントモデル
+     */
+    private void checkEvent(EventData event){
+        if(event.getEventType() == null){
+            fail(MessageFormat.format(FMT_NOVALUE, "event", "type"));
+            return;
+        }
+
+        String elem = EventData.getTagName(event.getEventType());
+        for(AvatarData avatar : event.getAvatarList()){
+            checkAvatarRef(avatar, elem);
+        }
+
+        return;
+    }
+
+}
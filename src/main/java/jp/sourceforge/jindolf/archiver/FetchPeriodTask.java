@@ -0,0 +1,89 @@
+/*
+ * period fetch task
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.Callable;
+
+/**
+ * Periodページのダウンロードを行うタスク。
+ *
+ * <p>デコードとパースは行わない。
+ * パースはHandlerの状態を持つスレッドが
+ * Periodの並び順に行わなければならない。
+ */
+public class FetchPeriodTask implements Callable<RawPage> {
+
+    private final PeriodResource resource;
+    private final ResourceFetcher fetcher;
+
+
+    /**
+     * コンストラクタ。
+     * @param resource ロード元情報
+     */
+    public FetchPeriodTask(PeriodResource resource){
+        this(resource, new HttpFetcher());
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     * @param resource ロード元情報
+     * @param fetcher ページ取得手段
+     */
+    public FetchPeriodTask(PeriodResource resource, ResourceFetcher fetcher){
+        super();
+        this.resource = resource;
+        this.fetcher = fetcher;
+        return;
+    }
+
+
+    /**
+     * ロード元情報から取得元URLを得る。
+     *
+     * <p>XHTML格納先URLが設定されていればそちらを優先する。
+     *
+     * @param resource ロード元情報
+     * @return 取得元URL
+     * @throws IOException URLが不正
+     */
+    public static URL getSourceUrl(PeriodResource resource)
+            throws IOException{
+        URL url;
+        url = resource.getResourceUrl();
+        if(url == null){
+            url = new URL(resource.getOrigUrlText());
+        }
+        return url;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>ロード時刻が未設定ならページの応答時刻から設定される。
+     *
+     * @return ダウンロード結果
+     * @throws IOException 入力エラー
+     */
+    @Override
+    public RawPage call() throws IOException{
+        URL url = getSourceUrl(this.resource);
+        RawPage page = this.fetcher.fetch(url);
+
+        if(this.resource.getDownTimeMs() <= 0){
+            this.resource.setDownTimeMs(page.getDateMs());
+        }
+
+        return page;
+    }
+
+}
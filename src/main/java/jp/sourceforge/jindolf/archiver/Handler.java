@@ -39,6 +39,7 @@ public class Handler extends HtmlAdapter{
     private String pageTitle = null;
 
     private PeriodData currentPeriod = null;
+    private PeriodData parsedPeriod = null;
     private PeriodResource currentResource = null;
 
     private TalkData currentTalk = null;
@@ -59,6 +60,7 @@ public Handler(){
     public void initVillageData(VillageData villageDataArg){
         this.villageData = villageDataArg;
         this.currentPeriod = null;
+        this.parsedPeriod = null;
         this.pageTitle = null;
         return;
     }
@@ -72,6 +74,14 @@ public void initPeriodResource(PeriodResource resource){
         return;
     }
 
+    /**
+     * 直近にパースを終えたPeriodを得る。
+     * @return Periodモデル。まだ無ければnull
+     */
+    public PeriodData getCurrentPeriod(){
+        return this.parsedPeriod;
+    }
+
     /**
      * {@inheritDoc}
      * @param content {@inheritDoc}
@@ -261,7 +271,8 @@ public void periodLink(DecodedContent content,
      */
     @Override
     public void startTalk() throws HtmlParseException{
-        this.currentTalk = new TalkData();
+        this.currentTalk =
+                new TalkData(this.currentPeriod.getLineArena());
         return;
     }
 
@@ -384,7 +395,7 @@ public void endTalk() throws HtmlParseException{
                 hasNotMurder && isWolfTalk && isOneLineTalk;
 
         if(maybeAssaultEvent){
-            DecodedContent line1st = this.currentTalk.get1stLine();
+            CharSequence line1st = this.currentTalk.get1stLine();
             Matcher matcher = MURDER_PATTERN.matcher(line1st);
             if(matcher.matches()){
                 String avatarName = matcher.group(1);
@@ -408,8 +419,6 @@ public void endTalk() throws HtmlParseException{
      * @return 襲撃イベント
      */
     private EventData buildAssaultEvent(AvatarData target){
-        DecodedContent line1st = this.currentTalk.get1stLine();
-
         String xname = this.currentTalk.getXName();
 
         int hour   = this.currentTalk.getHour();
@@ -421,10 +430,10 @@ private EventData buildAssaultEvent(AvatarData target){
             byWhom.setFaceIconUri(iconUri);
         }
 
-        EventData event = new EventData();
+        EventData event = new EventData(this.currentPeriod.getLineArena());
 
         event.setEventType(SysEventType.ASSAULT);
-        event.addLine(line1st);
+        event.add1stLineOf(this.currentTalk);
         event.addAvatarData(byWhom);
         event.addAvatarData(target);
         event.addDecodedContent(new DecodedContent(xname));
@@ -443,7 +452,8 @@ private EventData buildAssaultEvent(AvatarData target){
     @Override
     public void startSysEvent(EventFamily eventFamily)
             throws HtmlParseException{
-        this.currentEvent = new EventData();
+        this.currentEvent =
+                new EventData(this.currentPeriod.getLineArena());
         return;
     }
 
@@ -887,7 +897,9 @@ public void endSysEvent() throws HtmlParseException{
      */
     @Override
     public void endParse() throws HtmlParseException{
+        this.currentPeriod.getLineArena().trimToSize();
         this.villageData.addPeriodData(this.currentPeriod);
+        this.parsedPeriod = this.currentPeriod;
         this.currentPeriod = null;
         return;
     }
@@ -0,0 +1,180 @@
+/*
+ * per-host request throttle
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.InterruptedIOException;
+import java.text.MessageFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ホストごとのトークンバケットによるリクエスト間隔の調整。
+ *
+ * <p>トークンは毎秒指定数ずつ補充され、バケット容量まで貯まる。
+ * リクエストごとにトークンを一つ消費し、
+ * 足りなければ補充されるまで待機する。
+ * 待機中のリクエストは先着順に予約されるため、
+ * 複数スレッドから同時に呼ばれても指定頻度を超えない。
+ */
+public class HostThrottle{
+
+    private static final long NANOS_PER_SEC = TimeUnit.SECONDS.toNanos(1L);
+
+    private static final String FORM_REPORT =
+            "throttle: 待機回数={0} 待機={1}ms";
+
+
+    private final double ratePerSec;
+    private final int burst;
+
+    private final Map<String, Bucket> bucketMap = new ConcurrentHashMap<>();
+
+    private final AtomicInteger waitCount = new AtomicInteger();
+    private final AtomicLong waitNanos = new AtomicLong();
+
+
+    /**
+     * コンストラクタ。
+     * @param ratePerSec ホストごとの毎秒リクエスト数
+     * @param burst 連続して待機無しに許すリクエスト数
+     * @throws IllegalArgumentException 引数が正でない
+     */
+    public HostThrottle(double ratePerSec, int burst)
+            throws IllegalArgumentException{
+        super();
+        if( ! (ratePerSec > 0.0) || Double.isInfinite(ratePerSec)){
+            throw new IllegalArgumentException();
+        }
+        if(burst <= 0) throw new IllegalArgumentException();
+        this.ratePerSec = ratePerSec;
+        this.burst = burst;
+        return;
+    }
+
+
+    /**
+     * リクエスト枠を予約し、必要な待機時間を得る。
+     * @param host ホスト名
+     * @param nowNs 現在時刻(ナノ秒)
+     * @return 待機時間(ナノ秒)。待機不要なら0
+     */
+    long reserve(String host, long nowNs){
+        Bucket bucket = this.bucketMap.computeIfAbsent(
+                host, key -> new Bucket(this.burst, nowNs));
+
+        double intervalNs = NANOS_PER_SEC / this.ratePerSec;
+
+        long result;
+        synchronized(bucket){
+            result = bucket.take(this.burst, intervalNs, nowNs);
+        }
+
+        return result;
+    }
+
+    /**
+     * リクエスト枠が空くまで待機する。
+     * @param host ホスト名
+     * @throws InterruptedIOException 割り込まれた
+     */
+    public void acquire(String host) throws InterruptedIOException{
+        long waitNs = reserve(host, System.nanoTime());
+        if(waitNs <= 0L) return;
+
+        this.waitCount.incrementAndGet();
+        this.waitNanos.addAndGet(waitNs);
+
+        try{
+            TimeUnit.NANOSECONDS.sleep(waitNs);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+
+        return;
+    }
+
+    /**
+     * 待機した回数を得る。
+     * @return 待機回数
+     */
+    public int getWaitCount(){
+        return this.waitCount.get();
+    }
+
+    /**
+     * 待機した時間の合計を得る。
+     * @return 待機時間(ミリ秒)
+     */
+    public long getWaitMs(){
+        return TimeUnit.NANOSECONDS.toMillis(this.waitNanos.get());
+    }
+
+    /**
+     * 統計レポートを得る。
+     * @return レポート文字列
+     */
+    public String getReport(){
+        String result = MessageFormat.format(FORM_REPORT,
+                getWaitCount(),
+                getWaitMs()
+        );
+        return result;
+    }
+
+
+    /**
+     * ホストごとのトークンバケット。
+     *
+     * <p>トークン残量は予約によって負になりうる。
+     */
+    private static class Bucket{
+
+        private double tokens;
+        private long lastNs;
+
+        /**
+         * コンストラクタ。
+         * @param burst バケット容量
+         * @param nowNs 現在時刻(ナノ秒)
+         */
+        Bucket(int burst, long nowNs){
+            super();
+            this.tokens = burst;
+            this.lastNs = nowNs;
+            return;
+        }
+
+        /**
+         * トークンを補充してから一つ消費する。
+         * @param burst バケット容量
+         * @param intervalNs トークン一つあたりの補充間隔(ナノ秒)
+         * @param nowNs 現在時刻(ナノ秒)
+         * @return トークンが補充されるまでの待機時間(ナノ秒)
+         */
+        long take(int burst, double intervalNs, long nowNs){
+            long elapsed = nowNs - this.lastNs;
+            if(elapsed > 0L){
+                this.tokens = Math.min(burst,
+                                       this.tokens + elapsed / intervalNs);
+                this.lastNs = nowNs;
+            }
+
+            this.tokens -= 1.0;
+            if(this.tokens >= 0.0) return 0L;
+
+            long result = (long) Math.ceil(-this.tokens * intervalNs);
+            return result;
+        }
+
+    }
+
+}
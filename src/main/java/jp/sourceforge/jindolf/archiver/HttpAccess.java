@@ -9,7 +9,6 @@
 
 import io.bitbucket.olyutorskii.jiocema.DecodeBreakException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.LinkedList;
@@ -19,6 +18,7 @@
 import jp.osdn.jindolf.parser.HtmlParser;
 import jp.osdn.jindolf.parser.PageType;
 import jp.osdn.jindolf.parser.SeqRange;
+import jp.osdn.jindolf.parser.content.ContentBuilder;
 import jp.osdn.jindolf.parser.content.DecodedContent;
 import jp.sourceforge.jindolf.corelib.LandDef;
 import jp.sourceforge.jindolf.corelib.LandState;
@@ -74,20 +74,45 @@ public static List<PeriodResource> loadResourceList(LandDef landDef,
             throws DecodeBreakException,
                    HtmlParseException,
                    IOException {
+        List<PeriodResource> result =
+                loadResourceList(landDef, vid,
+                                 new HttpFetcher(), new TransferStats());
+        return result;
+    }
+
+    /**
+     * 日ページのロード元情報一覧を指定した取得手段で得る。
+     * @param landDef 国指定
+     * @param vid 村番号
+     * @param fetcher ページ取得手段
+     * @param stats 転送量の集計先
+     * @return ロード元情報一覧
+     * @throws DecodeBreakException デコードエラー
+     * @throws HtmlParseException パースエラー
+     * @throws IOException 入力エラー
+     */
+    public static List<PeriodResource> loadResourceList(LandDef landDef,
+                                                          int vid,
+                                                          ResourceFetcher fetcher,
+                                                          TransferStats stats)
+            throws DecodeBreakException,
+                   HtmlParseException,
+                   IOException {
         URL url = getPeriodListURL(landDef, vid);
+        RawPage page = fetcher.fetch(url);
+        stats.addPage(page);
 
         Charset charset = landDef.getEncoding();
-        DecodedContent content;
-        try(InputStream istream = url.openStream()){
-            content = Builder.contentFromStream(charset, istream);
-        }
+        ContentBuilder builder = Builder.builderFromPage(charset, page);
 
         HtmlParser parser = new HtmlParser();
         PeriodListHandler handler = new PeriodListHandler(landDef, vid);
         parser.setBasicHandler(handler);
         parser.setTalkHandler(handler);
         parser.setSysEventHandler(handler);
-        parser.parseAutomatic(content);
+        parser.parseAutomatic(builder.getContent());
+
+        Builder.releaseBuilder(builder);
 
         List<PeriodResource> result = handler.getResourceList();
 
@@ -0,0 +1,356 @@
+/*
+ * HTTP fetcher
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * HTTPによるページ取得。
+ *
+ * <p>ページキャッシュを指定すると、キャッシュを介して取得する。
+ * リクエスト間隔調整を指定すると、通信の前にホストごとの枠を待つ。
+ */
+public class HttpFetcher implements ResourceFetcher{
+
+    private static final String HDR_ETAG    = "ETag";
+    private static final String HDR_LASTMOD = "Last-Modified";
+    private static final String HDR_IFNONEMATCH = "If-None-Match";
+    private static final String HDR_IFMODSINCE  = "If-Modified-Since";
+    private static final String HDR_ACCEPTENC   = "Accept-Encoding";
+
+    private static final String ENC_ACCEPT = "gzip, deflate";
+    private static final String ENC_GZIP = "gzip";
+    private static final String ENC_XGZIP = "x-gzip";
+    private static final String ENC_DEFLATE = "deflate";
+    private static final String ENC_IDENTITY = "identity";
+
+    private static final int ZLIB_HEADLEN = 2;
+    private static final int ZLIB_CM_MASK = 0x0f;
+    private static final int ZLIB_CM_DEFLATE = 8;
+    private static final int ZLIB_FCHECK_DIV = 31;
+
+    private static final int BUFSZ_DRAIN = 512;
+    private static final int MAX_SIZEHINT = 16 * 1024 * 1024;
+
+    private static final String FMT_INVENC = "未対応のContent-Encodingです。 {0}";
+    private static final String FMT_TRUNCATED =
+            "転送が途中で途切れました。 {0} ({1}/{2}byte)";
+
+
+    private final PageCache cache;
+    private final HostThrottle throttle;
+
+
+    /**
+     * コンストラクタ。
+     */
+    public HttpFetcher(){
+        this(null);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     * @param cache ページキャッシュ。無ければnull
+     */
+    public HttpFetcher(PageCache cache){
+        this(cache, null);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     * @param cache ページキャッシュ。無ければnull
+     * @param throttle リクエスト間隔調整。無ければnull
+     */
+    public HttpFetcher(PageCache cache, HostThrottle throttle){
+        super();
+        this.cache = cache;
+        this.throttle = throttle;
+        return;
+    }
+
+
+    /**
+     * Content-Encodingに応じて圧縮転送を展開するストリームを得る。
+     * @param istream 転送されたままの入力ストリーム
+     * @param encoding Content-Encodingヘッダ値。無ければnull
+     * @return 展開後の入力ストリーム
+     * @throws IOException 未対応の符号化もしくは入力エラー
+     */
+    static InputStream decodeContent(InputStream istream, String encoding)
+            throws IOException{
+        if(encoding == null) return istream;
+
+        String enc = encoding.trim().toLowerCase(Locale.ROOT);
+        InputStream result;
+
+        switch(enc){
+        case "":
+        case ENC_IDENTITY:
+            result = istream;
+            break;
+        case ENC_GZIP:
+        case ENC_XGZIP:
+            result = new GZIPInputStream(istream);
+            break;
+        case ENC_DEFLATE:
+            result = inflateContent(istream);
+            break;
+        default:
+            String msg = MessageFormat.format(FMT_INVENC, encoding);
+            throw new IOException(msg);
+        }
+
+        return result;
+    }
+
+    /**
+     * deflate符号化された転送を展開するストリームを得る。
+     *
+     * <p>deflate符号化はzlib形式と定められているが、
+     * zlibヘッダを伴わない生のDEFLATE形式を送るサーバも存在するため、
+     * 先頭2バイトがzlibヘッダでなければ生のDEFLATE形式として展開する。
+     *
+     * @param istream 転送されたままの入力ストリーム
+     * @return 展開後の入力ストリーム
+     * @throws IOException 入力エラー
+     */
+    private static InputStream inflateContent(InputStream istream)
+            throws IOException{
+        PushbackInputStream pushback =
+                new PushbackInputStream(istream, ZLIB_HEADLEN);
+
+        byte[] head = new byte[ZLIB_HEADLEN];
+        int headLen = 0;
+        while(headLen < ZLIB_HEADLEN){
+            int len = pushback.read(head, headLen, ZLIB_HEADLEN - headLen);
+            if(len < 0) break;
+            headLen += len;
+        }
+        pushback.unread(head, 0, headLen);
+
+        if(headLen == ZLIB_HEADLEN && isZlibHeader(head[0], head[1])){
+            return new InflaterInputStream(pushback);
+        }
+
+        Inflater inflater = new Inflater(true);
+        InputStream result = new InflaterInputStream(pushback, inflater){
+            @Override
+            public void close() throws IOException{
+                try{
+                    super.close();
+                }finally{
+                    inflater.end();
+                }
+                return;
+            }
+        };
+
+        return result;
+    }
+
+    /**
+     * zlibヘッダか判定する。
+     *
+     * <p>圧縮方式がdeflateであり、
+     * 2バイトを符号無し16bit整数とみなした値が31で割り切れるか調べる。
+     *
+     * @param cmf 1バイト目(CMF)
+     * @param flg 2バイト目(FLG)
+     * @return zlibヘッダならtrue
+     */
+    static boolean isZlibHeader(byte cmf, byte flg){
+        int cmfVal = cmf & 0xff;
+        int flgVal = flg & 0xff;
+        if((cmfVal & ZLIB_CM_MASK) != ZLIB_CM_DEFLATE) return false;
+        int check = (cmfVal << Byte.SIZE) | flgVal;
+        boolean result = check % ZLIB_FCHECK_DIV == 0;
+        return result;
+    }
+
+    /**
+     * Content-Lengthから読み込み先の大きさの見込みを得る。
+     *
+     * <p>不当に大きな値は見込みとして用いない。
+     *
+     * @param contentLength Content-Length。不明なら負
+     * @return バイト数の見込み。不明なら負
+     */
+    static int toSizeHint(long contentLength){
+        if(contentLength < 0L || contentLength > MAX_SIZEHINT) return -1;
+        return (int) contentLength;
+    }
+
+    /**
+     * 入力ストリームを終端まで読み捨てる。
+     *
+     * <p>展開し終えた圧縮データの後に残る転送バイト列を
+     * 転送量として数えるために用いる。
+     *
+     * @param istream 入力ストリーム
+     * @throws IOException 入力エラー
+     */
+    private static void drain(InputStream istream) throws IOException{
+        byte[] buf = new byte[BUFSZ_DRAIN];
+        for(;;){
+            int len = istream.read(buf);
+            if(len < 0) break;
+        }
+        return;
+    }
+
+
+    /**
+     * ページキャッシュを得る。
+     * @return ページキャッシュ。無ければnull
+     */
+    public PageCache getPageCache(){
+        return this.cache;
+    }
+
+    /**
+     * リクエスト間隔調整を得る。
+     * @return リクエスト間隔調整。無ければnull
+     */
+    public HostThrottle getThrottle(){
+        return this.throttle;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>キャッシュ指定がある場合、
+     * 完了印の付いたキャッシュ済みページは通信無しで返される。
+     * 完了印の無いキャッシュ済みページは
+     * If-None-Match及びIf-Modified-Sinceヘッダで再検証され、
+     * 更新が無ければキャッシュ済みページが返される。
+     * ダウンロードしたページはキャッシュに格納される。
+     *
+     * <p>gzip及びdeflateによる圧縮転送を要求し、
+     * 展開後のバイト列をページ内容とする。
+     * Content-Lengthに満たないまま途切れた転送は入力エラーとなり、
+     * キャッシュには格納されない。
+     *
+     * @param url {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public RawPage fetch(URL url) throws IOException{
+        PageCache cache = this.cache;
+        String urlText = url.toString();
+
+        RawPage cached = null;
+        if(cache != null){
+            cached = cache.load(urlText);
+            if(cached != null && cache.isComplete(urlText)){
+                cache.countReuse();
+                return cached;
+            }
+        }
+
+        if(this.throttle != null){
+            this.throttle.acquire(url.getHost());
+        }
+
+        URLConnection conn = url.openConnection();
+        conn.setRequestProperty(HDR_ACCEPTENC, ENC_ACCEPT);
+        if(cached != null){
+            if(cached.getEtag() != null){
+                conn.setRequestProperty(HDR_IFNONEMATCH, cached.getEtag());
+            }
+            if(cached.getLastModified() != null){
+                conn.setRequestProperty(HDR_IFMODSINCE,
+                                        cached.getLastModified());
+            }
+        }
+
+        if(cached != null && conn instanceof HttpURLConnection){
+            HttpURLConnection httpConn = (HttpURLConnection) conn;
+            int code = httpConn.getResponseCode();
+            if(code == HttpURLConnection.HTTP_NOT_MODIFIED){
+                httpConn.disconnect();
+                cache.countRevalidate();
+                return cached;
+            }
+        }
+
+        RawPage page;
+        String encoding = conn.getContentEncoding();
+        long contentLength = conn.getContentLengthLong();
+        try(CountInputStream wire = new CountInputStream(conn.getInputStream());
+            InputStream istream = decodeContent(wire, encoding) ){
+            int sizeHint = -1;
+            if(istream == wire) sizeHint = toSizeHint(contentLength);
+            page = RawPage.readPage(istream,
+                                    sizeHint,
+                                    conn.getDate(),
+                                    conn.getHeaderField(HDR_ETAG),
+                                    conn.getHeaderField(HDR_LASTMOD) );
+            drain(wire);
+            page.setTransferLength(wire.getCount());
+        }
+
+        if(contentLength >= 0L && page.getTransferLength() < contentLength){
+            String msg = MessageFormat.format(FMT_TRUNCATED,
+                    urlText,
+                    Long.toString(page.getTransferLength()),
+                    Long.toString(contentLength) );
+            throw new IOException(msg);
+        }
+
+        if(cache != null){
+            cache.store(urlText, page);
+            cache.countFetch();
+        }
+
+        return page;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>キャッシュ済みページに完了印を付ける。
+     *
+     * @param url {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void notifyComplete(URL url) throws IOException{
+        if(this.cache == null) return;
+        this.cache.markComplete(url.toString());
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>キャッシュ済みページを破棄する。
+     *
+     * @param url {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void notifyBroken(URL url) throws IOException{
+        if(this.cache == null) return;
+        this.cache.remove(url.toString());
+        return;
+    }
+
+}
@@ -8,7 +8,6 @@
 package jp.sourceforge.jindolf.archiver;
 
 import io.bitbucket.olyutorskii.jiocema.DecodeBreakException;
-import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
@@ -16,16 +15,27 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.MessageFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import javax.xml.validation.Validator;
+import javax.xml.validation.ValidatorHandler;
 import jp.osdn.jindolf.parser.HtmlParseException;
+import jp.sourceforge.jindolf.corelib.DisclosureType;
 import jp.sourceforge.jindolf.corelib.LandDef;
 import org.xml.sax.SAXException;
 
@@ -51,6 +61,19 @@
 
     private static final String FORM_FILENAME =
             "jin_{0}_{1,number,#00000}.xml";
+    private static final String FORM_VILLAGE =
+            "{0} {1,number,#}村";
+    private static final String FORM_LOADERR =
+            "{0,number,#}村の情報を読み込めません。";
+    private static final String FORM_SUMMARY =
+            "処理結果: 成功 {0,number,#}村 失敗 {1,number,#}村";
+    private static final String FORM_FAILED =
+            "失敗: {0} {1,number,#}村 {2}";
+
+    private static final String FORM_WATCH =
+            "watch: {0} {1,number,#}村 保持={2} 更新={3}";
+
+    private static final String SUFFIX_TMP = ".tmp";
 
     private static final Charset CS_UTF8 = Charset.forName("UTF-8");
 
@@ -157,40 +180,267 @@ private static void helpMessage(){
 
     /**
      * オプション文字列を解析する。
+     *
+     * <p>複数の村が指定された場合、
+     * 国情報やスキーマ、ページ取得手段を共有して出力する。
+     * 村は指定された数まで並行して処理される。
+     * ある村の失敗は他の村の出力を妨げない。
+     *
      * @param optInfo オプション情報
+     * @return 全ての村が成功すればtrue
      */
-    private static void dumpOut(OptInfo optInfo){
-        String outdir   = optInfo.getOutdir();
+    private static boolean dumpOut(OptInfo optInfo){
+        List<Integer> vidList = resolveVidList(optInfo);
+
+        String outdir = optInfo.getOutdir();
+        if(outdir != null){
+            probeOutDirectory(new File(outdir));
+        }
+
+        int jobs = optInfo.getJobs();
+        BlockingQueue<Validator> validatorPool =
+                createValidatorPool(jobs);
+
         LandDef landDef = optInfo.getLandDef();
-        int vid         = optInfo.getVid();
+        LandLimits limits = new LandLimits(optInfo.getLandConns());
+
+        PageCache cache = createPageCache(optInfo);
+        HostThrottle throttle = createThrottle(optInfo);
+        RetryPolicy retryPolicy = new RetryPolicy(optInfo.getRetries());
 
-        Validator validator;
+        ResourceFetcher fetcher = createFetcher(optInfo, cache, throttle);
+        fetcher = new LimitedFetcher(fetcher, limits.getConnPermits(landDef));
+        fetcher = new RetryFetcher(fetcher, retryPolicy);
+        ResourceFetcher villageFetcher = fetcher;
+
+        if(optInfo.getWatchSec() > 0){
+            String errDesc = watchVillage(optInfo, vidList.get(0),
+                                          villageFetcher, retryPolicy,
+                                          validatorPool.remove());
+            if(errDesc != null) errprintln(errDesc);
+            return errDesc == null;
+        }
+
+        VillageScheduler scheduler = new VillageScheduler(jobs);
+        Map<Integer, String> failMap;
         try{
-            validator = XmlUtils.createValidator();
-        }catch(SAXException e){
-            abortWithException(e, "処理を続行できません。");
-            return;
+            failMap = scheduler.run(vidList, vid -> {
+                Validator validator = validatorPool.remove();
+                String errDesc;
+                try{
+                    XmlUtils.resetValidator(validator);
+                    errDesc = dumpVillage(optInfo, vid,
+                                          villageFetcher, retryPolicy,
+                                          validator);
+                }finally{
+                    validatorPool.add(validator);
+                }
+                if(errDesc != null) errprintln(errDesc);
+                return errDesc;
+            });
+        }catch(InterruptedException e){
+            abortWithException(e);
+            return false;
         }
 
-        Writer writer;
-        if(outdir != null){
-            writer = getFileWriter(outdir, landDef, vid);
-        }else{
-            writer = getStdOutWriter();
+        if(optInfo.isVerbose()){
+            if(cache != null) errprintln(cache.getReport());
+            if(throttle != null) errprintln(throttle.getReport());
+            errprintln(retryPolicy.getReport());
+            errprintln(Builder.getPoolReport());
         }
 
-        VillageData villageData;
+        if(optInfo.isMultiVillage()){
+            printSummary(landDef, vidList.size(), failMap);
+        }
+
+        boolean result = failMap.isEmpty();
+        return result;
+    }
+
+    /**
+     * 並行処理村数分のXML検証器を用意する。
+     *
+     * <p>XML検証器はスレッドセーフではないため、
+     * 同時に処理される村ごとに一つずつ割り当てる。
+     *
+     * @param jobs 並行処理村数
+     * @return XML検証器のプール
+     */
+    private static BlockingQueue<Validator> createValidatorPool(int jobs){
+        BlockingQueue<Validator> pool = new ArrayBlockingQueue<>(jobs);
+
+        for(int ct = 0; ct < jobs; ct++){
+            Validator validator;
+            try{
+                validator = XmlUtils.createValidator();
+            }catch(SAXException e){
+                abortWithException(e, "処理を続行できません。");
+                return null;
+            }
+            pool.add(validator);
+        }
+
+        return pool;
+    }
+
+    /**
+     * 出力対象の村番号の並びを得る。
+     * @param optInfo オプション情報
+     * @return 村番号の並び
+     */
+    private static List<Integer> resolveVidList(OptInfo optInfo){
+        List<Integer> vidList = optInfo.getVidList();
+
+        String vidFile = optInfo.getVidFile();
+        if(vidFile == null) return vidList;
+
+        List<Integer> result;
         try{
-            villageData = load(landDef, vid);
+            result = VidSpec.loadFile(Paths.get(vidFile), vidList);
         }catch(IOException e){
-            abortWithException(e);
-            return;
-        }catch(DecodeBreakException e){
-            abortWithException(e);
-            return;
-        }catch(HtmlParseException e){
-            abortWithException(e);
-            return;
+            errprintln(e.toString());
+            errprintln("村番号一覧ファイルを読み込めません。");
+            exit(1);
+            return null;
+        }
+
+        return result;
+    }
+
+    /**
+     * 一つの村のアーカイブを出力する。
+     *
+     * <p>失敗した場合、出力途中のファイルは削除される。
+     *
+     * <p>作業ディレクトリが指定された場合、取得したページは村ごとに保存され、
+     * 再実行時には未取得のページのみが取得される。
+     * 出力に成功した村の保存済みページは破棄される。
+     *
+     * <p>省メモリ出力が指定された場合、パースを終えたPeriodは
+     * 出力ディレクトリ内の一時ファイルへ順に書き出され、
+     * 村全体のモデルがメモリ上に揃うことはない。
+     *
+     * @param optInfo オプション情報
+     * @param vid 村番号
+     * @param fetcher ページ取得手段
+     * @param retryPolicy パース失敗時の再試行方針
+     * @param validator XML検証器
+     * @return 失敗時のエラー説明。成功すればnull
+     */
+    private static String dumpVillage(OptInfo optInfo,
+                                       int vid,
+                                       ResourceFetcher fetcher,
+                                       RetryPolicy retryPolicy,
+                                       Validator validator ){
+        LandDef landDef = optInfo.getLandDef();
+        String outdir   = optInfo.getOutdir();
+
+        CheckpointFetcher checkpoint = null;
+        String workDir = optInfo.getWorkDir();
+        if(workDir != null){
+            Path villageDir = CheckpointFetcher.getVillageDir(
+                    Paths.get(workDir), landDef, vid);
+            try{
+                checkpoint = new CheckpointFetcher(fetcher, villageDir);
+            }catch(IOException e){
+                return e.toString();
+            }
+            fetcher = checkpoint;
+        }
+
+        PeriodPipeline pipeline = new PeriodPipeline(
+                optInfo.getFetchThreads(), fetcher, retryPolicy);
+
+        PeriodSpool spool = null;
+        if(optInfo.isLowMem()){
+            try{
+                spool = new PeriodSpool(Paths.get(outdir),
+                                        landDef.getEncoding());
+            }catch(IOException e){
+                return e.toString();
+            }
+            if(optInfo.isFastValidate()){
+                spool.setFastValidator(new FastValidator());
+            }
+        }
+
+        File xmlFile = null;
+        if(outdir != null){
+            xmlFile = getXmlFile(new File(outdir), landDef, vid);
+        }
+
+        String errDesc;
+        try{
+            VillageData villageData;
+            try{
+                villageData = load(landDef, vid, pipeline, spool);
+            }catch(IOException | DecodeBreakException | HtmlParseException e){
+                e.printStackTrace(System.err);
+                return MessageFormat.format(FORM_LOADERR, vid);
+            }
+
+            if(spool != null){
+                errDesc = writeSpooledVillage(villageData, spool,
+                                              xmlFile, validator);
+            }else if(optInfo.isFastValidate()){
+                errDesc = writeFastVillage(villageData, xmlFile);
+            }else{
+                errDesc = writeVillage(villageData, xmlFile, validator);
+            }
+        }finally{
+            if(spool != null) closeSpool(spool);
+        }
+        if(errDesc != null) return errDesc;
+
+        if(checkpoint != null){
+            try{
+                checkpoint.discard();
+            }catch(IOException e){
+                errprintln(e.toString());
+            }
+        }
+
+        if(optInfo.isVerbose()){
+            StringBuilder report = new StringBuilder();
+            report.append(MessageFormat.format(FORM_VILLAGE,
+                                               landDef.getLandId(), vid));
+            for(StageCounter counter : pipeline.getStageCounters()){
+                report.append('\n').append(counter.getReport());
+            }
+            report.append('\n')
+                  .append(pipeline.getTransferStats().getReport());
+            if(checkpoint != null){
+                report.append('\n').append(checkpoint.getReport());
+            }
+            errprintln(report);
+        }
+
+        return null;
+    }
+
+    /**
+     * 村情報をXMLで出力し、同時に検証する。
+     *
+     * <p>失敗した場合、出力途中のファイルは削除される。
+     *
+     * @param villageData 村情報
+     * @param xmlFile 新規に作成する出力ファイル。標準出力ならnull
+     * @param validator XML検証器
+     * @return 失敗時のエラー説明。成功すればnull
+     */
+    private static String writeVillage(VillageData villageData,
+                                        File xmlFile,
+                                        Validator validator ){
+        Writer writer;
+        if(xmlFile != null){
+            try{
+                writer = openFileWriter(xmlFile);
+            }catch(IOException e){
+                return e.getMessage();
+            }
+        }else{
+            writer = getStdOutWriter();
         }
 
         SnifWriter snifWriter = new SnifWriter(writer);
@@ -200,7 +450,7 @@ private static void dumpOut(OptInfo optInfo){
         reader = new BufferedReader(reader);
 
         XmlOut xmlOut = new XmlOut(writer);
-        Charset cs = landDef.getEncoding();
+        Charset cs = villageData.getLandDef().getEncoding();
         xmlOut.setSourceCharset(cs);
 
         ValidateTask valTask = new ValidateTask(reader, validator);
@@ -215,14 +465,371 @@ private static void dumpOut(OptInfo optInfo){
 
         if(taskman.hasError()){
             Throwable cause = taskman.getCause();
-            String desc = taskman.getErrDescription();
-            abortWithException(cause, desc);
-            assert false;
+            cause.printStackTrace(System.err);
+            if(xmlFile != null) deleteFile(xmlFile);
+            return taskman.getErrDescription();
+        }
+
+        return null;
+    }
+
+    /**
+     * 村情報をXMLで出力しながら検証する。
+     *
+     * <p>出力に先立ってモデルの構造検査を行う。
+     * XML出力の内容はSAXイベントとしてスキーマ検証器へ直接渡され、
+     * 出力を読み直す検証は行わない。
+     *
+     * <p>失敗した場合、出力途中のファイルは削除される。
+     *
+     * @param villageData 村情報
+     * @param xmlFile 新規に作成する出力ファイル。標準出力ならnull
+     * @return 失敗時のエラー説明。成功すればnull
+     */
+    private static String writeFastVillage(VillageData villageData,
+                                            File xmlFile ){
+        try{
+            FastValidator.validate(villageData);
+        }catch(SAXException e){
+            e.printStackTrace(System.err);
+            return ValidateTask.getErrDescription(e);
+        }
+
+        ValidatorHandler handler;
+        try{
+            handler = XmlUtils.createValidatorHandler();
+        }catch(SAXException e){
+            e.printStackTrace(System.err);
+            return ValidateTask.getErrDescription(e);
+        }
+
+        Writer writer;
+        if(xmlFile != null){
+            try{
+                writer = openFileWriter(xmlFile);
+            }catch(IOException e){
+                return e.getMessage();
+            }
+        }else{
+            writer = getStdOutWriter();
+        }
+
+        XmlOut xmlOut = new XmlOut(writer);
+        Charset cs = villageData.getLandDef().getEncoding();
+        xmlOut.setSourceCharset(cs);
+        xmlOut.setContentHandler(handler);
+
+        DumpXmlTask dumpTask = new DumpXmlTask(villageData, xmlOut);
+        try{
+            dumpTask.call();
+        }catch(IOException e){
+            e.printStackTrace(System.err);
+            if(xmlFile != null) deleteFile(xmlFile);
+            Throwable cause = e.getCause();
+            if(cause instanceof SAXException){
+                return ValidateTask.getErrDescription(cause);
+            }
+            return DumpXmlTask.getErrDescription(e);
+        }
+
+        return null;
+    }
+
+    /**
+     * 一時ファイルへ書き出し済みの村情報をXMLで出力し、その後に検証する。
+     *
+     * <p>村の先頭、一時ファイルの内容、村の末尾の順に出力ファイルを組み立て、
+     * 組み立てた出力ファイルを読み直して検証する。
+     *
+     * <p>一時ファイルに構造検査器が設定されていれば、
+     * 組み立てに先立って村の構造検査を行い、
+     * 各Periodを書き出した際の検査結果と併せて検証に代える。
+     * この場合、出力ファイルの読み直しは行わない。
+     *
+     * <p>失敗した場合、出力途中のファイルは削除される。
+     *
+     * @param villageData 村情報
+     * @param spool Periodを書き出し済みの一時ファイル
+     * @param xmlFile 新規に作成する出力ファイル
+     * @param validator XML検証器
+     * @return 失敗時のエラー説明。成功すればnull
+     */
+    private static String writeSpooledVillage(VillageData villageData,
+                                               PeriodSpool spool,
+                                               File xmlFile,
+                                               Validator validator ){
+        FastValidator fastValidator = spool.getFastValidator();
+        if(fastValidator != null){
+            fastValidator.checkVillage(villageData);
+            try{
+                fastValidator.verify();
+            }catch(SAXException e){
+                e.printStackTrace(System.err);
+                return ValidateTask.getErrDescription(e);
+            }
+        }
+
+        FileOutputStream ostream;
+        try{
+            ostream = openFileStream(xmlFile);
+        }catch(IOException e){
+            return e.getMessage();
+        }
+
+        String errDesc = null;
+        try{
+            assembleVillage(villageData, spool, ostream);
+        }catch(IOException e){
+            e.printStackTrace(System.err);
+            errDesc = DumpXmlTask.getErrDescription(e);
+        }
+
+        if(errDesc == null && fastValidator == null){
+            errDesc = validateFile(xmlFile, validator);
+        }
+
+        if(errDesc != null) deleteFile(xmlFile);
+
+        return errDesc;
+    }
+
+    /**
+     * 村の先頭と末尾の間に一時ファイルの内容を挟んで出力する。
+     *
+     * <p>一時ファイルの内容はチャネル間で転送され、
+     * 文字への変換を経ない。
+     *
+     * @param villageData 村情報
+     * @param spool Periodを書き出し済みの一時ファイル
+     * @param ostream 出力先。終了時に閉じられる
+     * @throws IOException 入出力エラー
+     */
+    private static void assembleVillage(VillageData villageData,
+                                         PeriodSpool spool,
+                                         FileOutputStream ostream )
+            throws IOException{
+        FileChannel channel = ostream.getChannel();
+        Writer writer = new Utf8ChannelWriter(channel);
+
+        XmlOut xmlOut = new XmlOut(writer);
+        Charset cs = villageData.getLandDef().getEncoding();
+        xmlOut.setSourceCharset(cs);
+
+        try{
+            xmlOut.dumpDocumentHead(villageData);
+            xmlOut.flush();
+            spool.transferTo(channel);
+            xmlOut.dumpDocumentTail(villageData);
+        }finally{
+            xmlOut.close();
+        }
+
+        return;
+    }
+
+    /**
+     * 出力済みのファイルを読み直して検証する。
+     * @param xmlFile 出力ファイル
+     * @param validator XML検証器
+     * @return 失敗時のエラー説明。成功すればnull
+     */
+    private static String validateFile(File xmlFile, Validator validator){
+        Reader reader;
+        try{
+            reader = Files.newBufferedReader(xmlFile.toPath(), CS_UTF8);
+        }catch(IOException e){
+            return e.getMessage();
+        }
+
+        ValidateTask valTask = new ValidateTask(reader, validator);
+        try{
+            valTask.call();
+        }catch(IOException | SAXException e){
+            e.printStackTrace(System.err);
+            return ValidateTask.getErrDescription(e);
         }
 
+        return null;
+    }
+
+    /**
+     * 一時ファイルを閉じて削除する。
+     * @param spool 一時ファイル
+     */
+    private static void closeSpool(PeriodSpool spool){
+        try{
+            spool.close();
+        }catch(IOException e){
+            errprintln(e.toString());
+        }
         return;
     }
 
+    /**
+     * 進行中の村を監視し、変化があるたびにアーカイブを出力し直す。
+     *
+     * <p>アーカイブは一時ファイルへの出力と検証の後に置き換えられるため、
+     * 出力途中のアーカイブが読まれることはない。
+     * 村の進行が終われば監視を終える。
+     * 初回以外の読み込みの失敗は報告のみ行い、監視を続ける。
+     *
+     * @param optInfo オプション情報
+     * @param vid 村番号
+     * @param fetcher ページ取得手段
+     * @param retryPolicy パース失敗時の再試行方針
+     * @param validator XML検証器
+     * @return 失敗時のエラー説明。成功すればnull
+     */
+    private static String watchVillage(OptInfo optInfo,
+                                        int vid,
+                                        ResourceFetcher fetcher,
+                                        RetryPolicy retryPolicy,
+                                        Validator validator ){
+        LandDef landDef = optInfo.getLandDef();
+        File xmlFile = getXmlFile(new File(optInfo.getOutdir()), landDef, vid);
+        File tmpFile = new File(xmlFile.getPath() + SUFFIX_TMP);
+        long intervalMs = TimeUnit.SECONDS.toMillis(optInfo.getWatchSec());
+
+        VillageWatcher watcher = new VillageWatcher(
+                landDef, vid, optInfo.getFetchThreads(), fetcher, retryPolicy);
+
+        for(;;){
+            boolean changed;
+            try{
+                changed = watcher.poll();
+            }catch(IOException | DecodeBreakException | HtmlParseException e){
+                e.printStackTrace(System.err);
+                String msg = MessageFormat.format(FORM_LOADERR, vid);
+                if(watcher.getVillageData() == null) return msg;
+                errprintln(msg);
+                changed = false;
+            }
+
+            if(changed){
+                if(tmpFile.exists()) deleteFile(tmpFile);
+                VillageData villageData = watcher.getVillageData();
+                String errDesc;
+                if(optInfo.isFastValidate()){
+                    errDesc = writeFastVillage(villageData, tmpFile);
+                }else{
+                    XmlUtils.resetValidator(validator);
+                    errDesc = writeVillage(villageData, tmpFile, validator);
+                }
+                if(errDesc != null) return errDesc;
+                try{
+                    PageCache.replaceFile(tmpFile.toPath(), xmlFile.toPath());
+                }catch(IOException e){
+                    return e.toString();
+                }
+            }
+
+            if(optInfo.isVerbose()){
+                String report = MessageFormat.format(FORM_WATCH,
+                        landDef.getLandId(), vid,
+                        watcher.getReusedPeriods(), changed);
+                errprintln(report);
+            }
+
+            if( ! watcher.isHot() ) break;
+
+            try{
+                Thread.sleep(intervalMs);
+            }catch(InterruptedException e){
+                abortWithException(e);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 村ごとの成否の集計を出力する。
+     * @param landDef 国情報
+     * @param total 村の総数
+     * @param failMap 失敗した村番号とエラー説明
+     */
+    private static void printSummary(LandDef landDef,
+                                       int total,
+                                       Map<Integer, String> failMap ){
+        int failed = failMap.size();
+        int succeeded = total - failed;
+
+        errprintln(MessageFormat.format(FORM_SUMMARY, succeeded, failed));
+
+        String landId = landDef.getLandId();
+        for(Map.Entry<Integer, String> entry : failMap.entrySet()){
+            String line = MessageFormat.format(FORM_FAILED,
+                    landId, entry.getKey(), entry.getValue());
+            errprintln(line);
+        }
+
+        return;
+    }
+
+    /**
+     * オプションに応じたページキャッシュを生成する。
+     * @param optInfo オプション情報
+     * @return ページキャッシュ。指定が無ければnull
+     */
+    private static PageCache createPageCache(OptInfo optInfo){
+        String cacheDir = optInfo.getCacheDir();
+        if(cacheDir == null) return null;
+
+        PageCache cache;
+        try{
+            cache = new PageCache(Paths.get(cacheDir));
+        }catch(IOException e){
+            abortWithException(e, "キャッシュディレクトリを作成できません。");
+            return null;
+        }
+
+        return cache;
+    }
+
+    /**
+     * オプションに応じたリクエスト間隔調整を生成する。
+     *
+     * <p>バケット容量は毎秒リクエスト数の切り上げとし、
+     * 一秒分までの連続したリクエストを待機無しに許す。
+     *
+     * @param optInfo オプション情報
+     * @return リクエスト間隔調整。指定が無ければnull
+     */
+    private static HostThrottle createThrottle(OptInfo optInfo){
+        double rate = optInfo.getRequestRate();
+        if(rate <= 0.0) return null;
+
+        int burst = (int) Math.ceil(rate);
+        HostThrottle throttle = new HostThrottle(rate, burst);
+
+        return throttle;
+    }
+
+    /**
+     * オプションに応じたページ取得手段を生成する。
+     *
+     * <p>ローカルミラーの指定があれば通信を一切行わない。
+     *
+     * @param optInfo オプション情報
+     * @param cache ページキャッシュ。無ければnull
+     * @param throttle リクエスト間隔調整。無ければnull
+     * @return ページ取得手段
+     */
+    private static ResourceFetcher createFetcher(OptInfo optInfo,
+                                                 PageCache cache,
+                                                 HostThrottle throttle){
+        ResourceFetcher fetcher;
+
+        String mirrorDir = optInfo.getMirrorDir();
+        if(mirrorDir != null){
+            fetcher = new DirFetcher(Paths.get(mirrorDir));
+        }else{
+            fetcher = new HttpFetcher(cache, throttle);
+        }
+
+        return fetcher;
+    }
+
     /**
      * 例外によるアプリ終了。
      * @param e 例外
@@ -256,11 +863,83 @@ private static void abortWithException(Throwable e, String desc){
      */
     public static VillageData load(LandDef landDef, int vid)
             throws IOException, DecodeBreakException, HtmlParseException{
+        VillageData villageData = load(landDef, vid, 1);
+        return villageData;
+    }
+
+    /**
+     * 主処理。人狼サーバからXHTMLを並行して読み込み。XMLで出力。
+     * @param landDef 国情報
+     * @param vid 村番号
+     * @param fetchThreads ダウンロードスレッド数
+     * @return 村情報
+     * @throws IOException 入出力エラー
+     * @throws DecodeBreakException デコードエラー
+     * @throws HtmlParseException パースエラー
+     */
+    public static VillageData load(LandDef landDef, int vid, int fetchThreads)
+            throws IOException, DecodeBreakException, HtmlParseException{
+        PeriodPipeline pipeline = new PeriodPipeline(fetchThreads);
+        VillageData villageData = load(landDef, vid, pipeline);
+        return villageData;
+    }
+
+    /**
+     * 主処理。人狼サーバからXHTMLを指定パイプラインで読み込み。XMLで出力。
+     *
+     * <p>日一覧ページもパイプラインのページ取得手段を介して読み込まれ、
+     * 村全体の開示が完了していればページ取得手段へ通知される。
+     * 日一覧ページのパースに失敗した場合は
+     * パイプラインの再試行方針に従って読み込み直す。
+     *
+     * @param landDef 国情報
+     * @param vid 村番号
+     * @param pipeline 各日ページ読み込みパイプライン
+     * @return 村情報
+     * @throws IOException 入出力エラー
+     * @throws DecodeBreakException デコードエラー
+     * @throws HtmlParseException パースエラー
+     */
+    public static VillageData load(LandDef landDef,
+                                     int vid,
+                                     PeriodPipeline pipeline)
+            throws IOException, DecodeBreakException, HtmlParseException{
+        VillageData villageData = load(landDef, vid, pipeline, null);
+        return villageData;
+    }
+
+    /**
+     * 主処理。人狼サーバからXHTMLを指定パイプラインで読み込み、
+     * パースしたPeriodを一時ファイルへ書き出す。
+     *
+     * <p>一時ファイルが指定された場合、
+     * 返される村情報はPeriodモデルを保持しない。
+     *
+     * @param landDef 国情報
+     * @param vid 村番号
+     * @param pipeline 各日ページ読み込みパイプライン
+     * @param spool Periodの書き出し先一時ファイル。書き出さないならnull
+     * @return 村情報
+     * @throws IOException 入出力エラー
+     * @throws DecodeBreakException デコードエラー
+     * @throws HtmlParseException パースエラー
+     */
+    public static VillageData load(LandDef landDef,
+                                     int vid,
+                                     PeriodPipeline pipeline,
+                                     PeriodSpool spool)
+            throws IOException, DecodeBreakException, HtmlParseException{
         List<PeriodResource> resourceList =
-                HttpAccess.loadResourceList(landDef, vid);
+                pipeline.loadResourceList(landDef, vid);
         VillageData villageData = new VillageData(resourceList);
+        villageData.setPeriodSpool(spool);
 
-        Builder.fillVillageData(villageData);
+        pipeline.fillVillageData(villageData);
+
+        if(villageData.getDisclosureType() == DisclosureType.COMPLETE){
+            URL listUrl = HttpAccess.getPeriodListURL(landDef, vid);
+            pipeline.getFetcher().notifyComplete(listUrl);
+        }
 
         return villageData;
     }
@@ -270,18 +949,8 @@ public static VillageData load(LandDef landDef, int vid)
      * @return 出力先
      */
     public static Writer getStdOutWriter(){
-        OutputStream ostream;
-        ostream = new BufferedOutputStream(System.out);
-        Writer writer;
-        try{
-            writer = new OutputStreamWriter(ostream, "UTF-8");
-            writer = new BufferedWriter(writer, 4 * 1024);
-        }catch(IOException e){
-            errprintln(
-                    "標準出力に書き込めません。");
-            exit(1);
-            return null;
-        }
+        WritableByteChannel channel = Channels.newChannel(System.out);
+        Writer writer = new Utf8ChannelWriter(channel);
         return writer;
     }
 
@@ -310,27 +979,75 @@ private static void probeOutDirectory(File outFile){
     }
 
     /**
-     * 出力ファイルを生成する。
-     * @param file 出力ファイル
+     * 出力ファイルを得る。
+     * @param outDir 出力ディレクトリ
+     * @param landDef 国情報
+     * @param vid 村番号
+     * @return 出力ファイル
      */
-    private static void createFile(File file){
-        String errMsg = null;
+    private static File getXmlFile(File outDir, LandDef landDef, int vid){
+        String fname =
+                MessageFormat.format(
+                        FORM_FILENAME, landDef.getLandId(), vid
+                );
+        File xmlFile = new File(outDir, fname);
+        return xmlFile;
+    }
+
+    /**
+     * 出力ファイルを新規に生成し、出力先を得る。
+     * @param xmlFile 出力ファイル
+     * @return 出力先
+     * @throws IOException 既に存在するか、生成もしくは書き込みができない
+     */
+    private static Writer openFileWriter(File xmlFile) throws IOException{
+        FileOutputStream ostream = openFileStream(xmlFile);
+        Writer writer = new Utf8ChannelWriter(ostream.getChannel());
+        return writer;
+    }
 
+    /**
+     * 出力ファイルを新規に生成し、出力ストリームを得る。
+     * @param xmlFile 出力ファイル
+     * @return 出力ストリーム
+     * @throws IOException 既に存在するか、生成もしくは書き込みができない
+     */
+    private static FileOutputStream openFileStream(File xmlFile)
+            throws IOException{
+        boolean created;
         try{
-            boolean created = file.createNewFile();
-            if( ! created ){
-                errMsg = file.getName() + " が既に存在します。";
-            }
+            created = xmlFile.createNewFile();
         }catch(IOException e){
-            errMsg = file.getName() + " が作成できません。";
+            throw new IOException(xmlFile.getName() + " が作成できません。", e);
+        }
+        if( ! created ){
+            throw new IOException(xmlFile.getName() + " が既に存在します。");
         }
 
-        if(errMsg != null){
-            errprintln(errMsg);
-            exit(1);
-            assert false;
+        /* JRE 1.6 only
+        xmlFile.setReadable(true);
+        xmlFile.setWritable(true);
+        xmlFile.setExecutable(false, false);
+        */
+
+        FileOutputStream ostream;
+        try{
+            ostream = new FileOutputStream(xmlFile);
+        }catch(FileNotFoundException e){
+            throw new IOException(xmlFile.getName() + " に書き込めません。", e);
         }
 
+        return ostream;
+    }
+
+    /**
+     * 出力途中のファイルを削除する。
+     * @param file ファイル
+     */
+    private static void deleteFile(File file){
+        if( ! file.delete() ){
+            errprintln(file.getName() + " が削除できません。");
+        }
         return;
     }
 
@@ -347,35 +1064,17 @@ public static Writer getFileWriter(String outdir,
         File outFile = new File(outdir);
         probeOutDirectory(outFile);
 
-        String fname =
-                MessageFormat.format(
-                        FORM_FILENAME, landDef.getLandId(), vid
-                );
-        File xmlFile = new File(outFile, fname);
-
-        createFile(xmlFile);
-
-        /* JRE 1.6 only
-        xmlFile.setReadable(true);
-        xmlFile.setWritable(true);
-        xmlFile.setExecutable(false, false);
-        */
+        File xmlFile = getXmlFile(outFile, landDef, vid);
 
-        OutputStream ostream;
+        Writer writer;
         try{
-            ostream = new FileOutputStream(xmlFile);
-        }catch(FileNotFoundException e){
-            errprintln(xmlFile.getName() + " に書き込めません。");
+            writer = openFileWriter(xmlFile);
+        }catch(IOException e){
+            errprintln(e.getMessage());
             exit(1);
             return null;
         }
 
-        ostream = new BufferedOutputStream(ostream, 4 * 1024);
-
-        Writer writer;
-        writer = new OutputStreamWriter(ostream, CS_UTF8);
-        writer = new BufferedWriter(writer, 4 * 1024);
-
         return writer;
     }
 
@@ -401,9 +1100,10 @@ public static void main(String[] args){
             return;
         }
 
-        dumpOut(optInfo);
+        boolean succeeded = dumpOut(optInfo);
 
-        exit(0);
+        if(succeeded) exit(0);
+        else          exit(1);
         assert false;
 
         return;
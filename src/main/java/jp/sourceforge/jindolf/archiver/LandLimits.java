@@ -0,0 +1,72 @@
+/*
+ * per-land concurrency limits
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import jp.sourceforge.jindolf.corelib.LandDef;
+
+/**
+ * 国ごとの同時接続数制限。
+ *
+ * <p>国ごとに、同時に張るサーバ接続数の上限を管理する。
+ * 一つの国のサーバへ負荷が集中することを防ぐ。
+ */
+public class LandLimits{
+
+    /** 上限無しを表す値。 */
+    public static final int UNLIMITED = 0;
+
+
+    private final int connsPerLand;
+
+    private final Map<LandDef, Semaphore> connMap =
+            new ConcurrentHashMap<>();
+
+
+    /**
+     * コンストラクタ。
+     * @param connsPerLand 国ごとの同時接続数の上限。
+     *     {@link #UNLIMITED}なら上限無し
+     * @throws IllegalArgumentException 上限が負
+     */
+    public LandLimits(int connsPerLand)
+            throws IllegalArgumentException{
+        super();
+        if(connsPerLand < 0) throw new IllegalArgumentException();
+        this.connsPerLand = connsPerLand;
+        return;
+    }
+
+
+    /**
+     * 上限値からセマフォを生成する。
+     * @param limit 上限値
+     * @return セマフォ
+     */
+    private static Semaphore createSemaphore(int limit){
+        int permits;
+        if(limit == UNLIMITED) permits = Integer.MAX_VALUE;
+        else                   permits = limit;
+        Semaphore result = new Semaphore(permits, true);
+        return result;
+    }
+
+    /**
+     * 国ごとの同時接続数を制限するセマフォを得る。
+     * @param landDef 国情報
+     * @return セマフォ
+     */
+    public Semaphore getConnPermits(LandDef landDef){
+        Semaphore result = this.connMap.computeIfAbsent(
+                landDef, key -> createSemaphore(this.connsPerLand));
+        return result;
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * connection limited fetcher
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 同時取得数を制限するページ取得手段。
+ *
+ * <p>取得の間セマフォの許可を一つ保持し、他の取得手段へ委譲する。
+ * 同じセマフォを共有する取得手段の同時取得数は許可数を超えない。
+ *
+ * @see LandLimits#getConnPermits(jp.sourceforge.jindolf.corelib.LandDef)
+ */
+public class LimitedFetcher implements ResourceFetcher{
+
+    private final ResourceFetcher delegate;
+    private final Semaphore permits;
+
+
+    /**
+     * コンストラクタ。
+     * @param delegate 委譲先
+     * @param permits 同時取得数を制限するセマフォ
+     */
+    public LimitedFetcher(ResourceFetcher delegate, Semaphore permits){
+        super();
+        if(delegate == null || permits == null){
+            throw new NullPointerException();
+        }
+        this.delegate = delegate;
+        this.permits = permits;
+        return;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * @param url {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public RawPage fetch(URL url) throws IOException{
+        try{
+            this.permits.acquire();
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+
+        RawPage result;
+        try{
+            result = this.delegate.fetch(url);
+        }finally{
+            this.permits.release();
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param origUrl {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public URL getResourceUrl(URL origUrl) throws IOException{
+        return this.delegate.getResourceUrl(origUrl);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param url {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void notifyComplete(URL url) throws IOException{
+        this.delegate.notifyComplete(url);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param url {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void notifyBroken(URL url) throws IOException{
+        this.delegate.notifyBroken(url);
+        return;
+    }
+
+}
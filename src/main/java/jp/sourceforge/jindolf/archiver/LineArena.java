@@ -0,0 +1,425 @@
+/*
+ * line arena
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.util.Arrays;
+import java.util.List;
+import jp.osdn.jindolf.parser.content.DecodeErrorInfo;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+
+/**
+ * テキスト行をまとめて格納する領域。
+ *
+ * <p>Periodごとに一つ用意され、発言やシステムイベントの各行の文字は
+ * 単一の伸長可能なchar配列へ連結して格納される。
+ * 行は追加順の行番号で参照され、
+ * 行ごとの開始位置と終了位置が別の表に記録される。
+ *
+ * <p>デコードエラーは領域全体での文字位置と生バイト列を
+ * 追加順に記録した表で保持され、
+ * 行ごとにその表の範囲が記録される。
+ *
+ * <p>格納した行の内容は変更できない。スレッドセーフではない。
+ */
+final class LineArena{
+
+    private static final int CHARS_INIT = 1024;
+    private static final int LINES_INIT = 64;
+    private static final int ERRORS_INIT = 4;
+
+    private static final int BYTE_MASK = 0xff;
+    private static final int BYTE_SHIFT = 8;
+    private static final int FLAG_2ND = 1 << 16;
+
+
+    private char[] chars;
+    private int charNum = 0;
+
+    private int[] lineStart;
+    private int[] lineEnd;
+    private int[] lineErrStart;
+    private int lineNum = 0;
+
+    private int[] errPos;
+    private int[] errRaw;
+    private int errNum = 0;
+
+
+    /**
+     * コンストラクタ。
+     */
+    LineArena(){
+        this(CHARS_INIT, LINES_INIT);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     * @param chars 見込みの文字数
+     * @param lines 見込みの行数
+     */
+    LineArena(int chars, int lines){
+        super();
+        this.chars = new char[Math.max(chars, 1)];
+        this.lineStart    = new int[Math.max(lines, 1)];
+        this.lineEnd      = new int[Math.max(lines, 1)];
+        this.lineErrStart = new int[Math.max(lines, 1)];
+        this.errPos = new int[ERRORS_INIT];
+        this.errRaw = new int[ERRORS_INIT];
+        return;
+    }
+
+
+    /**
+     * 配列を必要な長さまで伸長する。
+     * @param array 配列
+     * @param need 必要な長さ
+     * @return 伸長された配列。伸長不要なら元の配列
+     */
+    private static int[] ensure(int[] array, int need){
+        if(array.length >= need) return array;
+        int[] result = Arrays.copyOf(array, Math.max(need, array.length * 2));
+        return result;
+    }
+
+
+    /**
+     * 行を追加する。
+     * @param content 行の内容
+     * @return 行番号
+     */
+    int addLine(DecodedContent content){
+        int start = this.charNum;
+        int length = content.length();
+
+        ensureChars(start + length);
+        for(int idx = 0; idx < length; idx++){
+            this.chars[start + idx] = content.charAt(idx);
+        }
+        this.charNum = start + length;
+
+        int lineId = newLine(start);
+
+        if(content.hasDecodeError()){
+            List<DecodeErrorInfo> errList = content.getDecodeErrorList();
+            for(DecodeErrorInfo err : errList){
+                int raw = err.getRawByte1st() & BYTE_MASK;
+                if(err.has2nd()){
+                    raw |= (err.getRawByte2nd() & BYTE_MASK) << BYTE_SHIFT;
+                    raw |= FLAG_2ND;
+                }
+                addError(start + err.getCharPosition(), raw);
+            }
+        }
+
+        return lineId;
+    }
+
+    /**
+     * 他の領域の行を複製して追加する。
+     * @param src 複製元領域
+     * @param srcId 複製元の行番号
+     * @return 行番号
+     */
+    int addLine(LineArena src, int srcId){
+        int srcStart = src.getLineStart(srcId);
+        int length = src.getLineEnd(srcId) - srcStart;
+
+        int start = this.charNum;
+        ensureChars(start + length);
+        System.arraycopy(src.chars, srcStart, this.chars, start, length);
+        this.charNum = start + length;
+
+        int lineId = newLine(start);
+
+        int errTo = src.getErrorTo(srcId);
+        for(int errIdx = src.getErrorFrom(srcId); errIdx < errTo; errIdx++){
+            int pos = src.errPos[errIdx] - srcStart + start;
+            addError(pos, src.errRaw[errIdx]);
+        }
+
+        return lineId;
+    }
+
+    /**
+     * 文字格納先を必要な長さまで伸長する。
+     * @param need 必要な長さ
+     */
+    private void ensureChars(int need){
+        if(this.chars.length >= need) return;
+        int newSize = Math.max(need, this.chars.length * 2);
+        this.chars = Arrays.copyOf(this.chars, newSize);
+        return;
+    }
+
+    /**
+     * 行の表に新しい行を加える。
+     *
+     * <p>行の終了位置は現在の格納文字数となる。
+     *
+     * @param start 開始位置
+     * @return 行番号
+     */
+    private int newLine(int start){
+        int lineId = this.lineNum;
+        int need = lineId + 1;
+        this.lineStart    = ensure(this.lineStart,    need);
+        this.lineEnd      = ensure(this.lineEnd,      need);
+        this.lineErrStart = ensure(this.lineErrStart, need);
+
+        this.lineStart[lineId] = start;
+        this.lineEnd[lineId] = this.charNum;
+        this.lineErrStart[lineId] = this.errNum;
+        this.lineNum = need;
+
+        return lineId;
+    }
+
+    /**
+     * デコードエラーの表にエラーを加える。
+     * @param pos 領域全体での文字位置
+     * @param raw 生バイト列の符号化値
+     */
+    private void addError(int pos, int raw){
+        int need = this.errNum + 1;
+        this.errPos = ensure(this.errPos, need);
+        this.errRaw = ensure(this.errRaw, need);
+        this.errPos[this.errNum] = pos;
+        this.errRaw[this.errNum] = raw;
+        this.errNum = need;
+        return;
+    }
+
+    /**
+     * 格納先の余剰を切り詰める。
+     *
+     * <p>行の追加を終えた後に呼ぶことで、保持する領域を最小にする。
+     */
+    void trimToSize(){
+        if(this.chars.length > this.charNum){
+            this.chars = Arrays.copyOf(this.chars, this.charNum);
+        }
+        if(this.lineStart.length > this.lineNum){
+            this.lineStart    = Arrays.copyOf(this.lineStart,    this.lineNum);
+            this.lineEnd      = Arrays.copyOf(this.lineEnd,      this.lineNum);
+            this.lineErrStart =
+                    Arrays.copyOf(this.lineErrStart, this.lineNum);
+        }
+        if(this.errPos.length > this.errNum){
+            this.errPos = Arrays.copyOf(this.errPos, this.errNum);
+            this.errRaw = Arrays.copyOf(this.errRaw, this.errNum);
+        }
+        return;
+    }
+
+    /**
+     * 行数を得る。
+     * @return 行数
+     */
+    int getLineNum(){
+        return this.lineNum;
+    }
+
+    /**
+     * 行の開始位置を得る。
+     * @param lineId 行番号
+     * @return 領域全体での開始位置
+     * @throws IndexOutOfBoundsException 不正な行番号
+     */
+    int getLineStart(int lineId) throws IndexOutOfBoundsException{
+        checkLine(lineId);
+        return this.lineStart[lineId];
+    }
+
+    /**
+     * 行の終了位置を得る。
+     * @param lineId 行番号
+     * @return 領域全体での終了位置。この位置の文字は含まない
+     * @throws IndexOutOfBoundsException 不正な行番号
+     */
+    int getLineEnd(int lineId) throws IndexOutOfBoundsException{
+        checkLine(lineId);
+        return this.lineEnd[lineId];
+    }
+
+    /**
+     * 行に含まれる最初のデコードエラーの番号を得る。
+     * @param lineId 行番号
+     * @return エラー番号
+     * @throws IndexOutOfBoundsException 不正な行番号
+     */
+    int getErrorFrom(int lineId) throws IndexOutOfBoundsException{
+        checkLine(lineId);
+        return this.lineErrStart[lineId];
+    }
+
+    /**
+     * 行に含まれる最後のデコードエラーの次の番号を得る。
+     * @param lineId 行番号
+     * @return エラー番号
+     * @throws IndexOutOfBoundsException 不正な行番号
+     */
+    int getErrorTo(int lineId) throws IndexOutOfBoundsException{
+        checkLine(lineId);
+        if(lineId + 1 < this.lineNum) return this.lineErrStart[lineId + 1];
+        return this.errNum;
+    }
+
+    /**
+     * 行番号を検査する。
+     * @param lineId 行番号
+     * @throws IndexOutOfBoundsException 不正な行番号
+     */
+    private void checkLine(int lineId) throws IndexOutOfBoundsException{
+        if(lineId < 0 || this.lineNum <= lineId){
+            throw new IndexOutOfBoundsException();
+        }
+        return;
+    }
+
+    /**
+     * デコードエラーの文字位置を得る。
+     * @param errId エラー番号
+     * @return 領域全体での文字位置
+     */
+    int getErrorPos(int errId){
+        return this.errPos[errId];
+    }
+
+    /**
+     * デコードエラーの1バイト目を得る。
+     * @param errId エラー番号
+     * @return 1バイト目
+     */
+    byte getErrorByte1st(int errId){
+        return (byte) this.errRaw[errId];
+    }
+
+    /**
+     * デコードエラーが2バイトからなるか判定する。
+     * @param errId エラー番号
+     * @return 2バイトならtrue
+     */
+    boolean hasErrorByte2nd(int errId){
+        return (this.errRaw[errId] & FLAG_2ND) != 0;
+    }
+
+    /**
+     * デコードエラーの2バイト目を得る。
+     * @param errId エラー番号
+     * @return 2バイト目
+     */
+    byte getErrorByte2nd(int errId){
+        return (byte) (this.errRaw[errId] >>> BYTE_SHIFT);
+    }
+
+    /**
+     * 領域の一部を読み出し専用の文字列として得る。
+     *
+     * <p>文字は複製されない。
+     *
+     * @param start 領域全体での開始位置
+     * @param end 領域全体での終了位置
+     * @return 文字列
+     * @throws IndexOutOfBoundsException 範囲外の位置
+     */
+    CharSequence view(int start, int end) throws IndexOutOfBoundsException{
+        if(start < 0 || end < start || this.charNum < end){
+            throw new IndexOutOfBoundsException();
+        }
+        CharSequence result = new View(this, start, end);
+        return result;
+    }
+
+    /**
+     * 行を読み出し専用の文字列として得る。
+     * @param lineId 行番号
+     * @return 文字列
+     * @throws IndexOutOfBoundsException 不正な行番号
+     */
+    CharSequence getLine(int lineId) throws IndexOutOfBoundsException{
+        CharSequence result = view(getLineStart(lineId), getLineEnd(lineId));
+        return result;
+    }
+
+
+    /**
+     * 領域の一部を参照する読み出し専用の文字列。
+     */
+    private static final class View implements CharSequence{
+
+        private final LineArena arena;
+        private final int start;
+        private final int end;
+
+        /**
+         * コンストラクタ。
+         * @param arena 領域
+         * @param start 開始位置
+         * @param end 終了位置
+         */
+        View(LineArena arena, int start, int end){
+            super();
+            this.arena = arena;
+            this.start = start;
+            this.end = end;
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public int length(){
+            return this.end - this.start;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param index {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public char charAt(int index){
+            if(index < 0 || length() <= index){
+                throw new IndexOutOfBoundsException();
+            }
+            return this.arena.chars[this.start + index];
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param from {@inheritDoc}
+         * @param to {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public CharSequence subSequence(int from, int to){
+            if(from < 0 || to < from || length() < to){
+                throw new IndexOutOfBoundsException();
+            }
+            CharSequence result =
+                    new View(this.arena, this.start + from, this.start + to);
+            return result;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public String toString(){
+            String result = new String(this.arena.chars,
+                                       this.start, length());
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * in-memory fetcher
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * メモリ上に登録されたページの取得。
+ *
+ * <p>通信を伴わない試験やベンチマークに用いる。
+ */
+public class MemoryFetcher implements ResourceFetcher{
+
+    private final Map<String, RawPage> pageMap = new ConcurrentHashMap<>();
+
+
+    /**
+     * コンストラクタ。
+     */
+    public MemoryFetcher(){
+        super();
+        return;
+    }
+
+
+    /**
+     * ページを登録する。
+     *
+     * <p>バイト列はコピーされない。
+     *
+     * @param urlText 取得元URL文字列
+     * @param body ページ内容のバイト列
+     */
+    public void putPage(String urlText, byte[] body){
+        RawPage page = new RawPage(body, 0L);
+        this.pageMap.put(urlText, page);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param url {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public RawPage fetch(URL url) throws IOException{
+        String urlText = url.toString();
+        RawPage result = this.pageMap.get(urlText);
+        if(result == null) throw new FileNotFoundException(urlText);
+        return result;
+    }
+
+}
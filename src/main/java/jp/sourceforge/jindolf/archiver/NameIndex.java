@@ -0,0 +1,169 @@
+/*
+ * name index
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+/**
+ * 文字列をキーとするハッシュ索引。
+ *
+ * <p>任意の{@link CharSequence}の内容で検索でき、
+ * 検索のために文字列を生成することはない。
+ * ハッシュ値は{@link String#hashCode()}と同じ方法で求められる。
+ *
+ * <p>同じ内容のキーは最初に登録されたものが優先される。
+ * 削除はできない。スレッドセーフではない。
+ *
+ * @param <V> 値の型
+ */
+final class NameIndex<V>{
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int HASH_MULT = 31;
+
+    private String[] keys;
+    private Object[] values;
+    private int size = 0;
+
+
+    /**
+     * コンストラクタ。
+     */
+    NameIndex(){
+        this(MIN_CAPACITY);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     * @param expected 見込みの登録数
+     */
+    NameIndex(int expected){
+        super();
+
+        int capacity = MIN_CAPACITY;
+        while(capacity < expected * 2){
+            capacity <<= 1;
+        }
+
+        this.keys = new String[capacity];
+        this.values = new Object[capacity];
+
+        return;
+    }
+
+
+    /**
+     * 文字列内容のハッシュ値を求める。
+     * @param seq 文字列
+     * @return ハッシュ値
+     */
+    static int hashOf(CharSequence seq){
+        int result = 0;
+        int length = seq.length();
+        for(int idx = 0; idx < length; idx++){
+            result = HASH_MULT * result + seq.charAt(idx);
+        }
+        return result;
+    }
+
+    /**
+     * ハッシュ値を表の位置へ拡散する。
+     * @param hash ハッシュ値
+     * @param mask 表の大きさ-1
+     * @return 位置
+     */
+    private static int slotOf(int hash, int mask){
+        int result = hash ^ (hash >>> 16);
+        result &= mask;
+        return result;
+    }
+
+
+    /**
+     * キーの内容に対応する値を得る。
+     * @param seq キー
+     * @return 値。無ければnull
+     */
+    @SuppressWarnings("unchecked")
+    V get(CharSequence seq){
+        String[] table = this.keys;
+        int mask = table.length - 1;
+        int slot = slotOf(hashOf(seq), mask);
+
+        for(;;){
+            String key = table[slot];
+            if(key == null) return null;
+            if(key.contentEquals(seq)) return (V) this.values[slot];
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * 同じ内容のキーが無ければ値を登録する。
+     * @param key キー
+     * @param value 値
+     * @return 登録したならtrue。既にあればfalse
+     * @throws NullPointerException 引数がnull
+     */
+    boolean putIfAbsent(String key, V value) throws NullPointerException{
+        if(key == null || value == null) throw new NullPointerException();
+
+        String[] table = this.keys;
+        int mask = table.length - 1;
+        int slot = slotOf(key.hashCode(), mask);
+
+        for(;;){
+            String oldKey = table[slot];
+            if(oldKey == null) break;
+            if(oldKey.equals(key)) return false;
+            slot = (slot + 1) & mask;
+        }
+
+        table[slot] = key;
+        this.values[slot] = value;
+        this.size++;
+
+        if(this.size * 2 > table.length) grow();
+
+        return true;
+    }
+
+    /**
+     * 表を倍の大きさへ作り直す。
+     */
+    private void grow(){
+        String[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+
+        int capacity = oldKeys.length * 2;
+        int mask = capacity - 1;
+        this.keys = new String[capacity];
+        this.values = new Object[capacity];
+
+        for(int idx = 0; idx < oldKeys.length; idx++){
+            String key = oldKeys[idx];
+            if(key == null) continue;
+            int slot = slotOf(key.hashCode(), mask);
+            while(this.keys[slot] != null){
+                slot = (slot + 1) & mask;
+            }
+            this.keys[slot] = key;
+            this.values[slot] = oldValues[idx];
+        }
+
+        return;
+    }
+
+    /**
+     * 登録数を得る。
+     * @return 登録数
+     */
+    int size(){
+        return this.size;
+    }
+
+}
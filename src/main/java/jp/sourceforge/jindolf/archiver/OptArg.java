@@ -30,6 +30,32 @@ public enum OptArg implements Iterable<String> {
     OPT_OUTDIR ("-outdir"),
     /** 標準出力へ書き込む。 */
     OPT_STDOUT ("-stdout"),
+    /** ダウンロードスレッド数指定。 */
+    OPT_FETCHTHREADS ("-fetch-threads"),
+    /** 処理統計を出力する。 */
+    OPT_VERBOSE ("-verbose"),
+    /** ページキャッシュ指定。 */
+    OPT_CACHE ("-cache"),
+    /** ローカルミラー指定。 */
+    OPT_MIRROR ("-mirror"),
+    /** 村番号一覧ファイル指定。 */
+    OPT_VIDFILE ("-vidfile"),
+    /** 並行処理村数指定。 */
+    OPT_JOBS ("-jobs"),
+    /** 国ごとの同時接続数指定。 */
+    OPT_LANDCONNS ("-land-conns"),
+    /** 再試行回数指定。 */
+    OPT_RETRY ("-retry"),
+    /** ホストごとのリクエスト頻度指定。 */
+    OPT_RATE ("-rate"),
+    /** 作業ディレクトリ指定。 */
+    OPT_WORKDIR ("-workdir"),
+    /** 監視間隔指定。 */
+    OPT_WATCH ("-watch"),
+    /** 省メモリ出力指定。 */
+    OPT_LOWMEM ("-lowmem"),
+    /** XML検証方式指定。 */
+    OPT_VALIDATE ("-validate"),
     ;
 
 
@@ -39,10 +65,26 @@ public enum OptArg implements Iterable<String> {
         + "{0} 人狼BBS アーカイブ作成ツール\n\n"
         + "-h, -help, -?\n\tヘルプメッセージ\n"
         + "-land 国識別子\n"
-        + "-vid 村番号\n"
+        + "-vid 村番号\n\t1000-1999,2005 のように範囲やカンマ区切りも可\n"
         + "-outdir 出力ディレクトリ\n"
-        + "-stdout\n\t標準出力へ出力\n\n"
-        + "※ -outdir と -stdout は排他指定\n\n"
+        + "-stdout\n\t標準出力へ出力\n"
+        + "-fetch-threads スレッド数\n\t並行ダウンロード数(デフォルト1)\n"
+        + "-verbose\n\t処理統計を標準エラー出力へ出力\n"
+        + "-cache ディレクトリ\n\tダウンロード済みページのキャッシュ先\n"
+        + "-mirror ディレクトリ\n\t保存済みページのミラーから読み込む\n"
+        + "-vidfile ファイル\n\t村番号一覧ファイル\n"
+        + "-jobs 村数\n\t並行して処理する村の数(デフォルト1)\n"
+        + "-land-conns 接続数\n\t国ごとの同時接続数の上限(デフォルト無制限)\n"
+        + "-retry 回数\n\t通信やパースに失敗した際の再試行回数(デフォルト3)\n"
+        + "-rate 回数\n\tホストごとの毎秒リクエスト数の上限(デフォルト無制限)\n"
+        + "-workdir ディレクトリ\n\t中断した村を再開するための作業ディレクトリ\n"
+        + "-watch 秒\n\t進行中の村を指定間隔で監視し、変化があれば出力し直す\n"
+        + "-lowmem\n\t日ごとに一時ファイルへ書き出し、メモリ使用量を抑える\n"
+        + "-validate full|fast\n\tXML検証方式。"
+        + "fast なら出力しながらスキーマ検証(デフォルトfull)\n"
+        + "\t-lowmem 併用時の fast は村モデルの構造検査のみ\n\n"
+        + "※ -outdir と -stdout は排他指定\n"
+        + "※ 複数の村を指定する場合は -outdir が必要\n\n"
         + "利用可能な国識別子は {1}\n";
 
 
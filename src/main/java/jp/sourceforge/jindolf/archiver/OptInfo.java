@@ -9,6 +9,7 @@
 
 import java.text.MessageFormat;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import jp.sourceforge.jindolf.corelib.LandDef;
@@ -29,22 +30,60 @@
             "不正な村番号です。 {0}";
     private static final String FMT_INVLID =
             "不正な国識別子です。 {0}";
+    private static final String FMT_INVTHREADS =
+            "不正なスレッド数です。 {0}";
+    private static final String FMT_INVLIMIT =
+            "不正な並行数です。 {0}";
+    private static final String FMT_INVRETRY =
+            "不正な再試行回数です。 {0}";
+    private static final String FMT_INVRATE =
+            "不正なリクエスト頻度です。 {0}";
+    private static final String FMT_INVWATCH =
+            "不正な監視間隔です。 {0}";
+    private static final String FMT_INVVALIDATE =
+            "不正なXML検証方式です。 {0}";
+    private static final String VALIDATE_FULL = "full";
+    private static final String VALIDATE_FAST = "fast";
+
     private static final String MSG_NOLID =
             "-land オプションで国識別子を指定してください。";
     private static final String MSG_NOVID =
             "-vid オプションで村番号を指定してください。";
     private static final String MSG_EXCOUT =
             "-outdir か -stdout のどちらか一方を指定してください。";
+    private static final String MSG_MULTIOUT =
+            "複数の村を出力するには -outdir を指定してください。";
+    private static final String MSG_EXCSRC =
+            "-mirror と -cache は同時に指定できません。";
+    private static final String MSG_WATCHOUT =
+            "-watch には一つの村と -outdir を指定してください。";
+    private static final String MSG_LOWMEMOUT =
+            "-lowmem には -outdir を指定してください。"
+            + "-watch とは同時に指定できません。";
 
 
     private boolean isHelp = false;
 
     private LandDef landDef = null;
-    private int vid = -1;
+    private List<Integer> vidList = Collections.emptyList();
+    private String vidFile = null;
 
     private boolean isStdout = false;
     private String outDir = null;
 
+    private int fetchThreads = 1;
+    private int jobs = 1;
+    private int landConns = LandLimits.UNLIMITED;
+    private int retries = RetryPolicy.DEFAULT_RETRIES;
+    private double requestRate = 0.0;
+    private boolean isVerbose = false;
+    private String cacheDir = null;
+    private String mirrorDir = null;
+    private String workDir = null;
+    private int watchSec = 0;
+    private boolean isLowMem = false;
+    private boolean isFastValidate = false;
+
     private String errMsg = null;
 
 
@@ -132,6 +171,12 @@ private boolean applyDepOpt(OptArg opt){
             this.isStdout = true;
             this.outDir = null;
             break;
+        case OPT_VERBOSE:
+            this.isVerbose = true;
+            break;
+        case OPT_LOWMEM:
+            this.isLowMem = true;
+            break;
         default:
             isNoArgOpt = false;
             break;
@@ -154,20 +199,73 @@ private void applyOptWithVal(OptArg opt, String val){
             }
             break;
         case OPT_VID:
-            try{
-                this.vid = Integer.parseInt(val);
-            }catch(NumberFormatException e){
-                this.vid = -1;
-            }
-
-            if(getVid() < 0){
+            this.vidList = VidSpec.parse(val);
+            if(this.vidList == null){
+                this.vidList = Collections.emptyList();
                 this.errMsg = MessageFormat.format(FMT_INVVID, val);
             }
             break;
+        case OPT_VIDFILE:
+            this.vidFile = val;
+            break;
         case OPT_OUTDIR:
             this.outDir = val;
             this.isStdout = false;
             break;
+        case OPT_FETCHTHREADS:
+            this.fetchThreads = parsePositive(val);
+            if(getFetchThreads() <= 0){
+                this.errMsg = MessageFormat.format(FMT_INVTHREADS, val);
+            }
+            break;
+        case OPT_JOBS:
+            this.jobs = parsePositive(val);
+            if(getJobs() <= 0){
+                this.errMsg = MessageFormat.format(FMT_INVLIMIT, val);
+            }
+            break;
+        case OPT_LANDCONNS:
+            this.landConns = parsePositive(val);
+            if(getLandConns() <= 0){
+                this.errMsg = MessageFormat.format(FMT_INVLIMIT, val);
+            }
+            break;
+        case OPT_RETRY:
+            this.retries = parseNonNegative(val);
+            if(getRetries() < 0){
+                this.errMsg = MessageFormat.format(FMT_INVRETRY, val);
+            }
+            break;
+        case OPT_RATE:
+            this.requestRate = parseRate(val);
+            if(getRequestRate() <= 0.0){
+                this.errMsg = MessageFormat.format(FMT_INVRATE, val);
+            }
+            break;
+        case OPT_CACHE:
+            this.cacheDir = val;
+            break;
+        case OPT_MIRROR:
+            this.mirrorDir = val;
+            break;
+        case OPT_WORKDIR:
+            this.workDir = val;
+            break;
+        case OPT_WATCH:
+            this.watchSec = parsePositive(val);
+            if(getWatchSec() <= 0){
+                this.errMsg = MessageFormat.format(FMT_INVWATCH, val);
+            }
+            break;
+        case OPT_VALIDATE:
+            if(VALIDATE_FAST.equals(val)){
+                this.isFastValidate = true;
+            }else if(VALIDATE_FULL.equals(val)){
+                this.isFastValidate = false;
+            }else{
+                this.errMsg = MessageFormat.format(FMT_INVVALIDATE, val);
+            }
+            break;
         default:
             break;
         }
@@ -175,15 +273,76 @@ private void applyOptWithVal(OptArg opt, String val){
         return;
     }
 
+    /**
+     * 正の整数をパースする。
+     * @param val 数値文字列
+     * @return 正の整数。正の整数でなければ-1
+     */
+    private static int parsePositive(String val){
+        int result;
+
+        try{
+            result = Integer.parseInt(val);
+        }catch(NumberFormatException e){
+            result = -1;
+        }
+
+        if(result <= 0) result = -1;
+
+        return result;
+    }
+
+    /**
+     * 非負の整数をパースする。
+     * @param val 数値文字列
+     * @return 非負の整数。非負の整数でなければ-1
+     */
+    private static int parseNonNegative(String val){
+        int result;
+
+        try{
+            result = Integer.parseInt(val);
+        }catch(NumberFormatException e){
+            result = -1;
+        }
+
+        if(result < 0) result = -1;
+
+        return result;
+    }
+
+    /**
+     * 毎秒リクエスト数をパースする。
+     * @param val 数値文字列
+     * @return 正の有限な値。不正なら-1
+     */
+    private static double parseRate(String val){
+        double result;
+
+        try{
+            result = Double.parseDouble(val);
+        }catch(NumberFormatException e){
+            result = -1.0;
+        }
+
+        if( ! (result > 0.0) || Double.isInfinite(result) ) result = -1.0;
+
+        return result;
+    }
+
     /**
      * 状況に応じて異常系を察知しエラーメッセージを組み立てる。
      */
     private void condErrCheck(){
         String msg = null;
 
-        if(getLandDef() == null) msg = MSG_NOLID;
-        else if(getVid() < 0)    msg = MSG_NOVID;
-        else if(! isSingleOut()) msg = MSG_EXCOUT;
+        if(getLandDef() == null)       msg = MSG_NOLID;
+        else if(! hasVidSpec())        msg = MSG_NOVID;
+        else if(! isSingleOut())       msg = MSG_EXCOUT;
+        else if(! isOutdirForMulti())  msg = MSG_MULTIOUT;
+        else if(! isSingleSource())    msg = MSG_EXCSRC;
+        else if(! isWatchable())       msg = MSG_WATCHOUT;
+        else if(! isLowMemWritable())  msg = MSG_LOWMEMOUT;
 
         if(msg != null){
             this.errMsg = msg;
@@ -202,6 +361,58 @@ private boolean isSingleOut(){
         return exclusiveCase;
     }
 
+    /**
+     * 村番号の指定があるかテストする。
+     * @return 村番号もしくは村番号一覧ファイルの指定があればtrue
+     */
+    private boolean hasVidSpec(){
+        boolean result;
+        result = getVid() >= 0 || getVidFile() != null;
+        return result;
+    }
+
+    /**
+     * 複数の村の出力先が標準出力でないことをテストする。
+     * @return 単一の村か、出力ディレクトリが指定されていればtrue
+     */
+    private boolean isOutdirForMulti(){
+        boolean result;
+        result = ! isMultiVillage() || getOutdir() != null;
+        return result;
+    }
+
+    /**
+     * ページ取得元が一つにしぼれているケースをテストする。
+     * @return ミラーとキャッシュが同時に指定されていなければtrue
+     */
+    private boolean isSingleSource(){
+        boolean result;
+        result = getMirrorDir() == null || getCacheDir() == null;
+        return result;
+    }
+
+    /**
+     * 監視モードの対象と出力先が適切かテストする。
+     * @return 監視モードでないか、一つの村をディレクトリへ出力するならtrue
+     */
+    private boolean isWatchable(){
+        if(getWatchSec() <= 0) return true;
+        boolean result;
+        result = ! isMultiVillage() && getOutdir() != null;
+        return result;
+    }
+
+    /**
+     * 省メモリ出力の出力先が適切かテストする。
+     * @return 省メモリ出力でないか、監視せずディレクトリへ出力するならtrue
+     */
+    private boolean isLowMemWritable(){
+        if( ! isLowMem() ) return true;
+        boolean result;
+        result = getOutdir() != null && getWatchSec() <= 0;
+        return result;
+    }
+
     /**
      * ヘルプ出力が指定されたか調べる。
      * @return 指定されていればtrue
@@ -220,10 +431,42 @@ public LandDef getLandDef(){
 
     /**
      * 村IDを得る。
-     * @return 村ID
+     *
+     * <p>複数の村が指定された場合は先頭の村ID。
+     *
+     * @return 村ID。無ければ負の値
      */
     public int getVid(){
-        return this.vid;
+        if(this.vidList.isEmpty()) return -1;
+        return this.vidList.get(0);
+    }
+
+    /**
+     * -vid オプションで指定された村IDの並びを得る。
+     * @return 村IDの並び
+     */
+    public List<Integer> getVidList(){
+        return Collections.unmodifiableList(this.vidList);
+    }
+
+    /**
+     * 村番号一覧ファイルを得る。
+     * @return 村番号一覧ファイル。無ければnull
+     */
+    public String getVidFile(){
+        return this.vidFile;
+    }
+
+    /**
+     * 複数の村が指定された可能性があるか判定する。
+     *
+     * <p>村番号一覧ファイルの指定があれば常に真。
+     *
+     * @return 複数の村の可能性があればtrue
+     */
+    public boolean isMultiVillage(){
+        if(this.vidFile != null) return true;
+        return this.vidList.size() > 1;
     }
 
     /**
@@ -242,6 +485,102 @@ public String getOutdir(){
         return this.outDir;
     }
 
+    /**
+     * ダウンロードスレッド数を得る。
+     * @return スレッド数。指定が無ければ1
+     */
+    public int getFetchThreads(){
+        return this.fetchThreads;
+    }
+
+    /**
+     * 並行して処理する村の数を得る。
+     * @return 村の数。指定が無ければ1
+     */
+    public int getJobs(){
+        return this.jobs;
+    }
+
+    /**
+     * 国ごとの同時接続数の上限を得る。
+     * @return 接続数。指定が無ければ{@link LandLimits#UNLIMITED}
+     */
+    public int getLandConns(){
+        return this.landConns;
+    }
+
+    /**
+     * 失敗時の再試行回数を得る。
+     * @return 再試行回数。指定が無ければ{@link RetryPolicy#DEFAULT_RETRIES}
+     */
+    public int getRetries(){
+        return this.retries;
+    }
+
+    /**
+     * ホストごとの毎秒リクエスト数の上限を得る。
+     * @return 毎秒リクエスト数。指定が無ければ上限無しを表す0
+     */
+    public double getRequestRate(){
+        return this.requestRate;
+    }
+
+    /**
+     * 処理統計の出力が指定されたか調べる。
+     * @return 指定されていればtrue
+     */
+    public boolean isVerbose(){
+        return this.isVerbose;
+    }
+
+    /**
+     * ページキャッシュディレクトリを得る。
+     * @return ページキャッシュディレクトリ。無ければnull
+     */
+    public String getCacheDir(){
+        return this.cacheDir;
+    }
+
+    /**
+     * ローカルミラーディレクトリを得る。
+     * @return ローカルミラーディレクトリ。無ければnull
+     */
+    public String getMirrorDir(){
+        return this.mirrorDir;
+    }
+
+    /**
+     * 作業ディレクトリを得る。
+     * @return 作業ディレクトリ。指定が無ければnull
+     */
+    public String getWorkDir(){
+        return this.workDir;
+    }
+
+    /**
+     * 監視間隔を得る。
+     * @return 監視間隔(秒)。監視モードでなければ0
+     */
+    public int getWatchSec(){
+        return this.watchSec;
+    }
+
+    /**
+     * 省メモリ出力が指定されたか調べる。
+     * @return 指定されていればtrue
+     */
+    public boolean isLowMem(){
+        return this.isLowMem;
+    }
+
+    /**
+     * XML出力を読み直さない検証が指定されたか調べる。
+     * @return 指定されていればtrue
+     */
+    public boolean isFastValidate(){
+        return this.isFastValidate;
+    }
+
     /**
      * エラーメッセージを得る。
      * @return メッセージ。無ければnull
@@ -0,0 +1,324 @@
+/*
+ * raw page cache
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ダウンロード済みページのディスクキャッシュ。
+ *
+ * <p>ロード元URL文字列のハッシュ値をキーとし、
+ * ページ内容のバイト列と応答ヘッダ情報を別ファイルに保持する。
+ * 開示が完了したページには完了印を付け、以降は通信を行わない。
+ *
+ * <p>各ファイルは一時ファイルへの書き込み後に置き換えられるため、
+ * 中断された書き込みが不完全なキャッシュとして読まれることはない。
+ */
+public class PageCache{
+
+    private static final String SUFFIX_BODY = ".html";
+    private static final String SUFFIX_META = ".properties";
+    private static final String SUFFIX_TMP  = ".tmp";
+
+    private static final String KEY_URL      = "url";
+    private static final String KEY_DATE     = "date";
+    private static final String KEY_ETAG     = "etag";
+    private static final String KEY_LASTMOD  = "lastModified";
+    private static final String KEY_COMPLETE = "complete";
+
+    private static final String ALG_DIGEST = "SHA-1";
+    private static final Charset CS_UTF8 = Charset.forName("UTF-8");
+    private static final char[] HEXCHARS = "0123456789abcdef".toCharArray();
+
+    private static final String FORM_REPORT =
+            "cache: 再利用={0} 再検証={1} 取得={2}";
+
+
+    private final Path dir;
+
+    private final AtomicInteger reuseCount = new AtomicInteger();
+    private final AtomicInteger revalidCount = new AtomicInteger();
+    private final AtomicInteger fetchCount = new AtomicInteger();
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>キャッシュディレクトリが無ければ作成される。
+     *
+     * @param dir キャッシュディレクトリ
+     * @throws IOException ディレクトリを作成できない
+     */
+    public PageCache(Path dir) throws IOException{
+        super();
+        this.dir = Files.createDirectories(dir);
+        return;
+    }
+
+
+    /**
+     * ロード元URL文字列からキャッシュキーを得る。
+     * @param urlText ロード元URL文字列
+     * @return キャッシュキー
+     */
+    static String toKey(String urlText){
+        MessageDigest digest;
+        try{
+            digest = MessageDigest.getInstance(ALG_DIGEST);
+        }catch(NoSuchAlgorithmException e){
+            throw new AssertionError(e);
+        }
+
+        byte[] hash = digest.digest(urlText.getBytes(CS_UTF8));
+
+        StringBuilder result = new StringBuilder(hash.length * 2);
+        for(byte bVal : hash){
+            result.append(HEXCHARS[(bVal >> 4) & 0x0f]);
+            result.append(HEXCHARS[ bVal       & 0x0f]);
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * ファイルを一時ファイル経由で置き換える。
+     * @param tmp 一時ファイル
+     * @param target 置き換え対象
+     * @throws IOException 入出力エラー
+     */
+    static void replaceFile(Path tmp, Path target)
+            throws IOException{
+        try{
+            Files.move(tmp, target,
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        }catch(AtomicMoveNotSupportedException e){
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return;
+    }
+
+
+    /**
+     * キャッシュディレクトリを得る。
+     * @return キャッシュディレクトリ
+     */
+    public Path getDir(){
+        return this.dir;
+    }
+
+    /**
+     * ページ内容ファイルのパスを得る。
+     * @param urlText ロード元URL文字列
+     * @return パス
+     */
+    private Path getBodyPath(String urlText){
+        return this.dir.resolve(toKey(urlText) + SUFFIX_BODY);
+    }
+
+    /**
+     * ヘッダ情報ファイルのパスを得る。
+     * @param urlText ロード元URL文字列
+     * @return パス
+     */
+    private Path getMetaPath(String urlText){
+        return this.dir.resolve(toKey(urlText) + SUFFIX_META);
+    }
+
+    /**
+     * ヘッダ情報を読み込む。
+     * @param urlText ロード元URL文字列
+     * @return ヘッダ情報。キャッシュに無ければnull
+     * @throws IOException 入力エラー
+     */
+    private Properties loadMeta(String urlText) throws IOException{
+        Path metaPath = getMetaPath(urlText);
+        if( ! Files.exists(metaPath) ) return null;
+
+        Properties meta = new Properties();
+        try(InputStream istream = Files.newInputStream(metaPath)){
+            meta.load(istream);
+        }
+
+        if( ! urlText.equals(meta.getProperty(KEY_URL)) ) return null;
+
+        return meta;
+    }
+
+    /**
+     * ヘッダ情報を書き込む。
+     * @param urlText ロード元URL文字列
+     * @param meta ヘッダ情報
+     * @throws IOException 出力エラー
+     */
+    private void storeMeta(String urlText, Properties meta)
+            throws IOException{
+        Path metaPath = getMetaPath(urlText);
+        Path tmp = metaPath.resolveSibling(metaPath.getFileName() + SUFFIX_TMP);
+        try(OutputStream ostream = Files.newOutputStream(tmp)){
+            meta.store(ostream, null);
+        }
+        replaceFile(tmp, metaPath);
+        return;
+    }
+
+    /**
+     * キャッシュ済みページを得る。
+     * @param urlText ロード元URL文字列
+     * @return ページ。キャッシュに無ければnull
+     * @throws IOException 入力エラー
+     */
+    public RawPage load(String urlText) throws IOException{
+        Properties meta = loadMeta(urlText);
+        if(meta == null) return null;
+
+        Path bodyPath = getBodyPath(urlText);
+        if( ! Files.exists(bodyPath) ) return null;
+        byte[] body = Files.readAllBytes(bodyPath);
+
+        long dateMs;
+        try{
+            dateMs = Long.parseLong(meta.getProperty(KEY_DATE, "0"));
+        }catch(NumberFormatException e){
+            dateMs = 0L;
+        }
+        String etag = meta.getProperty(KEY_ETAG);
+        String lastModified = meta.getProperty(KEY_LASTMOD);
+
+        RawPage result = new RawPage(body, dateMs, etag, lastModified);
+        return result;
+    }
+
+    /**
+     * ページをキャッシュに格納する。
+     *
+     * <p>完了印は外される。
+     *
+     * @param urlText ロード元URL文字列
+     * @param page ページ
+     * @throws IOException 出力エラー
+     */
+    public void store(String urlText, RawPage page) throws IOException{
+        Path bodyPath = getBodyPath(urlText);
+        Path tmp = bodyPath.resolveSibling(bodyPath.getFileName() + SUFFIX_TMP);
+        try(OutputStream ostream = Files.newOutputStream(tmp)){
+            page.writeTo(ostream);
+        }
+        replaceFile(tmp, bodyPath);
+
+        Properties meta = new Properties();
+        meta.setProperty(KEY_URL, urlText);
+        meta.setProperty(KEY_DATE, Long.toString(page.getDateMs()));
+        if(page.getEtag() != null){
+            meta.setProperty(KEY_ETAG, page.getEtag());
+        }
+        if(page.getLastModified() != null){
+            meta.setProperty(KEY_LASTMOD, page.getLastModified());
+        }
+        storeMeta(urlText, meta);
+
+        return;
+    }
+
+    /**
+     * キャッシュ済みページに完了印が付いているか判定する。
+     * @param urlText ロード元URL文字列
+     * @return 完了印が付いていればtrue
+     * @throws IOException 入力エラー
+     */
+    public boolean isComplete(String urlText) throws IOException{
+        Properties meta = loadMeta(urlText);
+        if(meta == null) return false;
+        boolean result = Boolean.parseBoolean(meta.getProperty(KEY_COMPLETE));
+        return result;
+    }
+
+    /**
+     * キャッシュ済みページに完了印を付ける。
+     *
+     * <p>キャッシュに無ければ何もしない。
+     *
+     * @param urlText ロード元URL文字列
+     * @throws IOException 入出力エラー
+     */
+    public void markComplete(String urlText) throws IOException{
+        Properties meta = loadMeta(urlText);
+        if(meta == null) return;
+        if(Boolean.parseBoolean(meta.getProperty(KEY_COMPLETE))) return;
+
+        meta.setProperty(KEY_COMPLETE, Boolean.TRUE.toString());
+        storeMeta(urlText, meta);
+
+        return;
+    }
+
+    /**
+     * キャッシュ済みページを破棄する。
+     *
+     * <p>キャッシュに無ければ何もしない。
+     *
+     * @param urlText ロード元URL文字列
+     * @throws IOException 入出力エラー
+     */
+    public void remove(String urlText) throws IOException{
+        if(loadMeta(urlText) == null) return;
+        Files.deleteIfExists(getMetaPath(urlText));
+        Files.deleteIfExists(getBodyPath(urlText));
+        return;
+    }
+
+    /**
+     * 通信無しでの再利用を記録する。
+     */
+    void countReuse(){
+        this.reuseCount.incrementAndGet();
+        return;
+    }
+
+    /**
+     * 再検証による再利用を記録する。
+     */
+    void countRevalidate(){
+        this.revalidCount.incrementAndGet();
+        return;
+    }
+
+    /**
+     * ダウンロードを記録する。
+     */
+    void countFetch(){
+        this.fetchCount.incrementAndGet();
+        return;
+    }
+
+    /**
+     * 利用状況レポートを得る。
+     * @return レポート文字列
+     */
+    public String getReport(){
+        String result = MessageFormat.format(FORM_REPORT,
+                this.reuseCount.get(),
+                this.revalidCount.get(),
+                this.fetchCount.get()
+        );
+        return result;
+    }
+
+}
@@ -8,7 +8,7 @@
 package jp.sourceforge.jindolf.archiver;
 
 import java.io.IOException;
-import java.net.URI;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import jp.osdn.jindolf.parser.content.DecodedContent;
@@ -31,6 +31,7 @@
     private boolean hasMurderResult = false;
 
     private final List<TopicData> topicList = new LinkedList<>();
+    private final LineArena lineArena = new LineArena();
 
     /**
      * コンストラクタ。
@@ -44,6 +45,14 @@ public PeriodData(VillageData parent, PeriodResource resource){
         return;
     }
 
+    /**
+     * 追加順のTopicData並びを取得する。
+     * @return TopicData並び
+     */
+    List<TopicData> getTopicList(){
+        return Collections.unmodifiableList(this.topicList);
+    }
+
     /**
      * ロード時のログイン名を取得する。
      * @return ログイン名
@@ -154,6 +163,14 @@ public boolean hasMurderResult(){
         return this.hasMurderResult;
     }
 
+    /**
+     * 発言やシステムイベントの行の格納先を得る。
+     * @return 行の格納先
+     */
+    LineArena getLineArena(){
+        return this.lineArena;
+    }
+
     /**
      * TopicDataを追加する。
      * 襲撃結果の有無も判定される。
@@ -180,7 +197,7 @@ public void addTopicData(TopicData topicData){
      * @throws IOException 出力エラー
      */
     public void dumpXml(XmlOut writer) throws IOException{
-        writer.append("<period");
+        writer.startTag("period");
         writer.nl();
 
         String ptype;
@@ -202,7 +219,7 @@ public void dumpXml(XmlOut writer) throws IOException{
         writer.attrOut("type", ptype);
 
         writer.sp();
-        writer.attrOut("day", Integer.toString(this.resource.getDay()));
+        writer.attrOut("day", this.resource.getDay());
         writer.nl();
 
         if(this.disclosureType != DisclosureType.COMPLETE){
@@ -220,11 +237,10 @@ public void dumpXml(XmlOut writer) throws IOException{
                            this.commitHour, this.commitMinute);
         writer.nl();
 
-        URI baseUri   = URI.create(this.parent.getBaseUri());
-        URI periodUri = URI.create(this.resource.getOrigUrlText());
-        URI relativeUri = baseUri.relativize(periodUri);
         writer.indent(1);
-        writer.attrOut("sourceURI", relativeUri.toString());
+        writer.relativeUriAttrOut("sourceURI",
+                                  this.parent.getBaseUri(),
+                                  this.resource.getOrigUrlText());
         writer.nl();
 
         long downTimeMs = this.resource.getDownTimeMs();
@@ -234,11 +250,11 @@ public void dumpXml(XmlOut writer) throws IOException{
 
         if(this.loginName.length() > 0){
             writer.indent(1);
-            writer.attrOut("loadedBy", this.loginName.toString());
+            writer.attrOut("loadedBy", this.loginName);
             writer.nl();
         }
 
-        writer.append(">");
+        writer.closeStartTag();
         writer.nl();
         writer.nl();
 
@@ -247,7 +263,7 @@ public void dumpXml(XmlOut writer) throws IOException{
             writer.nl();
         }
 
-        writer.append("</period>");
+        writer.endTag("period");
         writer.nl();
 
         return;
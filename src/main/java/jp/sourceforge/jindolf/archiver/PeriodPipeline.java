@@ -0,0 +1,540 @@
+/*
+ * period load pipeline
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import io.bitbucket.olyutorskii.jiocema.DecodeBreakException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import jp.osdn.jindolf.parser.HtmlParseException;
+import jp.osdn.jindolf.parser.HtmlParser;
+import jp.osdn.jindolf.parser.content.ContentBuilder;
+import jp.sourceforge.jindolf.corelib.DisclosureType;
+import jp.sourceforge.jindolf.corelib.LandDef;
+
+/**
+ * 村の各日々のダウンロード、デコード、パースを段ごとに並行して行う。
+ *
+ * <p>各段は容量制限付きキューで接続される。
+ * ダウンロード段は指定スレッド数まで並行するが、
+ * キューは常にPeriodの並び順を保つ。
+ * パース段は呼び出し元スレッドで
+ * プロローグからエピローグへの順に行われるため、
+ * Avatarの採番などの結果はスレッド数に依存しない。
+ *
+ * <p>途中で途切れたページなどでパースに失敗した場合、
+ * 再試行方針に従ってページを取得し直し、パースをやり直す。
+ */
+public class PeriodPipeline{
+
+    private static final int DEPTH_DECODED = 2;
+
+
+    private final int fetchThreads;
+    private final ResourceFetcher fetcher;
+    private final RetryPolicy retryPolicy;
+
+    private final StageCounter fetchCounter  = new StageCounter("fetch");
+    private final StageCounter decodeCounter = new StageCounter("decode");
+    private final StageCounter parseCounter  = new StageCounter("parse");
+
+    private final TransferStats transferStats = new TransferStats();
+
+
+    /**
+     * コンストラクタ。
+     * @param fetchThreads ダウンロードスレッド数
+     * @throws IllegalArgumentException スレッド数が正でない
+     */
+    public PeriodPipeline(int fetchThreads) throws IllegalArgumentException{
+        this(fetchThreads, new HttpFetcher());
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     * @param fetchThreads ダウンロードスレッド数
+     * @param fetcher ページ取得手段
+     * @throws IllegalArgumentException スレッド数が正でない
+     */
+    public PeriodPipeline(int fetchThreads, ResourceFetcher fetcher)
+            throws IllegalArgumentException{
+        this(fetchThreads, fetcher, new RetryPolicy(0));
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     * @param fetchThreads ダウンロードスレッド数
+     * @param fetcher ページ取得手段
+     * @param retryPolicy パース失敗時の再試行方針
+     * @throws IllegalArgumentException スレッド数が正でない
+     */
+    public PeriodPipeline(int fetchThreads,
+                          ResourceFetcher fetcher,
+                          RetryPolicy retryPolicy )
+            throws IllegalArgumentException{
+        super();
+        if(fetchThreads <= 0) throw new IllegalArgumentException();
+        if(fetcher == null || retryPolicy == null){
+            throw new NullPointerException();
+        }
+        this.fetchThreads = fetchThreads;
+        this.fetcher = fetcher;
+        this.retryPolicy = retryPolicy;
+        return;
+    }
+
+
+    /**
+     * 段タスクの完了を待ち、結果を得る。
+     *
+     * <p>段タスクで発生した例外は呼び出し元へそのまま伝播する。
+     *
+     * @param <T> 結果の型
+     * @param future 段タスク
+     * @return 結果
+     * @throws IOException 入力エラーもしくは割り込み
+     * @throws DecodeBreakException デコードエラー
+     */
+    private static <T> T waitResult(Future<T> future)
+            throws IOException, DecodeBreakException{
+        T result;
+
+        try{
+            result = future.get();
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }catch(ExecutionException e){
+            Throwable cause = e.getCause();
+            if(cause instanceof IOException){
+                throw (IOException) cause;
+            }else if(cause instanceof DecodeBreakException){
+                throw (DecodeBreakException) cause;
+            }else if(cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }else if(cause instanceof Error){
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+
+        return result;
+    }
+
+    /**
+     * キューから要素を取り出す。
+     * @param <T> 要素の型
+     * @param queue キュー
+     * @return 要素
+     * @throws InterruptedIOException 割り込まれた
+     */
+    private static <T> T takeQueue(BlockingQueue<T> queue)
+            throws InterruptedIOException{
+        T result;
+        try{
+            result = queue.take();
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        return result;
+    }
+
+    /**
+     * キューへ要素を投入する。
+     * @param <T> 要素の型
+     * @param queue キュー
+     * @param elem 要素
+     * @throws InterruptedIOException 割り込まれた
+     */
+    private static <T> void putQueue(BlockingQueue<T> queue, T elem)
+            throws InterruptedIOException{
+        try{
+            queue.put(elem);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        return;
+    }
+
+    /**
+     * 段の異常終了を失敗結果として下流のキューへ渡す。
+     *
+     * <p>下流の段が入力を待ち続けることを防ぐ。
+     * 割り込まれていれば何も渡さない。
+     * 下流の段も共に打ち切られているためである。
+     *
+     * @param <T> 結果の型
+     * @param queue 下流のキュー
+     * @param cause 異常終了の原因
+     */
+    private static <T> void putFailure(BlockingQueue<Future<T>> queue,
+                                       Throwable cause){
+        CompletableFuture<T> failed = new CompletableFuture<>();
+        failed.completeExceptionally(cause);
+        try{
+            queue.put(failed);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        return;
+    }
+
+
+    /**
+     * ページ取得手段を得る。
+     * @return ページ取得手段
+     */
+    public ResourceFetcher getFetcher(){
+        return this.fetcher;
+    }
+
+    /**
+     * パース失敗時の再試行方針を得る。
+     * @return 再試行方針
+     */
+    public RetryPolicy getRetryPolicy(){
+        return this.retryPolicy;
+    }
+
+    /**
+     * 転送量の統計を得る。
+     * @return 転送量の統計
+     */
+    public TransferStats getTransferStats(){
+        return this.transferStats;
+    }
+
+    /**
+     * 各段の稼働統計を得る。
+     * @return 上流から順に並んだ稼働統計
+     */
+    public List<StageCounter> getStageCounters(){
+        List<StageCounter> result = Arrays.asList(
+                this.fetchCounter,
+                this.decodeCounter,
+                this.parseCounter
+        );
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * 日一覧ページを読み込み、日ページのロード元情報一覧を得る。
+     *
+     * <p>日一覧ページのパースに失敗した場合は
+     * 再試行方針に従って読み込み直す。
+     *
+     * @param landDef 国指定
+     * @param vid 村番号
+     * @return ロード元情報一覧
+     * @throws IOException 入力エラー
+     * @throws DecodeBreakException デコードエラー
+     * @throws HtmlParseException パースエラー
+     */
+    public List<PeriodResource> loadResourceList(LandDef landDef, int vid)
+            throws IOException, DecodeBreakException, HtmlParseException {
+        URL listUrl = HttpAccess.getPeriodListURL(landDef, vid);
+
+        List<PeriodResource> result;
+        for(int retry = 0; ; retry++){
+            try{
+                result = HttpAccess.loadResourceList(
+                        landDef, vid, this.fetcher, this.transferStats);
+                break;
+            }catch(HtmlParseException e){
+                if( ! this.retryPolicy.canRetry(retry) ) throw e;
+            }
+            this.fetcher.notifyBroken(listUrl);
+            this.retryPolicy.backoff(retry);
+        }
+
+        return result;
+    }
+
+    /**
+     * 村の各日々をロードしパースする。
+     * @param villageData 村情報
+     * @throws IOException 入力エラー
+     * @throws DecodeBreakException デコードエラー
+     * @throws HtmlParseException パースエラー
+     */
+    public void fillVillageData(VillageData villageData)
+            throws IOException, DecodeBreakException, HtmlParseException {
+        fillVillageData(villageData, 0);
+        return;
+    }
+
+    /**
+     * 村の指定位置以降の日々をロードしパースする。
+     *
+     * <p>指定位置より前のPeriodは既に村情報に含まれていなければならない。
+     *
+     * @param villageData 村情報
+     * @param startIdx ロードを始めるPeriodの位置
+     * @throws IOException 入力エラー
+     * @throws DecodeBreakException デコードエラー
+     * @throws HtmlParseException パースエラー
+     * @see VillageData#inheritFrom(VillageData, int)
+     */
+    public void fillVillageData(VillageData villageData, int startIdx)
+            throws IOException, DecodeBreakException, HtmlParseException {
+        List<PeriodResource> allList = villageData.getPeriodResourceList();
+        List<PeriodResource> resourceList =
+                allList.subList(startIdx, allList.size());
+        Charset charset = villageData.getLandDef().getEncoding();
+
+        bindResourceUrl(resourceList);
+
+        BlockingQueue<Future<RawPage>> fetchedQueue =
+                new ArrayBlockingQueue<>(this.fetchThreads);
+        BlockingQueue<Future<ContentBuilder>> decodedQueue =
+                new ArrayBlockingQueue<>(DEPTH_DECODED);
+
+        ExecutorService fetchExecutor =
+                Executors.newFixedThreadPool(this.fetchThreads);
+        ExecutorService stageExecutor =
+                Executors.newFixedThreadPool(2);
+        try{
+            // 異常終了した段は下流の段を入力待ちのまま残さない
+            stageExecutor.submit(() -> {
+                try{
+                    runFetchStage(resourceList, fetchExecutor, fetchedQueue);
+                }catch(Throwable e){
+                    putFailure(fetchedQueue, e);
+                    throw e;
+                }
+                return null;
+            });
+            stageExecutor.submit(() -> {
+                try{
+                    runDecodeStage(resourceList.size(), charset,
+                                   fetchedQueue, decodedQueue);
+                }catch(Throwable e){
+                    putFailure(decodedQueue, e);
+                    throw e;
+                }
+                return null;
+            });
+
+            runParseStage(villageData, resourceList, decodedQueue);
+        }finally{
+            stageExecutor.shutdownNow();
+            fetchExecutor.shutdownNow();
+        }
+
+        return;
+    }
+
+    /**
+     * XHTML格納先URLが未設定のPeriodにページ取得手段の格納先URLを設定する。
+     * @param resourceList ロード元情報の並び
+     * @throws IOException 格納先を決められない
+     */
+    private void bindResourceUrl(List<PeriodResource> resourceList)
+            throws IOException{
+        for(PeriodResource resource : resourceList){
+            if(resource.getResourceUrl() != null) continue;
+            URL origUrl = new URL(resource.getOrigUrlText());
+            URL resourceUrl = this.fetcher.getResourceUrl(origUrl);
+            resource.setResourceUrl(resourceUrl);
+        }
+        return;
+    }
+
+    /**
+     * ダウンロード段。
+     *
+     * <p>Periodの並び順にダウンロードタスクを投入し、
+     * 並び順を保ったままキューへ渡す。
+     * キューが満杯の間は新たなダウンロードを始めない。
+     *
+     * @param resourceList ロード元情報の並び
+     * @param executor ダウンロード用Executor
+     * @param outQueue 出力キュー
+     * @throws InterruptedIOException 割り込まれた
+     */
+    private void runFetchStage(List<PeriodResource> resourceList,
+                               ExecutorService executor,
+                               BlockingQueue<Future<RawPage>> outQueue)
+            throws InterruptedIOException{
+        for(PeriodResource resource : resourceList){
+            FetchPeriodTask task = new FetchPeriodTask(resource, this.fetcher);
+            Future<RawPage> future = executor.submit(task);
+
+            long startNs = System.nanoTime();
+            putQueue(outQueue, future);
+            this.fetchCounter.addBlockNanos(System.nanoTime() - startNs);
+
+            this.fetchCounter.countItem();
+            this.fetchCounter.sampleDepth(outQueue.size());
+        }
+        return;
+    }
+
+    /**
+     * デコード段。
+     *
+     * <p>異常系は失敗結果としてキューへ渡し、段を終える。
+     *
+     * @param total 処理件数
+     * @param charset 文字コード
+     * @param inQueue 入力キュー
+     * @param outQueue 出力キュー
+     * @throws InterruptedIOException 割り込まれた
+     */
+    private void runDecodeStage(int total,
+                                Charset charset,
+                                BlockingQueue<Future<RawPage>> inQueue,
+                                BlockingQueue<Future<ContentBuilder>> outQueue)
+            throws InterruptedIOException{
+        for(int ct = 0; ct < total; ct++){
+            CompletableFuture<ContentBuilder> result =
+                    new CompletableFuture<>();
+
+            long startNs = System.nanoTime();
+            try{
+                Future<RawPage> future = takeQueue(inQueue);
+                RawPage page = waitResult(future);
+                this.decodeCounter.addStarveNanos(
+                        System.nanoTime() - startNs);
+                this.transferStats.addPage(page);
+
+                ContentBuilder builder =
+                        Builder.builderFromPage(charset, page);
+                result.complete(builder);
+            }catch(InterruptedIOException e){
+                throw e;
+            }catch(IOException | DecodeBreakException | RuntimeException e){
+                result.completeExceptionally(e);
+            }
+
+            startNs = System.nanoTime();
+            putQueue(outQueue, result);
+            this.decodeCounter.addBlockNanos(System.nanoTime() - startNs);
+
+            if(result.isCompletedExceptionally()) break;
+
+            this.decodeCounter.countItem();
+            this.decodeCounter.sampleDepth(outQueue.size());
+        }
+
+        return;
+    }
+
+    /**
+     * パース段。
+     *
+     * <p>開示が完了したPeriodはページ取得手段へ通知される。
+     * パースに失敗したPeriodは呼び出し元スレッドで取得し直される。
+     * 村情報に一時ファイルが設定されていれば、
+     * パースを終えたPeriodは順に書き出されて村情報から取り除かれる。
+     *
+     * @param villageData 村情報
+     * @param resourceList パースするPeriodのロード元情報の並び
+     * @param inQueue 入力キュー
+     * @throws IOException 入力エラー
+     * @throws DecodeBreakException デコードエラー
+     * @throws HtmlParseException パースエラー
+     */
+    private void runParseStage(VillageData villageData,
+                               List<PeriodResource> resourceList,
+                               BlockingQueue<Future<ContentBuilder>> inQueue)
+            throws IOException, DecodeBreakException, HtmlParseException {
+        Handler handler = new Handler();
+        HtmlParser parser = Builder.createParser(handler);
+        Charset charset = villageData.getLandDef().getEncoding();
+
+        handler.initVillageData(villageData);
+
+        for(PeriodResource resource : resourceList){
+            long startNs = System.nanoTime();
+            Future<ContentBuilder> future = takeQueue(inQueue);
+            ContentBuilder builder = waitResult(future);
+            this.parseCounter.addStarveNanos(System.nanoTime() - startNs);
+
+            builder = parseWithRetry(resource, builder,
+                                     handler, parser, charset);
+            Builder.releaseBuilder(builder);
+
+            PeriodData period = handler.getCurrentPeriod();
+            if(period.getDisclosureType() == DisclosureType.COMPLETE){
+                URL url = FetchPeriodTask.getSourceUrl(resource);
+                this.fetcher.notifyComplete(url);
+            }
+
+            villageData.spoolPeriods();
+
+            this.parseCounter.countItem();
+        }
+
+        return;
+    }
+
+    /**
+     * Periodをパースする。
+     *
+     * <p>パースに失敗した場合、壊れたページとしてページ取得手段へ通知し、
+     * 再試行方針に従って待機の後にページを取得し直してパースをやり直す。
+     * 失敗したパースで村情報に加えられるPeriodは無いため、
+     * やり直しの結果は一度で成功した場合と変わらない。
+     *
+     * @param resource ロード元情報
+     * @param firstBuilder 最初に取得したページ内容の格納先
+     * @param handler ハンドラ
+     * @param parser パーサ
+     * @param charset 文字コード
+     * @return パースに用いたページ内容の格納先
+     * @throws IOException 入力エラー
+     * @throws DecodeBreakException デコードエラー
+     * @throws HtmlParseException 再試行回数を使い切ったパースエラー
+     */
+    private ContentBuilder parseWithRetry(PeriodResource resource,
+                                          ContentBuilder firstBuilder,
+                                          Handler handler,
+                                          HtmlParser parser,
+                                          Charset charset )
+            throws IOException, DecodeBreakException, HtmlParseException {
+        ContentBuilder builder = firstBuilder;
+
+        for(int retry = 0; ; retry++){
+            try{
+                handler.initPeriodResource(resource);
+                parser.parseAutomatic(builder.getContent());
+                break;
+            }catch(HtmlParseException e){
+                if( ! this.retryPolicy.canRetry(retry) ) throw e;
+            }
+
+            URL url = FetchPeriodTask.getSourceUrl(resource);
+            this.fetcher.notifyBroken(url);
+            this.retryPolicy.backoff(retry);
+
+            RawPage page = new FetchPeriodTask(resource, this.fetcher).call();
+            this.transferStats.addPage(page);
+            Builder.releaseBuilder(builder);
+            builder = Builder.builderFromPage(charset, page);
+        }
+
+        return builder;
+    }
+
+}
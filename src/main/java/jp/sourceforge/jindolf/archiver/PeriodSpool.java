@@ -0,0 +1,217 @@
+/*
+ * period spool
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import jp.sourceforge.jindolf.corelib.DisclosureType;
+
+/**
+ * パース済みPeriodのXML出力を溜めておく一時ファイル。
+ *
+ * <p>Periodはパースされた順にperiod要素としてUTF-8で書き出され、
+ * 書き出した後のPeriodモデルは破棄してよい。
+ * 書き出したPeriodの総合開示状況は記録される。
+ *
+ * <p>溜めた内容は村のXML文書の先頭と末尾の間へ
+ * {@link #transferTo(WritableByteChannel)}でそのまま転送される。
+ *
+ * <p>構造検査器が設定されていれば、Periodは書き出す前に検査される。
+ *
+ * <p>一時ファイルは閉じる際に削除される。スレッドセーフではない。
+ */
+final class PeriodSpool implements Closeable{
+
+    private static final String PREFIX = "jinarch";
+    private static final String SUFFIX = ".spool";
+
+    private static final int BUFSZ_COPY = 8 * 1024;
+
+    private static final String ERR_STALL =
+            "出力先が書き込みを受け付けません";
+
+
+    private final Path file;
+    private final FileChannel channel;
+    private final XmlOut xmlOut;
+
+    private DisclosureType disclosure = DisclosureType.COMPLETE;
+    private FastValidator fastValidator = null;
+
+
+    /**
+     * コンストラクタ。
+     * @param dir 一時ファイルを作成するディレクトリ
+     * @param sourceCs 村の元の文字コード
+     * @throws IOException 一時ファイルを作成できない
+     */
+    PeriodSpool(Path dir, Charset sourceCs) throws IOException{
+        super();
+
+        this.file = Files.createTempFile(dir, PREFIX, SUFFIX);
+        try{
+            this.channel = FileChannel.open(this.file,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }catch(IOException e){
+            Files.deleteIfExists(this.file);
+            throw e;
+        }
+
+        Writer writer = new Utf8ChannelWriter(this.channel);
+
+        this.xmlOut = new XmlOut(writer);
+        this.xmlOut.setSourceCharset(sourceCs);
+
+        return;
+    }
+
+
+    /**
+     * 書き出すPeriodの構造検査器を設定する。
+     * @param validator 構造検査器。nullなら検査しない
+     */
+    void setFastValidator(FastValidator validator){
+        this.fastValidator = validator;
+        return;
+    }
+
+    /**
+     * 書き出すPeriodの構造検査器を得る。
+     * @return 構造検査器。無ければnull
+     */
+    FastValidator getFastValidator(){
+        return this.fastValidator;
+    }
+
+    /**
+     * Periodをperiod要素として書き出す。
+     * @param village Periodを書き出す村モデル
+     * @param period Periodモデル
+     * @throws IOException 出力エラー
+     */
+    void write(VillageData village, PeriodData period) throws IOException{
+        if(this.fastValidator != null){
+            this.fastValidator.checkPeriod(village, period);
+        }
+
+        period.dumpXml(this.xmlOut);
+        this.xmlOut.nl();
+
+        switch(period.getDisclosureType()){
+        case HOT:
+            this.disclosure = DisclosureType.HOT;
+            break;
+        case UNCOMPLETE:
+            if(this.disclosure != DisclosureType.HOT){
+                this.disclosure = DisclosureType.UNCOMPLETE;
+            }
+            break;
+        default:
+            break;
+        }
+
+        return;
+    }
+
+    /**
+     * 書き出したPeriodの総合開示状況を得る。
+     * @return 開示状況。一つも無ければCOMPLETE
+     */
+    DisclosureType getDisclosureType(){
+        return this.disclosure;
+    }
+
+    /**
+     * 溜めた内容を出力先へ転送する。
+     *
+     * <p>可能であればOSによるファイル間転送が用いられ、
+     * 内容がJavaのヒープを経由することはない。
+     * ファイル間転送が進まなくなった場合、残りは読み書きで複写される。
+     *
+     * <p>出力先は書き込みを受け付けるまで待つものでなければならない。
+     *
+     * @param target 出力先
+     * @return 転送したバイト数
+     * @throws IOException 入出力エラー
+     */
+    long transferTo(WritableByteChannel target) throws IOException{
+        this.xmlOut.flush();
+
+        long size = this.channel.size();
+        long pos = 0L;
+        while(pos < size){
+            long done = this.channel.transferTo(pos, size - pos, target);
+            if(done <= 0L){
+                copyRange(pos, size, target);
+                break;
+            }
+            pos += done;
+        }
+
+        return size;
+    }
+
+    /**
+     * 一時ファイルの指定範囲を読み書きで出力先へ複写する。
+     * @param from 開始位置
+     * @param to 終了位置
+     * @param target 出力先
+     * @throws IOException 入出力エラー。出力先が書き込みを受け付けない
+     */
+    private void copyRange(long from, long to, WritableByteChannel target)
+            throws IOException{
+        ByteBuffer buf = ByteBuffer.allocate(BUFSZ_COPY);
+
+        long pos = from;
+        while(pos < to){
+            buf.clear();
+            long rest = to - pos;
+            if(rest < buf.capacity()) buf.limit((int) rest);
+
+            int read = this.channel.read(buf, pos);
+            if(read < 0) throw new EOFException();
+            pos += read;
+
+            buf.flip();
+            while(buf.hasRemaining()){
+                int written = target.write(buf);
+                if(written <= 0) throw new IOException(ERR_STALL);
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>一時ファイルは削除される。
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException{
+        try{
+            this.xmlOut.close();
+        }finally{
+            Files.deleteIfExists(this.file);
+        }
+        return;
+    }
+
+}
@@ -10,7 +10,7 @@
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -24,6 +24,7 @@
     private static final int NUM_THREADS = 2;
 
 
+    private final ExecutorService executor;
     private final CompletionService<Void> service;
 
     private final DumpXmlTask dumpTask;
@@ -45,24 +46,14 @@
      */
     public ProdCons(DumpXmlTask dumpTask, ValidateTask validateTask){
         super();
-        this.service = createService();
+        this.executor = Executors.newFixedThreadPool(NUM_THREADS);
+        this.service = new ExecutorCompletionService<>(this.executor);
         this.dumpTask = dumpTask;
         this.validateTask = validateTask;
         return;
     }
 
 
-    /**
-     * 2スレッド専用サービスを生成する。
-     * @return サービス
-     */
-    private static CompletionService<Void> createService(){
-        Executor executor = Executors.newFixedThreadPool(NUM_THREADS);
-        CompletionService<Void> service =
-                new ExecutorCompletionService<>(executor);
-        return service;
-    }
-
     /**
      * 終了タスクの失敗原因を得る。
      * @param future タスク
@@ -91,15 +82,22 @@ private static Throwable getReason(Future<?> future)
 
     /**
      * タスク投入。
+     *
+     * <p>両タスクの完了後、スレッドは解放される。
+     *
      * @throws InterruptedException 割り込まれた。※ありえない
      */
     public void submit() throws InterruptedException{
-        // consumer first
-        this.validFuture = this.service.submit(this.validateTask);
-        this.dumpFuture  = this.service.submit(this.dumpTask);
-
-        waitTask1st();
-        waitTask2nd();
+        try{
+            // consumer first
+            this.validFuture = this.service.submit(this.validateTask);
+            this.dumpFuture  = this.service.submit(this.dumpTask);
+
+            waitTask1st();
+            waitTask2nd();
+        }finally{
+            this.executor.shutdown();
+        }
 
         return;
     }
@@ -0,0 +1,290 @@
+/*
+ * raw page
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * デコード前のダウンロード済みページ。
+ */
+public class RawPage{
+
+    private static final int BUF_SZ = 8 * 1024;
+
+    private final ByteBuffer body;
+    private final long dateMs;
+    private final String etag;
+    private final String lastModified;
+
+    private long transferLength = -1L;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>バイト列はコピーされない。
+     *
+     * @param body ページ内容のバイト列
+     * @param dateMs 応答時刻。エポック秒(ms)。不明なら0
+     */
+    public RawPage(byte[] body, long dateMs){
+        this(body, dateMs, null, null);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>バイト列はコピーされない。
+     *
+     * @param body ページ内容のバイト列
+     * @param dateMs 応答時刻。エポック秒(ms)。不明なら0
+     * @param etag ETagヘッダ値。無ければnull
+     * @param lastModified Last-Modifiedヘッダ値。無ければnull
+     */
+    public RawPage(byte[] body,
+                     long dateMs,
+                     String etag,
+                     String lastModified ){
+        this(ByteBuffer.wrap(body), dateMs, etag, lastModified);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>バッファの現在位置からリミットまでをページ内容とする。
+     * バッファの内容はコピーされない。
+     * メモリマップされたバッファも指定できる。
+     *
+     * @param body ページ内容のバッファ
+     * @param dateMs 応答時刻。エポック秒(ms)。不明なら0
+     */
+    public RawPage(ByteBuffer body, long dateMs){
+        this(body, dateMs, null, null);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>バッファの現在位置からリミットまでをページ内容とする。
+     * バッファの内容はコピーされない。
+     *
+     * @param body ページ内容のバッファ
+     * @param dateMs 応答時刻。エポック秒(ms)。不明なら0
+     * @param etag ETagヘッダ値。無ければnull
+     * @param lastModified Last-Modifiedヘッダ値。無ければnull
+     */
+    public RawPage(ByteBuffer body,
+                     long dateMs,
+                     String etag,
+                     String lastModified ){
+        super();
+        if(body == null) throw new NullPointerException();
+        this.body = body.slice();
+        this.dateMs = dateMs;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        return;
+    }
+
+
+    /**
+     * 入力ストリームを終端まで読み込む。
+     *
+     * <p>ストリームは閉じられない。
+     *
+     * @param istream 入力ストリーム
+     * @param dateMs 応答時刻。エポック秒(ms)。不明なら0
+     * @return ページ
+     * @throws IOException 入力エラー
+     */
+    public static RawPage readPage(InputStream istream, long dateMs)
+            throws IOException{
+        RawPage result = readPage(istream, dateMs, null, null);
+        return result;
+    }
+
+    /**
+     * 入力ストリームを終端まで読み込む。
+     *
+     * <p>ストリームは閉じられない。
+     *
+     * @param istream 入力ストリーム
+     * @param dateMs 応答時刻。エポック秒(ms)。不明なら0
+     * @param etag ETagヘッダ値。無ければnull
+     * @param lastModified Last-Modifiedヘッダ値。無ければnull
+     * @return ページ
+     * @throws IOException 入力エラー
+     */
+    public static RawPage readPage(InputStream istream,
+                                     long dateMs,
+                                     String etag,
+                                     String lastModified )
+            throws IOException{
+        RawPage result = readPage(istream, -1, dateMs, etag, lastModified);
+        return result;
+    }
+
+    /**
+     * 入力ストリームを終端まで読み込む。
+     *
+     * <p>ストリームは閉じられない。
+     *
+     * <p>読み込み先はバイト数の見込みに合わせて確保され、
+     * 見込みどおりであれば伸長も複製も起きない。
+     *
+     * @param istream 入力ストリーム
+     * @param sizeHint バイト数の見込み。不明なら負
+     * @param dateMs 応答時刻。エポック秒(ms)。不明なら0
+     * @param etag ETagヘッダ値。無ければnull
+     * @param lastModified Last-Modifiedヘッダ値。無ければnull
+     * @return ページ
+     * @throws IOException 入力エラー
+     */
+    public static RawPage readPage(InputStream istream,
+                                     int sizeHint,
+                                     long dateMs,
+                                     String etag,
+                                     String lastModified )
+            throws IOException{
+        int initSize = BUF_SZ;
+        if(sizeHint >= 0) initSize = sizeHint;
+
+        byte[] buf = new byte[initSize];
+        int total = 0;
+
+        for(;;){
+            if(total >= buf.length){
+                int next = istream.read();
+                if(next < 0) break;
+                buf = Arrays.copyOf(buf, Math.max(BUF_SZ, buf.length * 2));
+                buf[total++] = (byte) next;
+            }
+            int len = istream.read(buf, total, buf.length - total);
+            if(len < 0) break;
+            total += len;
+        }
+
+        ByteBuffer body = ByteBuffer.wrap(buf, 0, total);
+        RawPage result = new RawPage(body, dateMs, etag, lastModified);
+        return result;
+    }
+
+    /**
+     * ページ内容のバイト数を得る。
+     * @return バイト数
+     */
+    public int getLength(){
+        return this.body.remaining();
+    }
+
+    /**
+     * ページ内容のバッファを得る。
+     *
+     * <p>内容は複製されず、返されたバッファの位置とリミットを
+     * 変更してもページには影響しない。
+     * 内容を書き換えてはならない。
+     *
+     * @return ページ内容のバッファ
+     */
+    ByteBuffer getBody(){
+        return this.body.duplicate();
+    }
+
+    /**
+     * ページ内容を読み出すストリームを得る。
+     * @return 入力ストリーム
+     */
+    public InputStream openStream(){
+        InputStream result = new ByteBufferInputStream(this.body.duplicate());
+        return result;
+    }
+
+    /**
+     * 応答時刻を得る。
+     * @return 応答時刻。エポック秒(ms)。不明なら0
+     */
+    public long getDateMs(){
+        return this.dateMs;
+    }
+
+    /**
+     * ETagヘッダ値を得る。
+     * @return ETagヘッダ値。無ければnull
+     */
+    public String getEtag(){
+        return this.etag;
+    }
+
+    /**
+     * Last-Modifiedヘッダ値を得る。
+     * @return Last-Modifiedヘッダ値。無ければnull
+     */
+    public String getLastModified(){
+        return this.lastModified;
+    }
+
+    /**
+     * 通信で転送されたページか判定する。
+     * @return 転送されたページならtrue
+     */
+    public boolean isTransferred(){
+        return this.transferLength >= 0L;
+    }
+
+    /**
+     * 転送時のバイト数を得る。
+     *
+     * <p>圧縮転送された場合は展開前のバイト数となる。
+     *
+     * @return バイト数。転送されていなければ負の値
+     */
+    public long getTransferLength(){
+        return this.transferLength;
+    }
+
+    /**
+     * 転送時のバイト数を設定する。
+     * @param transferLength バイト数
+     */
+    public void setTransferLength(long transferLength){
+        this.transferLength = transferLength;
+        return;
+    }
+
+    /**
+     * ページ内容を出力ストリームへ書き込む。
+     * @param ostream 出力ストリーム
+     * @throws IOException 出力エラー
+     */
+    public void writeTo(OutputStream ostream) throws IOException{
+        ByteBuffer buf = this.body.duplicate();
+
+        if(buf.hasArray()){
+            int offset = buf.arrayOffset() + buf.position();
+            ostream.write(buf.array(), offset, buf.remaining());
+            return;
+        }
+
+        byte[] chunk = new byte[BUF_SZ];
+        while(buf.hasRemaining()){
+            int len = Math.min(chunk.length, buf.remaining());
+            buf.get(chunk, 0, len);
+            ostream.write(chunk, 0, len);
+        }
+
+        return;
+    }
+
+}
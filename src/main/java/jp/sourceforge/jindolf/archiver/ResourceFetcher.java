@@ -0,0 +1,72 @@
+/*
+ * resource fetcher
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * 人狼サーバ上のページを取得する。
+ *
+ * <p>日一覧ページと各日ページの取得は全てこのインタフェースを経由する。
+ * 実装は複数スレッドから同時に呼ばれうる。
+ *
+ * @see HttpFetcher
+ * @see DirFetcher
+ * @see MemoryFetcher
+ */
+public interface ResourceFetcher{
+
+    /**
+     * ページを取得する。
+     * @param url 取得元URL
+     * @return ページ
+     * @throws IOException 入力エラー
+     */
+    RawPage fetch(URL url) throws IOException;
+
+    /**
+     * オリジナルのURLに対応するXHTML格納先URLを得る。
+     *
+     * <p>デフォルトではオリジナルのURLをそのまま返す。
+     *
+     * @param origUrl オリジナルのURL
+     * @return 格納先URL
+     * @throws IOException 格納先を決められない
+     * @see PeriodResource#setResourceUrl(URL)
+     */
+    default URL getResourceUrl(URL origUrl) throws IOException{
+        return origUrl;
+    }
+
+    /**
+     * ページの開示が完了し、以降変化しないことを通知する。
+     *
+     * <p>デフォルトでは何もしない。
+     *
+     * @param url 取得元URL
+     * @throws IOException 入出力エラー
+     */
+    default void notifyComplete(URL url) throws IOException{
+        return;
+    }
+
+    /**
+     * 取得したページの内容が壊れていたことを通知する。
+     *
+     * <p>通知されたページは次回の取得で改めて読み込まれるべきである。
+     * デフォルトでは何もしない。
+     *
+     * @param url 取得元URL
+     * @throws IOException 入出力エラー
+     */
+    default void notifyBroken(URL url) throws IOException{
+        return;
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * retrying fetcher
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * 失敗した取得を再試行するページ取得手段。
+ *
+ * <p>ページ取得はGETのみで冪等なため、
+ * 回復しうる入力エラーは再試行方針に従って待機の後に再試行される。
+ *
+ * @see RetryPolicy
+ */
+public class RetryFetcher implements ResourceFetcher{
+
+    private final ResourceFetcher delegate;
+    private final RetryPolicy policy;
+
+
+    /**
+     * コンストラクタ。
+     * @param delegate 委譲先
+     * @param policy 再試行方針
+     */
+    public RetryFetcher(ResourceFetcher delegate, RetryPolicy policy){
+        super();
+        if(delegate == null || policy == null){
+            throw new NullPointerException();
+        }
+        this.delegate = delegate;
+        this.policy = policy;
+        return;
+    }
+
+
+    /**
+     * 再試行方針を得る。
+     * @return 再試行方針
+     */
+    public RetryPolicy getPolicy(){
+        return this.policy;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>再試行回数を使い切った場合、最後の入力エラーが投げられる。
+     *
+     * @param url {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public RawPage fetch(URL url) throws IOException{
+        RawPage result;
+
+        for(int retry = 0; ; retry++){
+            try{
+                result = this.delegate.fetch(url);
+                break;
+            }catch(IOException e){
+                if( ! RetryPolicy.isRetryable(e) ) throw e;
+                if( ! this.policy.canRetry(retry) ) throw e;
+            }
+            this.policy.backoff(retry);
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param origUrl {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public URL getResourceUrl(URL origUrl) throws IOException{
+        return this.delegate.getResourceUrl(origUrl);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param url {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void notifyComplete(URL url) throws IOException{
+        this.delegate.notifyComplete(url);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param url {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void notifyBroken(URL url) throws IOException{
+        this.delegate.notifyBroken(url);
+        return;
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * retry policy
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.text.MessageFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 失敗したページ取得の再試行方針。
+ *
+ * <p>再試行の前には指数的に伸びる上限までの一様乱数だけ待機する。
+ * 乱数による揺らぎは、同時に失敗した複数のリクエストが
+ * 同時に再試行してサーバへ負荷を集中させることを防ぐ。
+ */
+public class RetryPolicy{
+
+    /** デフォルトの再試行回数。 */
+    public static final int DEFAULT_RETRIES = 3;
+    /** デフォルトの初回待機時間上限(ミリ秒)。 */
+    public static final long DEFAULT_BASE_MS = 1000L;
+    /** デフォルトの待機時間上限(ミリ秒)。 */
+    public static final long DEFAULT_MAX_MS = 60L * 1000L;
+
+    private static final String FORM_REPORT =
+            "retry: 再試行={0} 待機={1}ms";
+
+
+    private final int maxRetries;
+    private final long baseMs;
+    private final long maxMs;
+
+    private final AtomicInteger retryCount = new AtomicInteger();
+    private final AtomicLong backoffMs = new AtomicLong();
+
+
+    /**
+     * コンストラクタ。
+     * @param maxRetries 再試行回数。0なら再試行しない
+     * @throws IllegalArgumentException 再試行回数が負
+     */
+    public RetryPolicy(int maxRetries) throws IllegalArgumentException{
+        this(maxRetries, DEFAULT_BASE_MS, DEFAULT_MAX_MS);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     * @param maxRetries 再試行回数。0なら再試行しない
+     * @param baseMs 初回の待機時間上限(ミリ秒)
+     * @param maxMs 待機時間上限(ミリ秒)
+     * @throws IllegalArgumentException 引数が負、もしくは上限が初回未満
+     */
+    public RetryPolicy(int maxRetries, long baseMs, long maxMs)
+            throws IllegalArgumentException{
+        super();
+        if(maxRetries < 0 || baseMs < 0L || maxMs < baseMs){
+            throw new IllegalArgumentException();
+        }
+        this.maxRetries = maxRetries;
+        this.baseMs = baseMs;
+        this.maxMs = maxMs;
+        return;
+    }
+
+
+    /**
+     * 再試行で回復しうる入力エラーか判定する。
+     *
+     * <p>割り込み、存在しないページ(HTTP 404)、不正なURLは
+     * 再試行しても回復しない。
+     *
+     * @param e 入力エラー
+     * @return 回復しうるならtrue
+     */
+    public static boolean isRetryable(IOException e){
+        if(e instanceof InterruptedIOException) return false;
+        if(e instanceof FileNotFoundException) return false;
+        if(e instanceof MalformedURLException) return false;
+        return true;
+    }
+
+
+    /**
+     * 再試行回数を得る。
+     * @return 再試行回数
+     */
+    public int getMaxRetries(){
+        return this.maxRetries;
+    }
+
+    /**
+     * 再試行が可能か判定する。
+     * @param retry 既に行った再試行の回数
+     * @return 可能ならtrue
+     */
+    public boolean canRetry(int retry){
+        boolean result = retry < this.maxRetries;
+        return result;
+    }
+
+    /**
+     * 待機時間の上限を得る。
+     * @param retry 既に行った再試行の回数
+     * @return 待機時間の上限(ミリ秒)
+     */
+    long getCeilingMs(int retry){
+        long result = this.baseMs;
+        for(int ct = 0; ct < retry && result < this.maxMs; ct++){
+            result *= 2L;
+        }
+        if(result > this.maxMs) result = this.maxMs;
+        return result;
+    }
+
+    /**
+     * 再試行前の待機時間を乱数で決める。
+     * @param retry 既に行った再試行の回数
+     * @return 0以上上限以下の待機時間(ミリ秒)
+     */
+    long getBackoffMs(int retry){
+        long ceiling = getCeilingMs(retry);
+        long result = ThreadLocalRandom.current().nextLong(ceiling + 1L);
+        return result;
+    }
+
+    /**
+     * 再試行前の待機を行う。
+     * @param retry 既に行った再試行の回数
+     * @throws InterruptedIOException 割り込まれた
+     */
+    public void backoff(int retry) throws InterruptedIOException{
+        long waitMs = getBackoffMs(retry);
+
+        this.retryCount.incrementAndGet();
+        this.backoffMs.addAndGet(waitMs);
+
+        try{
+            Thread.sleep(waitMs);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+
+        return;
+    }
+
+    /**
+     * 再試行した回数を得る。
+     * @return 再試行回数
+     */
+    public int getRetryCount(){
+        return this.retryCount.get();
+    }
+
+    /**
+     * 再試行前に待機した時間の合計を得る。
+     * @return 待機時間(ミリ秒)
+     */
+    public long getTotalBackoffMs(){
+        return this.backoffMs.get();
+    }
+
+    /**
+     * 統計レポートを得る。
+     * @return レポート文字列
+     */
+    public String getReport(){
+        String result = MessageFormat.format(FORM_REPORT,
+                getRetryCount(),
+                getTotalBackoffMs()
+        );
+        return result;
+    }
+
+}
@@ -0,0 +1,298 @@
+/*
+ * table driven Shift_JIS decoder
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import io.bitbucket.olyutorskii.jiocema.CharDecodeListener;
+import io.bitbucket.olyutorskii.jiocema.DecodeBreakException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ * 変換表を用いたShift_JISデコーダ。
+ *
+ * <p>入力全体を一括してデコードし、
+ * エラーに挟まれた文字の並びごとにまとめてリスナへ通知する。
+ * ASCIIの連続は2バイト文字の判定を経ずに変換される。
+ *
+ * <p>変換表はクラス初期化時にJREのShift_JISデコーダから作成されるため、
+ * 文字の対応とデコードエラーの位置、長さは
+ * JREのデコーダを用いた{@link io.bitbucket.olyutorskii.jiocema.DecodeNotifier}
+ * と一致する。
+ *
+ * <p>インスタンスは変換結果の作業領域を保持し、
+ * 同一スレッド内であれば繰り返し用いることができる。
+ */
+final class SjisDecoder{
+
+    private static final Charset CS_SJIS = Charset.forName("Shift_JIS");
+
+    /** 1バイトで不正なバイト。 */
+    private static final char CH_MALFORMED  = '\uFFFE';
+    /** 2バイトで不正なバイト並び。 */
+    private static final char CH_UNMAPPABLE = '\uFFFF';
+    /** 2バイト文字の1バイト目。 */
+    private static final char CH_LEAD       = '\uFFFD';
+
+    private static final int BYTE_RANGE = 0x100;
+    private static final int BYTE_MASK = 0xff;
+    private static final int LEAD_MASK = 0x7f;
+    private static final int LEAD_SHIFT = 8;
+
+    private static final int BUFSZ_INIT = 8 * 1024;
+    private static final int BUFSZ_RETAIN = 1024 * 1024;
+
+    private static final char[] SINGLE_TABLE = new char[BYTE_RANGE];
+    private static final char[] DOUBLE_TABLE =
+            new char[(LEAD_MASK + 1) << LEAD_SHIFT];
+
+    static{
+        buildTable();
+    }
+
+
+    private CharDecodeListener listener;
+    private char[] work = new char[0];
+
+
+    /**
+     * コンストラクタ。
+     */
+    SjisDecoder(){
+        super();
+        return;
+    }
+
+
+    /**
+     * JREのShift_JISデコーダから変換表を作成する。
+     */
+    private static void buildTable(){
+        CharsetDecoder decoder = CS_SJIS.newDecoder();
+        decoder.onMalformedInput(CodingErrorAction.REPORT);
+        decoder.onUnmappableCharacter(CodingErrorAction.REPORT);
+
+        CharBuffer out = CharBuffer.allocate(2);
+        Arrays.fill(DOUBLE_TABLE, CH_MALFORMED);
+
+        for(int b1 = 0; b1 < BYTE_RANGE; b1++){
+            char single = probe(decoder, out, b1, -1);
+
+            boolean isLead = false;
+            if(single == CH_MALFORMED && b1 > LEAD_MASK){
+                for(int b2 = 0; b2 < BYTE_RANGE; b2++){
+                    char ch = probe(decoder, out, b1, b2);
+                    int idx = ((b1 & LEAD_MASK) << LEAD_SHIFT) | b2;
+                    DOUBLE_TABLE[idx] = ch;
+                    if(ch != CH_MALFORMED) isLead = true;
+                }
+            }
+
+            if(isLead) SINGLE_TABLE[b1] = CH_LEAD;
+            else       SINGLE_TABLE[b1] = single;
+        }
+
+        return;
+    }
+
+    /**
+     * JREのデコーダで1バイトもしくは2バイトをデコードする。
+     * @param decoder デコーダ
+     * @param out 出力バッファ
+     * @param b1 1バイト目
+     * @param b2 2バイト目。1バイトのみなら負
+     * @return デコードされた文字もしくはエラー種別
+     */
+    private static char probe(CharsetDecoder decoder, CharBuffer out,
+                              int b1, int b2){
+        ByteBuffer in;
+        if(b2 < 0) in = ByteBuffer.wrap(new byte[]{(byte) b1});
+        else       in = ByteBuffer.wrap(new byte[]{(byte) b1, (byte) b2});
+
+        decoder.reset();
+        out.clear();
+        CoderResult result = decoder.decode(in, out, true);
+
+        if(result.isError()){
+            if(out.position() > 0) return CH_MALFORMED;
+            if(result.length() >= 2) return CH_UNMAPPABLE;
+            return CH_MALFORMED;
+        }
+
+        if(out.position() != 1 || in.hasRemaining()) return CH_MALFORMED;
+
+        char ch = out.get(0);
+        if(ch == CH_MALFORMED || ch == CH_UNMAPPABLE || ch == CH_LEAD){
+            return CH_MALFORMED;
+        }
+
+        return ch;
+    }
+
+    /**
+     * 入力ストリームを終端まで読み込む。
+     * @param istream 入力ストリーム
+     * @return 読み込んだバイト列。配列長より短い場合がある
+     * @throws IOException 入力エラー
+     */
+    private static ByteBuffer readAll(InputStream istream)
+            throws IOException{
+        byte[] buf = new byte[BUFSZ_INIT];
+        int len = 0;
+
+        for(;;){
+            if(len >= buf.length){
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            int rlen = istream.read(buf, len, buf.length - len);
+            if(rlen < 0) break;
+            len += rlen;
+        }
+
+        ByteBuffer result = ByteBuffer.wrap(buf, 0, len);
+        return result;
+    }
+
+
+    /**
+     * デコード通知先を設定する。
+     * @param listener 通知先
+     */
+    void setCharDecodeListener(CharDecodeListener listener){
+        this.listener = listener;
+        return;
+    }
+
+    /**
+     * 入力ストリームをデコードし、通知先へ通知する。
+     * @param istream 入力ストリーム
+     * @throws IOException 入力エラー
+     * @throws DecodeBreakException 通知先によるデコード中断
+     */
+    void decode(InputStream istream)
+            throws IOException, DecodeBreakException{
+        ByteBuffer in = readAll(istream);
+        decode(in.array(), in.position(), in.limit());
+        return;
+    }
+
+    /**
+     * バッファの現在位置からリミットまでをデコードし、通知先へ通知する。
+     *
+     * <p>配列を持つバッファは複製せずにデコードされる。
+     * バッファの位置は変化しない。
+     *
+     * @param in 入力バッファ
+     * @throws DecodeBreakException 通知先によるデコード中断
+     */
+    void decode(ByteBuffer in) throws DecodeBreakException{
+        if(in.hasArray()){
+            int start = in.arrayOffset() + in.position();
+            decode(in.array(), start, start + in.remaining());
+            return;
+        }
+
+        byte[] copied = new byte[in.remaining()];
+        in.duplicate().get(copied);
+        decode(copied, 0, copied.length);
+
+        return;
+    }
+
+    /**
+     * 変換結果の作業領域を得る。
+     *
+     * <p>上限以下の作業領域は次回のデコードのために保持される。
+     *
+     * @param length 必要な長さ
+     * @return 作業領域
+     */
+    private char[] obtainWork(int length){
+        char[] result = this.work;
+        if(result.length >= length) return result;
+
+        result = new char[length];
+        if(length <= BUFSZ_RETAIN) this.work = result;
+
+        return result;
+    }
+
+    /**
+     * バイト列をデコードし、通知先へ通知する。
+     * @param src バイト列
+     * @param start 開始位置
+     * @param end 終了位置
+     * @throws DecodeBreakException 通知先によるデコード中断
+     */
+    void decode(byte[] src, int start, int end)
+            throws DecodeBreakException{
+        CharDecodeListener target = this.listener;
+        char[] dst = obtainWork(end - start);
+        int sp = start;
+        int dp = 0;
+        int runStart = 0;
+
+        target.startDecoding(CS_SJIS.newDecoder());
+
+        while(sp < end){
+            byte bVal;
+            while(sp < end && (bVal = src[sp]) >= 0){
+                dst[dp++] = SINGLE_TABLE[bVal];
+                sp++;
+            }
+            if(sp >= end) break;
+
+            int b1 = src[sp] & BYTE_MASK;
+            char ch = SINGLE_TABLE[b1];
+            int errLen = 0;
+
+            if(ch == CH_LEAD){
+                if(sp + 1 < end){
+                    int b2 = src[sp + 1] & BYTE_MASK;
+                    int idx = ((b1 & LEAD_MASK) << LEAD_SHIFT) | b2;
+                    ch = DOUBLE_TABLE[idx];
+                }else{
+                    ch = CH_MALFORMED;
+                }
+                if(ch == CH_MALFORMED)       errLen = 1;
+                else if(ch == CH_UNMAPPABLE) errLen = 2;
+                else                         sp++;
+            }else if(ch == CH_MALFORMED){
+                errLen = 1;
+            }
+
+            if(errLen > 0){
+                if(dp > runStart){
+                    target.charContent(dst, runStart, dp - runStart);
+                }
+                runStart = dp;
+                target.decodingError(src, sp, errLen);
+                sp += errLen;
+                continue;
+            }
+
+            dst[dp++] = ch;
+            sp++;
+        }
+
+        if(dp > runStart){
+            target.charContent(dst, runStart, dp - runStart);
+        }
+
+        target.endDecoding();
+
+        return;
+    }
+
+}
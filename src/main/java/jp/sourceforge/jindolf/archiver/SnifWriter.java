@@ -8,23 +8,49 @@
 package jp.sourceforge.jindolf.archiver;
 
 import java.io.IOException;
-import java.io.PipedReader;
-import java.io.PipedWriter;
+import java.io.InterruptedIOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * 別スレッドから盗聴可能なWriter。
+ *
+ * <p>書き込まれた文字は移譲先Writerへ出力されると同時に、
+ * 再利用される文字チャンクへ溜められる。
+ * 満ちたチャンクは丸ごと有界キューを経由して傍受用Readerへ引き渡される。
+ *
+ * <p>チャンクの総数は固定であり、
+ * 傍受側が読み終えたチャンクを返却するまで書き込み側は待たされる。
+ * 待機中のスレッドは割り込みにより
+ * {@link InterruptedIOException}で中断される。
+ *
+ * <p>傍受用Readerが閉じられた後の書き込みは
+ * {@link IOException}で失敗する。
+ * Writerが閉じられると、傍受用Readerは残りのチャンクを読んだ後に
+ * 終端に達する。
+ *
+ * <p>Writerと傍受用Readerはそれぞれ単一のスレッドから用いられねばならない。
  */
 public class SnifWriter extends Writer{
 
-    private static final int SZ_PIPEREAD = 8 * 1024;
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final int NUM_CHUNKS = 4;
+
+    private static final Chunk EOF = new Chunk(0);
 
 
     private final Writer fout;
 
-    private final Writer pout;
-    private final Reader reader;
+    private final BlockingQueue<Chunk> freeQueue;
+    private final BlockingQueue<Chunk> filledQueue;
+    private final SnifReader reader;
+
+    private Chunk current;
+    private boolean closed = false;
+
+    private volatile boolean readerClosed = false;
 
 
     /**
@@ -37,18 +63,16 @@ public SnifWriter(Writer writer){
         if(writer == null) throw new NullPointerException();
         this.fout = writer;
 
-        PipedWriter pipeOut = new PipedWriter();
-        PipedReader pipeIn  = new PipedReader(SZ_PIPEREAD);
+        // 全チャンクを格納できるため、引き渡しで待たされることはない
+        this.freeQueue   = new ArrayBlockingQueue<>(NUM_CHUNKS);
+        this.filledQueue = new ArrayBlockingQueue<>(NUM_CHUNKS + 1);
 
-        try{
-            pipeOut.connect(pipeIn);
-        }catch(IOException e){
-            // ありえない
-            assert false;
+        for(int ct = 1; ct < NUM_CHUNKS; ct++){
+            this.freeQueue.add(new Chunk(CHUNK_SIZE));
         }
+        this.current = new Chunk(CHUNK_SIZE);
 
-        this.pout = pipeOut;
-        this.reader = pipeIn;
+        this.reader = new SnifReader();
 
         return;
     }
@@ -62,25 +86,78 @@ public Reader getSnifReader(){
         return this.reader;
     }
 
+    /**
+     * 書き込み可能か検査する。
+     * @throws IOException 既に閉じられているか、傍受側が閉じられた
+     */
+    private void checkOpen() throws IOException{
+        if(this.closed) throw new IOException("closed");
+        if(this.readerClosed) throw new IOException("snif reader closed");
+        return;
+    }
+
+    /**
+     * 溜めた文字があれば傍受側へ引き渡し、空きチャンクを得る。
+     *
+     * <p>空きチャンクが無ければ、傍受側が返却するまで待つ。
+     *
+     * @throws IOException 割り込まれたか、傍受側が閉じられた
+     */
+    private void handOff() throws IOException{
+        if(this.current.length <= 0) return;
+
+        this.filledQueue.add(this.current);
+        this.current = null;
+
+        // 引き渡しと傍受側の閉鎖がすれ違った場合も空きチャンクを保証する
+        if(this.readerClosed) this.reader.recycleAll();
+
+        Chunk chunk;
+        try{
+            chunk = this.freeQueue.take();
+        }catch(InterruptedException e){
+            throw new InterruptedIOException();
+        }
+        chunk.length = 0;
+        this.current = chunk;
+
+        return;
+    }
+
     /**
      * {@inheritDoc}
+     *
+     * <p>傍受用Readerは溜められた残りの文字を読んだ後に終端に達する。
+     *
      * @throws IOException {@inheritDoc}
      */
     @Override
     public void close() throws IOException{
-        this.fout.close();
-        this.pout.close();
+        if(this.closed) return;
+
+        try{
+            this.fout.close();
+            if( ! this.readerClosed ) handOff();
+        }finally{
+            this.closed = true;
+            this.filledQueue.add(EOF);
+        }
+
         return;
     }
 
     /**
      * {@inheritDoc}
+     *
+     * <p>溜められた文字は傍受側へ引き渡される。
+     *
      * @throws IOException {@inheritDoc}
      */
     @Override
     public void flush() throws IOException{
+        checkOpen();
         this.fout.flush();
-        this.pout.flush();
+        handOff();
         return;
     }
 
@@ -93,8 +170,20 @@ public void flush() throws IOException{
      */
     @Override
     public void write(char[] cbuf, int off, int len) throws IOException{
+        checkOpen();
         this.fout.write(cbuf, off, len);
-        this.pout.write(cbuf, off, len);
+
+        int pos = off;
+        int end = off + len;
+        while(pos < end){
+            Chunk chunk = this.current;
+            int copyLen = Math.min(end - pos, CHUNK_SIZE - chunk.length);
+            System.arraycopy(cbuf, pos, chunk.chars, chunk.length, copyLen);
+            chunk.length += copyLen;
+            pos += copyLen;
+            if(chunk.length >= CHUNK_SIZE) handOff();
+        }
+
         return;
     }
 
@@ -107,8 +196,20 @@ public void write(char[] cbuf, int off, int len) throws IOException{
      */
     @Override
     public void write(String str, int off, int len) throws IOException {
+        checkOpen();
         this.fout.write(str, off, len);
-        this.pout.write(str, off, len);
+
+        int pos = off;
+        int end = off + len;
+        while(pos < end){
+            Chunk chunk = this.current;
+            int copyLen = Math.min(end - pos, CHUNK_SIZE - chunk.length);
+            str.getChars(pos, pos + copyLen, chunk.chars, chunk.length);
+            chunk.length += copyLen;
+            pos += copyLen;
+            if(chunk.length >= CHUNK_SIZE) handOff();
+        }
+
         return;
     }
 
@@ -119,9 +220,151 @@ public void write(String str, int off, int len) throws IOException {
      */
     @Override
     public void write(int c) throws IOException {
+        checkOpen();
         this.fout.write(c);
-        this.pout.write(c);
+
+        Chunk chunk = this.current;
+        chunk.chars[chunk.length++] = (char) c;
+        if(chunk.length >= CHUNK_SIZE) handOff();
+
         return;
     }
 
+
+    /**
+     * 再利用される文字チャンク。
+     */
+    private static final class Chunk{
+
+        private final char[] chars;
+        private int length = 0;
+
+        /**
+         * コンストラクタ。
+         * @param size 容量
+         */
+        Chunk(int size){
+            super();
+            this.chars = new char[size];
+            return;
+        }
+
+    }
+
+    /**
+     * 傍受用Reader。
+     */
+    private final class SnifReader extends Reader{
+
+        private Chunk chunk = null;
+        private int pos = 0;
+
+
+        /**
+         * コンストラクタ。
+         */
+        SnifReader(){
+            super();
+            return;
+        }
+
+
+        /**
+         * 引き渡し済みのチャンクを全て空きチャンクとして返却する。
+         *
+         * <p>終端は返却されない。
+         */
+        void recycleAll(){
+            for(;;){
+                Chunk filled = SnifWriter.this.filledQueue.poll();
+                if(filled == null) break;
+                if(filled == EOF){
+                    SnifWriter.this.filledQueue.add(EOF);
+                    break;
+                }
+                SnifWriter.this.freeQueue.add(filled);
+            }
+            return;
+        }
+
+        /**
+         * 読み終えたチャンクを返却し、次のチャンクを得る。
+         *
+         * <p>次のチャンクが引き渡されるまで待つ。
+         *
+         * @return 次のチャンク。終端に達していればnull
+         * @throws IOException 割り込まれたか、既に閉じられている
+         */
+        private Chunk nextChunk() throws IOException{
+            if(SnifWriter.this.readerClosed) throw new IOException("closed");
+
+            Chunk prev = this.chunk;
+            if(prev == EOF) return null;
+            if(prev != null){
+                this.chunk = null;
+                SnifWriter.this.freeQueue.add(prev);
+            }
+
+            Chunk next;
+            try{
+                next = SnifWriter.this.filledQueue.take();
+            }catch(InterruptedException e){
+                throw new InterruptedIOException();
+            }
+
+            this.chunk = next;
+            this.pos = 0;
+
+            if(next == EOF) return null;
+            return next;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param cbuf {@inheritDoc}
+         * @param off {@inheritDoc}
+         * @param len {@inheritDoc}
+         * @return {@inheritDoc}
+         * @throws IOException {@inheritDoc}
+         */
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException{
+            if(len <= 0) return 0;
+
+            Chunk src = this.chunk;
+            while(src == null || this.pos >= src.length){
+                src = nextChunk();
+                if(src == null) return -1;
+            }
+
+            int copyLen = Math.min(len, src.length - this.pos);
+            System.arraycopy(src.chars, this.pos, cbuf, off, copyLen);
+            this.pos += copyLen;
+
+            return copyLen;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * <p>以降の書き込みは失敗する。
+         * 書き込み側が空きチャンクを待っていれば解放される。
+         */
+        @Override
+        public void close(){
+            if(SnifWriter.this.readerClosed) return;
+            SnifWriter.this.readerClosed = true;
+
+            Chunk prev = this.chunk;
+            this.chunk = null;
+            if(prev != null && prev != EOF){
+                SnifWriter.this.freeQueue.add(prev);
+            }
+            recycleAll();
+
+            return;
+        }
+
+    }
+
 }
@@ -0,0 +1,140 @@
+/*
+ * pipeline stage counter
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.text.MessageFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * パイプライン各段の稼働統計。
+ *
+ * <p>入力待ち時間が長い段は上流が、
+ * 出力待ち時間が長い段は下流がボトルネックであることを示す。
+ */
+public class StageCounter{
+
+    private static final String FORM_REPORT =
+              "{0}: 処理数={1}"
+            + " 入力待ち={2}ms 出力待ち={3}ms 最大キュー長={4}";
+
+
+    private final String name;
+
+    private final AtomicInteger items = new AtomicInteger();
+    private final AtomicLong starveNanos = new AtomicLong();
+    private final AtomicLong blockNanos = new AtomicLong();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+
+
+    /**
+     * コンストラクタ。
+     * @param name 段の名前
+     */
+    public StageCounter(String name){
+        super();
+        this.name = name;
+        return;
+    }
+
+
+    /**
+     * 段の名前を得る。
+     * @return 名前
+     */
+    public String getName(){
+        return this.name;
+    }
+
+    /**
+     * 処理件数を1増やす。
+     */
+    public void countItem(){
+        this.items.incrementAndGet();
+        return;
+    }
+
+    /**
+     * 上流からの入力を待った時間を加算する。
+     * @param nanos 待ち時間(ns)
+     */
+    public void addStarveNanos(long nanos){
+        this.starveNanos.addAndGet(nanos);
+        return;
+    }
+
+    /**
+     * 下流への出力を待たされた時間を加算する。
+     * @param nanos 待ち時間(ns)
+     */
+    public void addBlockNanos(long nanos){
+        this.blockNanos.addAndGet(nanos);
+        return;
+    }
+
+    /**
+     * 出力キューの長さを標本として記録する。
+     * @param depth キュー長
+     */
+    public void sampleDepth(int depth){
+        this.maxDepth.accumulateAndGet(depth, Math::max);
+        return;
+    }
+
+    /**
+     * 処理件数を得る。
+     * @return 処理件数
+     */
+    public int getItems(){
+        return this.items.get();
+    }
+
+    /**
+     * 入力待ち時間の合計を得る。
+     * @return 待ち時間(ms)
+     */
+    public long getStarveMs(){
+        long nanos = this.starveNanos.get();
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * 出力待ち時間の合計を得る。
+     * @return 待ち時間(ms)
+     */
+    public long getBlockMs(){
+        long nanos = this.blockNanos.get();
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * 出力キュー長の最大値を得る。
+     * @return 最大キュー長
+     */
+    public int getMaxDepth(){
+        return this.maxDepth.get();
+    }
+
+    /**
+     * 統計報告文字列を得る。
+     * @return 報告文字列
+     */
+    public String getReport(){
+        String result = MessageFormat.format(
+                FORM_REPORT,
+                getName(),
+                getItems(),
+                getStarveMs(),
+                getBlockMs(),
+                getMaxDepth()
+        );
+        return result;
+    }
+
+}
@@ -30,6 +30,15 @@ public TalkData(){
         return;
     }
 
+    /**
+     * コンストラクタ。
+     * @param arena 行の格納先
+     */
+    TalkData(LineArena arena){
+        super(arena);
+        return;
+    }
+
     /**
      * 発言種別を取得する。
      * @return 発言種別
@@ -139,7 +148,7 @@ public void setMinute(int minute){
      */
     @Override
     public void dumpXml(XmlOut writer) throws IOException{
-        writer.append("<talk");
+        writer.startTag("talk");
         writer.nl();
 
         String typeStr;
@@ -181,12 +190,12 @@ public void dumpXml(XmlOut writer) throws IOException{
             writer.nl();
         }
 
-        writer.append(">");
+        writer.closeStartTag();
         writer.nl();
 
         dumpLines(writer);
 
-        writer.append("</talk>");
+        writer.endTag("talk");
         writer.nl();
 
         return;
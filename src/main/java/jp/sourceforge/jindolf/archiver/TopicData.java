@@ -8,24 +8,56 @@
 package jp.sourceforge.jindolf.archiver;
 
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
 import jp.osdn.jindolf.parser.content.DecodedContent;
 
 /**
  * テキスト行の集合。
+ *
+ * <p>行の文字は{@link LineArena}に格納され、
+ * ここでは行番号の並びのみを保持する。
+ * 行ブレークは負の行番号で表される。
  */
 public abstract class TopicData{
 
-    private static final DecodedContent BREAK = new DecodedContent("\n");
+    private static final int ID_BREAK = -1;
+    private static final int LINES_INIT = 2;
 
-    private final List<DecodedContent> lineList = new LinkedList<>();
+    private final LineArena arena;
+    private int[] lineIds = new int[LINES_INIT];
+    private int lineNum = 0;
 
     /**
      * コンストラクタ。
+     *
+     * <p>行の格納先は単独で用意される。
      */
     protected TopicData(){
+        this(new LineArena(0, LINES_INIT));
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     * @param arena 行の格納先
+     */
+    TopicData(LineArena arena){
         super();
+        if(arena == null) throw new NullPointerException();
+        this.arena = arena;
+        return;
+    }
+
+    /**
+     * 行番号を並びに加える。
+     * @param lineId 行番号。行ブレークなら負
+     */
+    private void addLineId(int lineId){
+        if(this.lineNum >= this.lineIds.length){
+            this.lineIds =
+                    Arrays.copyOf(this.lineIds, this.lineIds.length * 2);
+        }
+        this.lineIds[this.lineNum++] = lineId;
         return;
     }
 
@@ -34,7 +66,32 @@ protected TopicData(){
      * @param content 行を構成する文字列
      */
     public void addLine(DecodedContent content){
-        this.lineList.add(content);
+        int lineId = this.arena.addLine(content);
+        addLineId(lineId);
+        return;
+    }
+
+    /**
+     * 他のテキスト行の集合の最初の行を追加する。
+     *
+     * <p>格納先が同じなら行は共有され、異なれば複製される。
+     *
+     * @param src 元のテキスト行の集合
+     * @throws IndexOutOfBoundsException 元の最初の行が行ブレーク
+     */
+    void add1stLineOf(TopicData src) throws IndexOutOfBoundsException{
+        if(src.lineNum <= 0) throw new IndexOutOfBoundsException();
+        int srcId = src.lineIds[0];
+        if(srcId < 0) throw new IndexOutOfBoundsException();
+
+        int lineId;
+        if(src.arena == this.arena){
+            lineId = srcId;
+        }else{
+            lineId = this.arena.addLine(src.arena, srcId);
+        }
+        addLineId(lineId);
+
         return;
     }
 
@@ -42,7 +99,7 @@ public void addLine(DecodedContent content){
      * 行ブレークを追加する。
      */
     public void addBreak(){
-        this.lineList.add(BREAK);
+        addLineId(ID_BREAK);
         return;
     }
 
@@ -51,15 +108,22 @@ public void addBreak(){
      * @return 行数
      */
     public int getLineNum(){
-        return this.lineList.size();
+        return this.lineNum;
     }
 
     /**
      * 最初の行を取得する。
-     * @return 最初の行
+     *
+     * <p>行ブレークは改行文字からなる行として得られる。
+     *
+     * @return 最初の行。読み出し専用
+     * @throws IndexOutOfBoundsException 行が無い
      */
-    public DecodedContent get1stLine(){
-        return this.lineList.get(0);
+    public CharSequence get1stLine() throws IndexOutOfBoundsException{
+        if(this.lineNum <= 0) throw new IndexOutOfBoundsException();
+        int lineId = this.lineIds[0];
+        if(lineId < 0) return "\n";
+        return this.arena.getLine(lineId);
     }
 
     /**
@@ -68,32 +132,36 @@ public DecodedContent get1stLine(){
      * @throws IOException 出力エラー
      */
     public void dumpLines(XmlOut writer) throws IOException{
-        DecodedContent lastLine = null;
-        DecodedContent lastContent = null;
-
-        for(DecodedContent content : this.lineList){
-            lastContent = content;
-            if(content == BREAK){
-                if(lastLine != null){
-                    writer.append("</li>");
-                    lastLine = null;
+        boolean inLine = false;
+        boolean lastBreak = false;
+
+        for(int idx = 0; idx < this.lineNum; idx++){
+            int lineId = this.lineIds[idx];
+            lastBreak = lineId < 0;
+            if(lastBreak){
+                if(inLine){
+                    writer.endTag("li");
+                    inLine = false;
                 }else{
-                    writer.append("<li/>");
+                    writer.startTag("li");
+                    writer.closeEmptyTag();
                 }
                 writer.nl();
             }else{
-                if(lastLine == null){
-                    writer.append("<li>");
+                if( ! inLine ){
+                    writer.startTag("li");
+                    writer.closeStartTag();
                 }
-                writer.dumpDecodedContent(content);
-                lastLine = content;
+                writer.dumpArenaLine(this.arena, lineId);
+                inLine = true;
             }
         }
 
-        if(lastLine != null){
-            writer.append("</li>");
-        }else if(lastContent == BREAK){
-            writer.append("<li/>");
+        if(inLine){
+            writer.endTag("li");
+        }else if(lastBreak){
+            writer.startTag("li");
+            writer.closeEmptyTag();
         }
         writer.nl();
 
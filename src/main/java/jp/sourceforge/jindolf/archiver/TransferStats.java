@@ -0,0 +1,94 @@
+/*
+ * transfer statistics
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.text.MessageFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ページ転送量の統計。
+ *
+ * <p>実際に通信で転送されたページのみを集計し、
+ * キャッシュから再利用されたページは含まない。
+ */
+public class TransferStats{
+
+    private static final String FORM_REPORT =
+            "transfer: ページ数={0} 転送={1}byte 展開後={2}byte";
+
+
+    private final AtomicInteger pages = new AtomicInteger();
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong plainBytes = new AtomicLong();
+
+
+    /**
+     * コンストラクタ。
+     */
+    public TransferStats(){
+        super();
+        return;
+    }
+
+
+    /**
+     * ページを集計に加える。
+     *
+     * <p>転送されていないページは無視される。
+     *
+     * @param page ページ
+     */
+    public void addPage(RawPage page){
+        if( ! page.isTransferred() ) return;
+
+        this.pages.incrementAndGet();
+        this.wireBytes.addAndGet(page.getTransferLength());
+        this.plainBytes.addAndGet(page.getLength());
+
+        return;
+    }
+
+    /**
+     * 転送したページ数を得る。
+     * @return ページ数
+     */
+    public int getPages(){
+        return this.pages.get();
+    }
+
+    /**
+     * 転送時のバイト数を得る。
+     * @return 圧縮されたままのバイト数
+     */
+    public long getWireBytes(){
+        return this.wireBytes.get();
+    }
+
+    /**
+     * 展開後のバイト数を得る。
+     * @return 展開後のバイト数
+     */
+    public long getPlainBytes(){
+        return this.plainBytes.get();
+    }
+
+    /**
+     * 統計レポートを得る。
+     * @return レポート文字列
+     */
+    public String getReport(){
+        String result = MessageFormat.format(FORM_REPORT,
+                getPages(),
+                getWireBytes(),
+                getPlainBytes()
+        );
+        return result;
+    }
+
+}
@@ -0,0 +1,281 @@
+/*
+ * UTF-8 channel writer
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 文字をUTF-8へ直接符号化してチャネルへ出力するWriter。
+ *
+ * <p>符号化結果は再利用される一つのバイトバッファへ書き込まれ、
+ * バッファが満ちた時とフラッシュ時にまとめてチャネルへ出力される。
+ * {@link java.io.OutputStreamWriter}と
+ * バッファ付きストリームを重ねた場合に比べ、
+ * 文字とバイトの中間バッファを経由しない。
+ * ASCII文字は1文字ずつの分岐のみで符号化される。
+ *
+ * <p>対になっていないサロゲート文字は、
+ * {@link java.io.OutputStreamWriter}と同じく'?'に置き換えられる。
+ *
+ * <p>スレッドセーフではない。
+ */
+final class Utf8ChannelWriter extends Writer{
+
+    /** デフォルトのバッファサイズ。 */
+    static final int DEF_BUFSZ = 64 * 1024;
+
+    private static final int MAX_BYTES = 4;
+    private static final int CHUNK_SIZE = 1024;
+
+    private static final byte REPLACEMENT = (byte) '?';
+
+    private static final int MASK_6 = 0x3f;
+    private static final int TRAIL = 0x80;
+    private static final int LEAD_2 = 0xc0;
+    private static final int LEAD_3 = 0xe0;
+    private static final int LEAD_4 = 0xf0;
+
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer byteBuf;
+    private final byte[] bytes;
+    private final int posLimit;
+    private final char[] chunk = new char[CHUNK_SIZE];
+
+    private int bytePos = 0;
+    private char pendingHigh = 0;
+    private boolean isClosed = false;
+
+
+    /**
+     * コンストラクタ。
+     * @param channel 出力先チャネル
+     */
+    Utf8ChannelWriter(WritableByteChannel channel){
+        this(channel, DEF_BUFSZ);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     * @param channel 出力先チャネル
+     * @param bufSize バッファサイズ
+     * @throws NullPointerException チャネルがnull
+     * @throws IllegalArgumentException バッファサイズが小さすぎる
+     */
+    Utf8ChannelWriter(WritableByteChannel channel, int bufSize)
+            throws NullPointerException, IllegalArgumentException{
+        super();
+        if(channel == null) throw new NullPointerException();
+        if(bufSize < MAX_BYTES) throw new IllegalArgumentException();
+
+        this.channel = channel;
+        this.byteBuf = ByteBuffer.allocate(bufSize);
+        this.bytes = this.byteBuf.array();
+        this.posLimit = bufSize - MAX_BYTES;
+
+        return;
+    }
+
+
+    /**
+     * 閉じられていないか検査する。
+     * @throws IOException 既に閉じられている
+     */
+    private void checkOpen() throws IOException{
+        if(this.isClosed) throw new IOException("closed");
+        return;
+    }
+
+    /**
+     * バッファの内容をチャネルへ出力する。
+     * @throws IOException 出力エラー
+     */
+    private void drain() throws IOException{
+        ByteBuffer buf = this.byteBuf;
+        buf.position(0);
+        buf.limit(this.bytePos);
+        while(buf.hasRemaining()){
+            this.channel.write(buf);
+        }
+        buf.clear();
+        this.bytePos = 0;
+        return;
+    }
+
+    /**
+     * 1文字を符号化する。
+     *
+     * <p>主に非ASCII文字と、サロゲート対の後半を待つ場合に用いられる。
+     * バッファには4バイト以上の空きがなければならない。
+     *
+     * @param chVal 文字
+     */
+    private void encodeWide(char chVal){
+        byte[] buf = this.bytes;
+        int pos = this.bytePos;
+
+        char high = this.pendingHigh;
+        if(high != 0){
+            this.pendingHigh = 0;
+            if(Character.isLowSurrogate(chVal)){
+                int code = Character.toCodePoint(high, chVal);
+                buf[pos++] = (byte) (LEAD_4 | (code >> 18));
+                buf[pos++] = (byte) (TRAIL | ((code >> 12) & MASK_6));
+                buf[pos++] = (byte) (TRAIL | ((code >> 6) & MASK_6));
+                buf[pos++] = (byte) (TRAIL | (code & MASK_6));
+                this.bytePos = pos;
+                return;
+            }
+            buf[pos++] = REPLACEMENT;
+        }
+
+        if(chVal < TRAIL){
+            buf[pos++] = (byte) chVal;
+        }else if(chVal < 0x800){
+            buf[pos++] = (byte) (LEAD_2 | (chVal >> 6));
+            buf[pos++] = (byte) (TRAIL | (chVal & MASK_6));
+        }else if(Character.isHighSurrogate(chVal)){
+            this.pendingHigh = chVal;
+        }else if(Character.isLowSurrogate(chVal)){
+            buf[pos++] = REPLACEMENT;
+        }else{
+            buf[pos++] = (byte) (LEAD_3 | (chVal >> 12));
+            buf[pos++] = (byte) (TRAIL | ((chVal >> 6) & MASK_6));
+            buf[pos++] = (byte) (TRAIL | (chVal & MASK_6));
+        }
+
+        this.bytePos = pos;
+
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param cbuf {@inheritDoc}
+     * @param off {@inheritDoc}
+     * @param len {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException{
+        checkOpen();
+        if(off < 0 || len < 0 || cbuf.length - len < off){
+            throw new IndexOutOfBoundsException();
+        }
+
+        byte[] buf = this.bytes;
+        int end = off + len;
+        int idx = off;
+
+        while(idx < end){
+            if(this.pendingHigh == 0){
+                int pos = this.bytePos;
+                int asciiEnd = Math.min(end, idx + buf.length - pos);
+                while(idx < asciiEnd){
+                    char chVal = cbuf[idx];
+                    if(chVal >= TRAIL) break;
+                    buf[pos++] = (byte) chVal;
+                    idx++;
+                }
+                this.bytePos = pos;
+                if(idx >= end) break;
+            }
+
+            if(this.bytePos > this.posLimit) drain();
+            encodeWide(cbuf[idx++]);
+        }
+
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param str {@inheritDoc}
+     * @param off {@inheritDoc}
+     * @param len {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void write(String str, int off, int len) throws IOException{
+        char[] work = this.chunk;
+        int pos = off;
+        int end = off + len;
+        while(pos < end){
+            int chunkLen = Math.min(end - pos, work.length);
+            str.getChars(pos, pos + chunkLen, work, 0);
+            write(work, 0, chunkLen);
+            pos += chunkLen;
+        }
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param c {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void write(int c) throws IOException{
+        checkOpen();
+        if(this.bytePos > this.posLimit) drain();
+
+        char chVal = (char) c;
+        if(chVal < TRAIL && this.pendingHigh == 0){
+            this.bytes[this.bytePos++] = (byte) chVal;
+        }else{
+            encodeWide(chVal);
+        }
+
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>対の後半を待つサロゲート文字は出力されない。
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void flush() throws IOException{
+        checkOpen();
+        drain();
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>対の後半を待つサロゲート文字は'?'として出力される。
+     * チャネルも閉じられる。
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException{
+        if(this.isClosed) return;
+
+        try{
+            if(this.pendingHigh != 0){
+                this.pendingHigh = 0;
+                this.bytes[this.bytePos++] = REPLACEMENT;
+            }
+            drain();
+        }finally{
+            this.isClosed = true;
+            this.channel.close();
+        }
+
+        return;
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * village id specification
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 村番号指定の解釈。
+ *
+ * <p>村番号指定は村番号、もしくは「開始-終了」形式の範囲を
+ * カンマで区切って並べたもの。
+ * 例: {@code 1000-1999,2005,2010-2012}
+ *
+ * <p>村番号一覧ファイルは一行ごとに村番号指定を記したもの。
+ * 空行と # で始まる行は無視される。
+ */
+public final class VidSpec{
+
+    /** 一度に指定できる村の最大数。 */
+    public static final int MAX_VIDS = 100000;
+
+    private static final String DELIM_LIST = ",";
+    private static final char DELIM_RANGE = '-';
+    private static final char MARK_COMMENT = '#';
+
+    private static final Charset CS_UTF8 = Charset.forName("UTF-8");
+
+    private static final String FMT_INVLINE =
+            "{0} {1,number,#}行目: 不正な村番号です。 {2}";
+
+
+    /**
+     * 隠しコンストラクタ。
+     */
+    private VidSpec(){
+        assert false;
+        throw new AssertionError();
+    }
+
+
+    /**
+     * 非負の整数をパースする。
+     * @param text 数値文字列
+     * @return 非負の整数。不正なら-1
+     */
+    private static int parseVid(String text){
+        int result;
+
+        try{
+            result = Integer.parseInt(text.trim());
+        }catch(NumberFormatException e){
+            result = -1;
+        }
+
+        if(result < 0) result = -1;
+
+        return result;
+    }
+
+    /**
+     * 村番号指定を解釈し、村番号を順に集合へ加える。
+     * @param spec 村番号指定
+     * @param vidSet 村番号の集合
+     * @return 不正な指定ならfalse
+     */
+    private static boolean addVids(String spec, Set<Integer> vidSet){
+        for(String token : spec.split(DELIM_LIST, -1)){
+            int from;
+            int to;
+
+            int rangePos = token.indexOf(DELIM_RANGE);
+            if(rangePos < 0){
+                from = parseVid(token);
+                to = from;
+            }else{
+                from = parseVid(token.substring(0, rangePos));
+                to   = parseVid(token.substring(rangePos + 1));
+            }
+
+            if(from < 0 || to < from) return false;
+            if(to - from >= MAX_VIDS - vidSet.size()) return false;
+
+            for(int vid = from; vid <= to; vid++){
+                vidSet.add(vid);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * 村番号指定を解釈する。
+     *
+     * <p>重複した村番号は最初の出現位置にのみ残る。
+     *
+     * @param spec 村番号指定
+     * @return 村番号の並び。不正な指定ならnull
+     */
+    public static List<Integer> parse(String spec){
+        Set<Integer> vidSet = new LinkedHashSet<>();
+        if( ! addVids(spec, vidSet) ) return null;
+        List<Integer> result = new ArrayList<>(vidSet);
+        return result;
+    }
+
+    /**
+     * 村番号一覧ファイルを読み込む。
+     * @param file 村番号一覧ファイル
+     * @param prefix 先行する村番号の並び。重複の除去に用いられる
+     * @return 先行する並びに続けた村番号の並び
+     * @throws IOException 入力エラーもしくは不正な指定
+     */
+    public static List<Integer> loadFile(Path file,
+                                          Collection<Integer> prefix)
+            throws IOException{
+        Set<Integer> vidSet = new LinkedHashSet<>(prefix);
+
+        try(BufferedReader reader = Files.newBufferedReader(file, CS_UTF8)){
+            int lineNo = 0;
+            for(;;){
+                String line = reader.readLine();
+                if(line == null) break;
+                lineNo++;
+
+                String spec = line.trim();
+                if(spec.isEmpty()) continue;
+                if(spec.charAt(0) == MARK_COMMENT) continue;
+
+                if( ! addVids(spec, vidSet) ){
+                    String msg = MessageFormat.format(
+                            FMT_INVLINE, file, lineNo, spec);
+                    throw new IOException(msg);
+                }
+            }
+        }
+
+        List<Integer> result = new ArrayList<>(vidSet);
+        return result;
+    }
+
+}
@@ -34,9 +34,11 @@
     private String graveIconUri;
 
     private final List<AvatarData> avatarList = new LinkedList<>();
+    private final NameIndex<AvatarData> avatarIndex = new NameIndex<>();
     private int undefAvatarNo = 1;
 
     private final List<PeriodData> periodList = new LinkedList<>();
+    private PeriodSpool periodSpool = null;
 
 
     /**
@@ -250,11 +252,19 @@ public void setGraveIconUri(String graveIconUri){
 
     /**
      * 全Periodの開示状況から総合開示状況を算出する。
+     *
+     * <p>一時ファイルへ書き出し済みのPeriodも算出に含まれる。
+     *
      * @return 公開状況
      */
     public DisclosureType getDisclosureType(){
         DisclosureType result = DisclosureType.COMPLETE;
 
+        if(this.periodSpool != null){
+            result = this.periodSpool.getDisclosureType();
+            if(result == DisclosureType.HOT) return result;
+        }
+
         for(PeriodData period : this.periodList){
             DisclosureType type = period.getDisclosureType();
             switch(type){
@@ -280,6 +290,99 @@ public void addPeriodData(PeriodData period){
         return;
     }
 
+    /**
+     * Periodモデルの書き出し先一時ファイルを設定する。
+     *
+     * <p>設定された場合、{@link #spoolPeriods()}により
+     * パース済みのPeriodは一時ファイルへ書き出され、
+     * 村情報からは取り除かれる。
+     *
+     * @param spool 一時ファイル。書き出さないならnull
+     */
+    public void setPeriodSpool(PeriodSpool spool){
+        this.periodSpool = spool;
+        return;
+    }
+
+    /**
+     * 保持しているPeriodモデルを一時ファイルへ書き出し、
+     * 村情報から取り除く。
+     *
+     * <p>一時ファイルが設定されていなければ何もしない。
+     *
+     * @throws IOException 出力エラー
+     */
+    public void spoolPeriods() throws IOException{
+        if(this.periodSpool == null) return;
+
+        for(PeriodData period : this.periodList){
+            this.periodSpool.write(this, period);
+        }
+        this.periodList.clear();
+
+        return;
+    }
+
+    /**
+     * パース済みPeriodモデルの並びを取得する。
+     * @return Periodモデル並び
+     */
+    public List<PeriodData> getPeriodDataList(){
+        return Collections.unmodifiableList(this.periodList);
+    }
+
+    /**
+     * 登録済みのAvatar一覧を取得する。
+     * @return 登録順のAvatar一覧
+     */
+    List<AvatarData> getAvatarList(){
+        return Collections.unmodifiableList(this.avatarList);
+    }
+
+    /**
+     * 以前に構築した村情報から、先頭のPeriodと村全体の情報を引き継ぐ。
+     *
+     * <p>村名、更新時刻、墓アイコン、Avatar一覧が引き継がれ、
+     * 先頭から指定数のPeriodモデルが共有される。
+     * 引き継ぐPeriodのロード元は両者で一致していなければならない。
+     *
+     * @param prev 以前の村情報
+     * @param periods 引き継ぐPeriod数
+     * @throws IllegalArgumentException Periodを既に持つか、
+     *     引き継ぐPeriodが無いかロード元が一致しない
+     */
+    public void inheritFrom(VillageData prev, int periods)
+            throws IllegalArgumentException{
+        if( ! this.periodList.isEmpty() ) throw new IllegalArgumentException();
+        if(    periods > prev.periodList.size()
+            || periods > this.resourceList.size() ){
+            throw new IllegalArgumentException();
+        }
+
+        int idx = 0;
+        for(PeriodData period : prev.periodList){
+            if(idx >= periods) break;
+            String prevUrl = prev.resourceList.get(idx).getOrigUrlText();
+            String newUrl  = this.resourceList.get(idx).getOrigUrlText();
+            if( ! prevUrl.equals(newUrl) ){
+                throw new IllegalArgumentException();
+            }
+            this.periodList.add(period);
+            idx++;
+        }
+
+        this.fullName      = prev.fullName;
+        this.commitHour    = prev.commitHour;
+        this.commitMinute  = prev.commitMinute;
+        this.graveIconUri  = prev.graveIconUri;
+        for(AvatarData avatar : prev.avatarList){
+            addAvatar(avatar);
+        }
+        this.undefAvatarNo = prev.undefAvatarNo;
+
+        return;
+    }
+
     /**
      * PeriodResourcenar並びを取得する。
      * @return PeriodResource並び
@@ -318,34 +421,44 @@ public AvatarData createAvatar(String avfullName){
      * @return Avatarモデル
      */
     public AvatarData getAvatarData(CharSequence seq){
-        for(AvatarData avatar : this.avatarList){
-            String avfullName = avatar.getFullName();
-            if(avfullName.contentEquals(seq)){
-                return avatar;
-            }
-        }
+        AvatarData found = this.avatarIndex.get(seq);
+        if(found != null) return found;
 
         PreDefAvatar predefAvatar =
                 AvatarData.getPreDefAvatar(seq);
         if(predefAvatar != null){
             AvatarData avatar = new AvatarData(predefAvatar);
-            this.avatarList.add(avatar);
+            addAvatar(avatar);
             return avatar;
         }
 
         AvatarData avatar = createAvatar(seq.toString());
-        this.avatarList.add(avatar);
+        addAvatar(avatar);
 
         return avatar;
     }
 
+    /**
+     * Avatar一覧にAvatarを加え、フルネームの索引に登録する。
+     *
+     * <p>同じフルネームのAvatarが既にあれば、索引では先のものが優先される。
+     *
+     * @param avatar Avatarモデル
+     */
+    private void addAvatar(AvatarData avatar){
+        this.avatarList.add(avatar);
+        this.avatarIndex.putIfAbsent(avatar.getFullName(), avatar);
+        return;
+    }
+
     /**
      * avatarList要素のXML出力。
      * @param writer 出力先
      * @throws IOException 出力エラー
      */
     public void dumpAvatarList(XmlOut writer) throws IOException{
-        writer.append("<avatarList>");
+        writer.startTag("avatarList");
+        writer.closeStartTag();
         writer.nl();
         writer.nl();
 
@@ -354,7 +467,7 @@ public void dumpAvatarList(XmlOut writer) throws IOException{
             writer.nl();
         }
 
-        writer.append("</avatarList>");
+        writer.endTag("avatarList");
         writer.nl();
 
         return;
@@ -379,7 +492,23 @@ public void dumpPeriodList(XmlOut writer) throws IOException{
      * @throws IOException 出力エラー
      */
     public void dumpXml(XmlOut writer) throws IOException{
-        writer.append("<village");
+        dumpXmlHead(writer);
+        dumpPeriodList(writer);
+        dumpXmlTail(writer);
+        return;
+    }
+
+    /**
+     * village要素の開始タグからavatarList要素までのXML出力。
+     *
+     * <p>開示状況の属性を含むため、
+     * 全Periodのパースを終えてから呼ばなければならない。
+     *
+     * @param writer 出力先
+     * @throws IOException 出力エラー
+     */
+    public void dumpXmlHead(XmlOut writer) throws IOException{
+        writer.startTag("village");
         writer.nl();
 
         writer.indent(1);
@@ -406,7 +535,7 @@ public void dumpXml(XmlOut writer) throws IOException{
         writer.attrOut("fullName", this.fullName);
 
         writer.sp();
-        writer.attrOut("vid", Integer.toString(this.villageId));
+        writer.attrOut("vid", this.villageId);
         writer.nl();
 
         writer.indent(1);
@@ -467,18 +596,25 @@ public void dumpXml(XmlOut writer) throws IOException{
         writer.attrOut("generator", JinArchiver.GENERATOR);
         writer.nl();
 
-        writer.append(">");
+        writer.closeStartTag();
         writer.nl();
 
         writer.nl();
         dumpAvatarList(writer);
 
         writer.nl();
-        dumpPeriodList(writer);
 
-        writer.append("</village>");
-        writer.nl();
+        return;
+    }
 
+    /**
+     * village要素の終了タグのXML出力。
+     * @param writer 出力先
+     * @throws IOException 出力エラー
+     */
+    public void dumpXmlTail(XmlOut writer) throws IOException{
+        writer.endTag("village");
+        writer.nl();
         return;
     }
 
@@ -0,0 +1,121 @@
+/*
+ * multi-village scheduler
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 複数の村の出力を並行して行う。
+ *
+ * <p>村ごとの処理はワークスティーリング方式のスレッドプールへ投入される。
+ * 巨大な村を処理中のワーカがあっても、
+ * 他のワーカは残りの村を順に引き取り続ける。
+ */
+public class VillageScheduler{
+
+    private final int jobs;
+
+
+    /**
+     * コンストラクタ。
+     * @param jobs ワーカ数
+     * @throws IllegalArgumentException ワーカ数が正でない
+     */
+    public VillageScheduler(int jobs)
+            throws IllegalArgumentException{
+        super();
+        if(jobs <= 0) throw new IllegalArgumentException();
+        this.jobs = jobs;
+        return;
+    }
+
+
+    /**
+     * 村の処理の完了を待ち、結果を得る。
+     * @param future 村の処理
+     * @return 失敗時のエラー説明。成功すればnull
+     * @throws InterruptedException 割り込まれた
+     */
+    private static String waitResult(Future<String> future)
+            throws InterruptedException{
+        String result;
+
+        try{
+            result = future.get();
+        }catch(ExecutionException e){
+            Throwable cause = e.getCause();
+            cause.printStackTrace(System.err);
+            result = cause.toString();
+        }
+
+        return result;
+    }
+
+    /**
+     * 指定された村を全て処理する。
+     *
+     * <p>村の処理で発生した実行時例外は、その村の失敗として扱われる。
+     *
+     * @param vidList 村番号の並び
+     * @param job 村ごとの処理
+     * @return 失敗した村番号とエラー説明。村番号の並び順を保つ
+     * @throws InterruptedException 割り込まれた
+     */
+    public Map<Integer, String> run(List<Integer> vidList,
+                                      VillageJob job )
+            throws InterruptedException{
+        Map<Integer, String> failMap = new LinkedHashMap<>();
+
+        ExecutorService pool = Executors.newWorkStealingPool(this.jobs);
+        try{
+            List<Future<String>> futureList = new ArrayList<>();
+            for(int vid : vidList){
+                Future<String> future =
+                        pool.submit(() -> job.dump(vid));
+                futureList.add(future);
+            }
+
+            Iterator<Future<String>> it = futureList.iterator();
+            for(int vid : vidList){
+                String errDesc = waitResult(it.next());
+                if(errDesc != null){
+                    failMap.put(vid, errDesc);
+                }
+            }
+        }finally{
+            pool.shutdownNow();
+        }
+
+        return failMap;
+    }
+
+
+    /**
+     * 村ごとの処理。
+     */
+    @FunctionalInterface
+    public interface VillageJob{
+
+        /**
+         * 一つの村を処理する。
+         * @param vid 村番号
+         * @return 失敗時のエラー説明。成功すればnull
+         */
+        String dump(int vid);
+
+    }
+
+}
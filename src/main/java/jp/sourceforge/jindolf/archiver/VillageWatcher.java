@@ -0,0 +1,167 @@
+/*
+ * village watcher
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import io.bitbucket.olyutorskii.jiocema.DecodeBreakException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+import jp.osdn.jindolf.parser.HtmlParseException;
+import jp.sourceforge.jindolf.corelib.DisclosureType;
+import jp.sourceforge.jindolf.corelib.LandDef;
+
+/**
+ * 進行中の村の監視。
+ *
+ * <p>前回の村情報のうち以降変化しないPeriodはメモリ上に保持し、
+ * 日一覧ページと変化しうる末尾のPeriodのみを読み込み直す。
+ *
+ * <ul>
+ * <li>開示が完了したPeriodは常に保持される
+ * <li>未完了のPeriodは日の構成が前回と同じ間だけ保持される。
+ * 日が進むと開示範囲が変わりうるため読み込み直す
+ * <li>進行中(HOT)のPeriod以降は常に読み込み直す
+ * </ul>
+ */
+public class VillageWatcher{
+
+    private final LandDef landDef;
+    private final int vid;
+    private final ChangeDetectFetcher detector;
+    private final PeriodPipeline pipeline;
+
+    private VillageData villageData = null;
+    private int reusedPeriods = 0;
+
+
+    /**
+     * コンストラクタ。
+     * @param landDef 国情報
+     * @param vid 村番号
+     * @param fetchThreads ダウンロードスレッド数
+     * @param fetcher ページ取得手段
+     * @param retryPolicy パース失敗時の再試行方針
+     */
+    public VillageWatcher(LandDef landDef,
+                          int vid,
+                          int fetchThreads,
+                          ResourceFetcher fetcher,
+                          RetryPolicy retryPolicy ){
+        super();
+        this.landDef = landDef;
+        this.vid = vid;
+        this.detector = new ChangeDetectFetcher(fetcher);
+        this.pipeline =
+                new PeriodPipeline(fetchThreads, this.detector, retryPolicy);
+        return;
+    }
+
+
+    /**
+     * 前回の村情報から引き継げる先頭のPeriod数を数える。
+     * @param prev 前回の村情報。無ければnull
+     * @param resourceList 今回のロード元情報一覧
+     * @return 引き継げるPeriod数
+     */
+    static int countReusable(VillageData prev,
+                             List<PeriodResource> resourceList){
+        if(prev == null) return 0;
+
+        List<PeriodResource> prevList = prev.getPeriodResourceList();
+        boolean sameLayout = prevList.size() == resourceList.size();
+
+        int result = 0;
+        for(PeriodData period : prev.getPeriodDataList()){
+            if(result >= resourceList.size()) break;
+
+            String prevUrl = prevList.get(result).getOrigUrlText();
+            String newUrl  = resourceList.get(result).getOrigUrlText();
+            if( ! prevUrl.equals(newUrl) ) break;
+
+            DisclosureType type = period.getDisclosureType();
+            if(type == DisclosureType.HOT) break;
+            if(type == DisclosureType.UNCOMPLETE && ! sameLayout) break;
+
+            result++;
+        }
+
+        return result;
+    }
+
+
+    /**
+     * 直近に読み込んだ村情報を得る。
+     * @return 村情報。まだ無ければnull
+     */
+    public VillageData getVillageData(){
+        return this.villageData;
+    }
+
+    /**
+     * 直近の読み込みで引き継いだPeriod数を得る。
+     * @return Period数
+     */
+    public int getReusedPeriods(){
+        return this.reusedPeriods;
+    }
+
+    /**
+     * 村の進行が続いているか判定する。
+     * @return 進行中ならtrue
+     */
+    public boolean isHot(){
+        if(this.villageData == null) return true;
+        boolean result =
+                this.villageData.getDisclosureType() == DisclosureType.HOT;
+        return result;
+    }
+
+    /**
+     * 読み込みパイプラインを得る。
+     * @return パイプライン
+     */
+    public PeriodPipeline getPipeline(){
+        return this.pipeline;
+    }
+
+    /**
+     * 村を読み込み直す。
+     *
+     * <p>失敗した場合、前回の村情報が保たれる。
+     *
+     * @return 前回から読み込んだページ内容に変化があればtrue
+     * @throws IOException 入力エラー
+     * @throws DecodeBreakException デコードエラー
+     * @throws HtmlParseException パースエラー
+     */
+    public boolean poll()
+            throws IOException, DecodeBreakException, HtmlParseException{
+        List<PeriodResource> resourceList =
+                this.pipeline.loadResourceList(this.landDef, this.vid);
+
+        VillageData prev = this.villageData;
+        int reuse = countReusable(prev, resourceList);
+
+        VillageData newData = new VillageData(resourceList);
+        if(reuse > 0) newData.inheritFrom(prev, reuse);
+
+        this.pipeline.fillVillageData(newData, reuse);
+
+        if(newData.getDisclosureType() == DisclosureType.COMPLETE){
+            URL listUrl = HttpAccess.getPeriodListURL(this.landDef, this.vid);
+            this.detector.notifyComplete(listUrl);
+        }
+
+        this.villageData = newData;
+        this.reusedPeriods = reuse;
+
+        boolean result = this.detector.checkChanged();
+        return result;
+    }
+
+}
@@ -8,15 +8,20 @@
 package jp.sourceforge.jindolf.archiver;
 
 import java.nio.ByteBuffer;
-import java.nio.charset.CharacterCodingException;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
 import jp.osdn.jindolf.parser.content.DecodeErrorInfo;
 import jp.osdn.jindolf.parser.content.DecodedContent;
 
 /**
  * windows-31jエンコーディング(機種依存文字)に関する諸々。
+ *
+ * <p>2バイトデータの復号結果は初回の利用時に全ての組み合わせについて
+ * 変換表として作成され、以降は変更されない。
+ * 復号はロック無しで複数スレッドから同時に呼び出せる。
  */
 public final class Win31j{
 
@@ -26,16 +31,9 @@
     /** windows-31j Charset. */
     public static final Charset CS_WIN31J = Charset.forName("windows-31j");
 
-    private static final CharsetDecoder WIN31JDECODER;
-    private static final ByteBuffer BYTEBUFFER = ByteBuffer.allocate(2);
-
-    static{
-        WIN31JDECODER = CS_WIN31J.newDecoder();
-        WIN31JDECODER.onMalformedInput(CodingErrorAction.REPORT);
-        WIN31JDECODER.onUnmappableCharacter(CodingErrorAction.REPORT);
-        WIN31JDECODER.reset();
-        BYTEBUFFER.clear();
-    }
+    private static final int BYTE_MASK = 0xff;
+    private static final int BYTE_SHIFT = 8;
+    private static final int TABLE_SIZE = 1 << (BYTE_SHIFT * 2);
 
 
     /**
@@ -47,28 +45,57 @@ private Win31j(){
     }
 
 
+    /**
+     * 2バイトデータの全ての組み合わせについて復号結果の変換表を作成する。
+     * @return 上位バイトを1バイト目とした16bit値で引く変換表
+     */
+    private static char[] buildTable(){
+        CharsetDecoder decoder = CS_WIN31J.newDecoder();
+        decoder.onMalformedInput(CodingErrorAction.REPORT);
+        decoder.onUnmappableCharacter(CodingErrorAction.REPORT);
+
+        ByteBuffer in = ByteBuffer.allocate(2);
+        CharBuffer out = CharBuffer.allocate(2);
+
+        char[] table = new char[TABLE_SIZE];
+        for(int idx = 0; idx < TABLE_SIZE; idx++){
+            in.clear();
+            in.put((byte) (idx >> BYTE_SHIFT)).put((byte) idx);
+            in.flip();
+            out.clear();
+
+            decoder.reset();
+            CoderResult result = decoder.decode(in, out, true);
+            if( ! result.isError() ){
+                result = decoder.flush(out);
+            }
+
+            if(result.isError() || out.position() <= 0){
+                table[idx] = REP_CHAR;
+            }else{
+                table[idx] = out.get(0);
+            }
+        }
+
+        return table;
+    }
+
+
     /**
      * winsows-31jエンコーディングされたと想定した2バイトデータ
      * の復号を試みる。
      * 復号に失敗すればU+FFFDを返す。
+     *
+     * <p>1バイト目が1バイト文字の場合はその文字を返す。
+     * ただし2バイト目が単独で復号できなければU+FFFDを返す。
+     *
      * @param b1 1バイト目
      * @param b2 2バイト目
      * @return 復号化された1文字
      */
-    public static synchronized char getWin31jChar(byte b1, byte b2){
-        char replaced;
-
-        WIN31JDECODER.reset();
-        BYTEBUFFER.clear();
-        BYTEBUFFER.put(b1).put(b2);
-        BYTEBUFFER.flip();
-
-        try{
-            replaced = WIN31JDECODER.decode(BYTEBUFFER).charAt(0);
-        }catch(CharacterCodingException e){
-            replaced = REP_CHAR;
-        }
-
+    public static char getWin31jChar(byte b1, byte b2){
+        int idx = ((b1 & BYTE_MASK) << BYTE_SHIFT) | (b2 & BYTE_MASK);
+        char replaced = TableHolder.TABLE[idx];
         return replaced;
     }
 
@@ -106,4 +133,23 @@ public static void supplyWin31jChar(DecodedContent content){
         return;
     }
 
+
+    /**
+     * 変換表を初回の利用時まで作成しないための保持クラス。
+     */
+    private static final class TableHolder{
+
+        /** 変換表。 */
+        static final char[] TABLE = buildTable();
+
+        /**
+         * 隠しコンストラクタ。
+         */
+        private TableHolder(){
+            assert false;
+            throw new AssertionError();
+        }
+
+    }
+
 }
@@ -11,18 +11,25 @@
 import java.io.Flushable;
 import java.io.IOException;
 import java.io.Writer;
+import java.net.URI;
 import java.nio.charset.Charset;
-import java.text.MessageFormat;
-import java.util.Calendar;
-import java.util.GregorianCalendar;
+import java.util.Enumeration;
 import java.util.List;
 import java.util.TimeZone;
 import jp.osdn.jindolf.parser.content.DecodeErrorInfo;
 import jp.osdn.jindolf.parser.content.DecodedContent;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.NamespaceSupport;
 
 
 /**
  * XML出力。
+ *
+ * <p>SAXイベントの通知先が設定されていれば、
+ * 出力した文書の内容を同時に通知する。
+ * 出力を読み直すことなくXML検証を行うためのものである。
  */
 public class XmlOut implements Appendable, Flushable, Closeable{
 
@@ -47,11 +54,6 @@ public class XmlOut implements Appendable, Flushable, Closeable{
     private static final char REP_CHAR       = '\ufffd';
     private static final String INDENT_UNIT = "\u0020\u0020";
 
-    private static final String FORM_XSD_DATETIME =
-              "{0,number,#0000}-{1,number,#00}-{2,number,#00}"
-            + "T{3,number,#00}:{4,number,#00}:{5,number,#00}"
-            + ".{6,number,#000}+09:00";
-
     private static final TimeZone TZ_TOKYO =
             TimeZone.getTimeZone("Asia/Tokyo");
 
@@ -62,12 +64,60 @@ public class XmlOut implements Appendable, Flushable, Closeable{
         'a', 'b', 'c', 'd', 'e', 'f',
     };
 
+    /** 置換表が扱う文字の範囲。 */
+    private static final int ESC_RANGE = 0x80;
+    /** CharData中で置換されない文字。 */
+    private static final byte CLS_PLAIN = 0;
+    /** CharData中で前後の文字によっては置換される空白。 */
+    private static final byte CLS_SPACE = 1;
+    /** CharData中で置換される文字。 */
+    private static final byte CLS_ESCAPE = 2;
+
+    private static final byte[] CHARDATA_CLASS = new byte[ESC_RANGE];
+    private static final String[] CHARDATA_ESC = new String[ESC_RANGE];
+    private static final String[] ATTRVAL_ESC = new String[ESC_RANGE];
+    /** CharData中の置換文字列をXMLパーサが読んだ際の文字。 */
+    private static final char[] CHARDATA_READ = new char[ESC_RANGE];
+
+    private static final int RUNBUF_SIZE = 256;
+    private static final int ATTRBUF_SIZE = 48;
+
+    private static final int RADIX_DEC = 10;
+    private static final int HEX_SHIFT = 4;
+    private static final int HEX_MASK = 0x0f;
+
+    private static final long MS_DAY = 24L * 60 * 60 * 1000;
+    private static final int MS_SEC = 1000;
+    private static final int SEC_MIN = 60;
+    private static final int MIN_HOUR = 60;
+
+    /** 0000-03-01から1970-01-01までの日数。 */
+    private static final long DAYS_TO_EPOCH = 719468L;
+    /** グレゴリオ暦400年周期の日数。 */
+    private static final long DAYS_ERA = 146097L;
+    private static final long DAYS_4Y = 1460L;
+    private static final long DAYS_100Y = 36524L;
+    private static final long DAYS_YEAR = 365L;
+
+    static{
+        buildEscapeTable();
+    }
+
 
     private final Writer writer;
 
     private String charsetName;
     private boolean isShiftJis;
 
+    private final char[] runBuf = new char[RUNBUF_SIZE];
+    private final char[] attrBuf = new char[ATTRBUF_SIZE];
+
+    private ContentHandler handler = null;
+    private final NamespaceSupport nsSupport = new NamespaceSupport();
+    private final AttributesImpl attrs = new AttributesImpl();
+    private final String[] nameParts = new String[3];
+    private String tagName = null;
+
 
     /**
      * コンストラクタ。
@@ -84,6 +134,63 @@ public class XmlOut implements Appendable, Flushable, Closeable{
     }
 
 
+    /**
+     * ASCII文字の置換表を作成する。
+     *
+     * <p>置換文字列がnullの置換対象文字はrawdataタグで出力される。
+     */
+    private static void buildEscapeTable(){
+        for(char chVal = 0; chVal < ESC_RANGE; chVal++){
+            String escaped = null;
+
+            switch(chVal){
+            case '&':
+                escaped = "&amp;";
+                break;
+            case '<':
+                escaped = "&lt;";
+                break;
+            case '>':
+                escaped = "&gt;";
+                break;
+            case DQ_CHAR:
+                escaped = "&quot;";
+                break;
+            case SQ_CHAR:
+                escaped = "&apos;";
+                break;
+            default:
+                break;
+            }
+            ATTRVAL_ESC[chVal] = escaped;
+
+            char readChar = chVal;
+            if(isWhiteSpace(chVal)){
+                escaped = "&#x" + toHex(chVal) + ";";
+            }else if(chVal == BS_CHAR){
+                readChar = YEN_CHAR;
+                escaped = String.valueOf(readChar);
+            }else if(chVal == TILDE_CHAR){
+                readChar = OVERLINE_CHAR;
+                escaped = String.valueOf(readChar);
+            }
+            CHARDATA_ESC[chVal] = escaped;
+            CHARDATA_READ[chVal] = readChar;
+
+            byte cls;
+            if(chVal == '\u0020'){
+                cls = CLS_SPACE;
+            }else if(escaped != null || ! isXmlChar(chVal)){
+                cls = CLS_ESCAPE;
+            }else{
+                cls = CLS_PLAIN;
+            }
+            CHARDATA_CLASS[chVal] = cls;
+        }
+
+        return;
+    }
+
     /**
      * 任意の文字がXML規格上のホワイトスペースに属するか判定する。
      * @param chVal 文字
@@ -242,6 +349,34 @@ private void setSourceCharsetImpl(Charset cs){
         return;
     }
 
+    /**
+     * SAXイベントの通知先を設定する。
+     *
+     * <p>要素、属性、文字データが
+     * XMLパーサが出力を読んだ場合と同じ内容で通知される。
+     * 要素の間の書式用の空白と、XML宣言、コメント、DOCTYPE宣言は通知されない。
+     * 通知先が投げた{@link SAXException}は
+     * {@link IOException}に包まれて出力メソッドから投げられる。
+     *
+     * @param handler 通知先。nullなら通知しない
+     */
+    public void setContentHandler(ContentHandler handler){
+        this.handler = handler;
+        this.nsSupport.reset();
+        this.tagName = null;
+        return;
+    }
+
+    /**
+     * 通知先が投げた例外を包む。
+     * @param cause 通知先が投げた例外
+     * @return 出力エラー
+     */
+    private static IOException wrapEventError(SAXException cause){
+        IOException result = new IOException(cause.getMessage(), cause);
+        return result;
+    }
+
     /**
      * {@inheritDoc}
      * @param csq {@inheritDoc}
@@ -332,6 +467,248 @@ public void indent(int level) throws IOException{
         return;
     }
 
+    /**
+     * 開始タグまたは空要素タグの出力を始める。
+     *
+     * <p>続けて属性を出力し、
+     * {@link #closeStartTag()}か{@link #closeEmptyTag()}で閉じなければならない。
+     *
+     * @param name 要素名
+     * @throws IOException 出力エラー
+     */
+    public void startTag(String name) throws IOException{
+        append('<');
+        append(name);
+
+        if(this.handler != null){
+            this.tagName = name;
+            this.attrs.clear();
+            this.nsSupport.pushContext();
+        }
+
+        return;
+    }
+
+    /**
+     * 開始タグを閉じる。
+     * @throws IOException 出力エラー
+     */
+    public void closeStartTag() throws IOException{
+        append('>');
+        startElementEvent();
+        return;
+    }
+
+    /**
+     * 空要素タグを閉じる。
+     * @throws IOException 出力エラー
+     */
+    public void closeEmptyTag() throws IOException{
+        append("/>");
+
+        if(this.handler != null){
+            String name = this.tagName;
+            startElementEvent();
+            endElementEvent(name);
+        }
+
+        return;
+    }
+
+    /**
+     * 終了タグを出力する。
+     * @param name 要素名
+     * @throws IOException 出力エラー
+     */
+    public void endTag(String name) throws IOException{
+        append("</");
+        append(name);
+        append('>');
+        endElementEvent(name);
+        return;
+    }
+
+    /**
+     * 要素名または属性名の名前空間を解決する。
+     * @param qName 修飾名
+     * @param isAttribute 属性名ならtrue
+     * @return 名前空間URI、ローカル名、修飾名からなる配列
+     * @throws IOException 未宣言の接頭辞が使われた
+     */
+    private String[] resolveName(String qName, boolean isAttribute)
+            throws IOException{
+        String[] parts =
+                this.nsSupport.processName(qName, this.nameParts, isAttribute);
+        if(parts == null){
+            String msg = "未宣言の名前空間接頭辞です。 " + qName;
+            throw wrapEventError(new SAXException(msg));
+        }
+        return parts;
+    }
+
+    /**
+     * 出力を終えた開始タグを通知する。
+     * @throws IOException 通知先のエラー
+     */
+    private void startElementEvent() throws IOException{
+        if(this.handler == null) return;
+
+        int attrNum = this.attrs.getLength();
+        for(int idx = 0; idx < attrNum; idx++){
+            String[] parts = resolveName(this.attrs.getQName(idx), true);
+            this.attrs.setURI(idx, parts[0]);
+            this.attrs.setLocalName(idx, parts[1]);
+        }
+
+        String[] parts = resolveName(this.tagName, false);
+        this.tagName = null;
+
+        try{
+            this.handler.startElement(parts[0], parts[1], parts[2],
+                                      this.attrs);
+        }catch(SAXException e){
+            throw wrapEventError(e);
+        }
+
+        return;
+    }
+
+    /**
+     * 要素の終わりを通知する。
+     * @param name 要素名
+     * @throws IOException 通知先のエラー
+     */
+    private void endElementEvent(String name) throws IOException{
+        if(this.handler == null) return;
+
+        String[] parts = resolveName(name, false);
+
+        try{
+            this.handler.endElement(parts[0], parts[1], parts[2]);
+            Enumeration<?> prefixes = this.nsSupport.getDeclaredPrefixes();
+            while(prefixes.hasMoreElements()){
+                String prefix = (String) prefixes.nextElement();
+                this.handler.endPrefixMapping(prefix);
+            }
+        }catch(SAXException e){
+            throw wrapEventError(e);
+        }
+
+        this.nsSupport.popContext();
+
+        return;
+    }
+
+    /**
+     * 出力中の開始タグの属性を通知対象に加える。
+     *
+     * <p>名前空間宣言は直ちに通知される。
+     * タグの外で出力された属性は通知されない。
+     *
+     * @param name 属性名
+     * @param value 属性値
+     * @throws IOException 通知先のエラー
+     */
+    private void attrEvent(CharSequence name, String value)
+            throws IOException{
+        if(this.tagName == null) return;
+
+        String qName = name.toString();
+        String normalized = normalizeAttrVal(value);
+
+        String prefix = null;
+        if("xmlns".equals(qName)){
+            prefix = "";
+        }else if(qName.startsWith("xmlns:")){
+            prefix = qName.substring("xmlns:".length());
+        }
+
+        if(prefix == null){
+            this.attrs.addAttribute("", "", qName, "CDATA", normalized);
+            return;
+        }
+
+        this.nsSupport.declarePrefix(prefix, normalized);
+        try{
+            this.handler.startPrefixMapping(prefix, normalized);
+        }catch(SAXException e){
+            throw wrapEventError(e);
+        }
+
+        return;
+    }
+
+    /**
+     * 属性値中のホワイトスペースを
+     * XMLパーサによる属性値の正規化と同じく空白に置き換える。
+     * @param value 属性値
+     * @return 正規化された属性値
+     */
+    private static String normalizeAttrVal(String value){
+        int len = value.length();
+        int pos;
+        for(pos = 0; pos < len; pos++){
+            char chVal = value.charAt(pos);
+            if(chVal != '\u0020' && isWhiteSpace(chVal)) break;
+        }
+        if(pos >= len) return value;
+
+        char[] buf = value.toCharArray();
+        for(; pos < len; pos++){
+            if(isWhiteSpace(buf[pos])) buf[pos] = '\u0020';
+        }
+
+        return new String(buf);
+    }
+
+    /**
+     * 文字列の一部を文字データとして通知する。
+     * @param seq 文字列
+     * @param start 開始位置
+     * @param end 終了位置
+     * @throws IOException 通知先のエラー
+     */
+    private void charsEvent(CharSequence seq, int start, int end)
+            throws IOException{
+        if(this.handler == null) return;
+
+        char[] buf = this.runBuf;
+        int pos = start;
+        try{
+            while(pos < end){
+                int chunk = Math.min(end - pos, buf.length);
+                for(int idx = 0; idx < chunk; idx++){
+                    buf[idx] = seq.charAt(pos + idx);
+                }
+                this.handler.characters(buf, 0, chunk);
+                pos += chunk;
+            }
+        }catch(SAXException e){
+            throw wrapEventError(e);
+        }
+
+        return;
+    }
+
+    /**
+     * 一文字を文字データとして通知する。
+     * @param chVal 文字
+     * @throws IOException 通知先のエラー
+     */
+    private void charEvent(char chVal) throws IOException{
+        if(this.handler == null) return;
+
+        char[] buf = this.runBuf;
+        buf[0] = chVal;
+        try{
+            this.handler.characters(buf, 0, 1);
+        }catch(SAXException e){
+            throw wrapEventError(e);
+        }
+
+        return;
+    }
+
     /**
      * XML数値文字参照を出力する。
      * @param chVal 出力文字
@@ -339,12 +716,100 @@ public void indent(int level) throws IOException{
      */
     public void charRefOut(char chVal)
             throws IOException{
-        String hex = toHex(chVal);
+        int digits;
+        if(chVal > '\u00ff') digits = 4;
+        else                 digits = 2;
 
         append("&#x");
-        append(hex);
+        hexFill(0, chVal, digits);
+        this.writer.write(this.attrBuf, 0, digits);
         append(";");
 
+        charEvent(chVal);
+
+        return;
+    }
+
+    /**
+     * 整数の指定桁数の16進表記を作業領域に置く。
+     *
+     * <p>桁数を超える上位の桁は置かれない。
+     *
+     * @param pos 作業領域上の位置
+     * @param value 整数
+     * @param digits 桁数
+     * @return 置いた表記の直後の位置
+     */
+    private int hexFill(int pos, int value, int digits){
+        char[] buf = this.attrBuf;
+        int hexVal = value;
+        int end = pos + digits;
+        for(int idx = end - 1; idx >= pos; idx--){
+            buf[idx] = HEX_TABLE[hexVal & HEX_MASK];
+            hexVal >>= HEX_SHIFT;
+        }
+        return end;
+    }
+
+    /**
+     * 非負整数を最低桁数まで0で埋めた10進表記を作業領域に置く。
+     * @param pos 作業領域上の位置
+     * @param value 非負整数
+     * @param minDigits 最低桁数
+     * @return 置いた表記の直後の位置
+     */
+    private int decimalFill(int pos, long value, int minDigits){
+        int digits = 1;
+        for(long decVal = value / RADIX_DEC; decVal > 0; decVal /= RADIX_DEC){
+            digits++;
+        }
+        if(digits < minDigits) digits = minDigits;
+
+        char[] buf = this.attrBuf;
+        long decVal = value;
+        int end = pos + digits;
+        for(int idx = end - 1; idx >= pos; idx--){
+            buf[idx] = (char) ('0' + (int) (decVal % RADIX_DEC));
+            decVal /= RADIX_DEC;
+        }
+
+        return end;
+    }
+
+    /**
+     * 文字列を作業領域に置く。
+     * @param pos 作業領域上の位置
+     * @param text 文字列
+     * @return 置いた文字列の直後の位置
+     */
+    private int textFill(int pos, String text){
+        int len = text.length();
+        text.getChars(0, len, this.attrBuf, pos);
+        return pos + len;
+    }
+
+    /**
+     * 作業領域に置いた属性値の属性を出力する。
+     *
+     * <p>属性値は置換の不要な文字のみからなっていなければならない。
+     *
+     * @param name 属性名
+     * @param len 属性値の長さ
+     * @throws IOException 出力エラー
+     */
+    private void bufAttrOut(CharSequence name, int len) throws IOException{
+        append(name);
+
+        append('=');
+
+        append(DQ_CHAR);
+        this.writer.write(this.attrBuf, 0, len);
+        append(DQ_CHAR);
+
+        if(this.handler != null){
+            attrEvent(name, new String(this.attrBuf, 0, len));
+        }
+
         return;
     }
 
@@ -364,9 +829,142 @@ public void attrOut(CharSequence name, CharSequence value)
         attrValOut(value);
         append(DQ_CHAR);
 
+        if(this.handler != null) attrEvent(name, value.toString());
+
         return;
     }
 
+    /**
+     * 属性値が文字列の一部である属性を出力する。
+     * @param name 属性名
+     * @param value 属性値を含む文字列
+     * @param start 属性値の開始位置
+     * @param end 属性値の終了位置
+     * @throws IOException 出力エラー
+     */
+    public void attrOut(CharSequence name,
+                        CharSequence value, int start, int end)
+            throws IOException{
+        append(name);
+
+        append('=');
+
+        append(DQ_CHAR);
+        attrValOut(value, start, end);
+        append(DQ_CHAR);
+
+        if(this.handler != null){
+            attrEvent(name, value.subSequence(start, end).toString());
+        }
+
+        return;
+    }
+
+    /**
+     * 整数値の属性を出力する。
+     * @param name 属性名
+     * @param value 属性値
+     * @throws IOException 出力エラー
+     */
+    public void attrOut(CharSequence name, int value)
+            throws IOException{
+        int pos = 0;
+        if(value < 0) pos = textFill(pos, "-");
+        pos = decimalFill(pos, Math.abs((long) value), 1);
+        bufAttrOut(name, pos);
+        return;
+    }
+
+    /**
+     * 16進表記の属性を出力する。
+     * @param name 属性名
+     * @param value 属性値
+     * @param digits 桁数
+     * @throws IOException 出力エラー
+     */
+    private void hexAttrOut(CharSequence name, int value, int digits)
+            throws IOException{
+        int len = hexFill(0, value, digits);
+        bufAttrOut(name, len);
+        return;
+    }
+
+    /**
+     * ベースURIからの相対URIを属性として出力する。
+     *
+     * <p>出力は{@link URI#relativize(URI)}による相対化と一致する。
+     * URIがベースURIの直下を指す通常の場合は、
+     * URIを解析せずに後半部分をそのまま出力する。
+     *
+     * @param name 属性名
+     * @param base ベースURI
+     * @param uri URI
+     * @throws IOException 出力エラー
+     */
+    public void relativeUriAttrOut(CharSequence name,
+                                   String base, String uri)
+            throws IOException{
+        int start = relativeStart(base, uri);
+        if(start >= 0){
+            attrOut(name, uri, start, uri.length());
+            return;
+        }
+
+        URI baseUri = URI.create(base);
+        URI relativeUri = baseUri.relativize(URI.create(uri));
+        attrOut(name, relativeUri.toString());
+
+        return;
+    }
+
+    /**
+     * URIがベースURIの直下を指す場合、相対URIの開始位置を求める。
+     *
+     * <p>ベースURIは問い合わせとフラグメントを持たず'/'で終わり、
+     * URIはベースURIで始まり、
+     * 残りのパス部分に'/'や':'や'.'のみのセグメントを含まない場合に限る。
+     *
+     * @param base ベースURI
+     * @param uri URI
+     * @return 開始位置。該当しなければ負
+     */
+    static int relativeStart(String base, String uri){
+        int baseLen = base.length();
+        if(baseLen <= 0 || base.charAt(baseLen - 1) != '/') return -1;
+        int authStart = base.indexOf("://");
+        if(authStart <= 0) return -1;
+        int pathStart = base.indexOf('/', authStart + 3);
+        if(base.indexOf("//", pathStart) >= 0) return -1;
+        if(    base.indexOf('?') >= 0
+            || base.indexOf('#') >= 0
+            || base.indexOf("/.") >= 0 ){
+            return -1;
+        }
+        if( ! uri.startsWith(base) ) return -1;
+
+        int uriLen = uri.length();
+        int pathEnd = uriLen;
+        for(int pos = baseLen; pos < uriLen; pos++){
+            char chVal = uri.charAt(pos);
+            if(chVal == '?' || chVal == '#'){
+                pathEnd = pos;
+                break;
+            }
+            if(chVal == '/' || chVal == ':') return -1;
+        }
+
+        boolean isDotSegment = true;
+        for(int pos = baseLen; pos < pathEnd; pos++){
+            if(uri.charAt(pos) != '.'){
+                isDotSegment = false;
+                break;
+            }
+        }
+        if(isDotSegment && pathEnd > baseLen) return -1;
+
+        return baseLen;
+    }
+
     /**
      * 属性値を出力する。
      *
@@ -376,30 +974,68 @@ public void attrOut(CharSequence name, CharSequence value)
      * @throws IOException 出力エラー
      */
     private void attrValOut(CharSequence value) throws IOException{
-        int len = value.length();
+        attrValOut(value, 0, value.length());
+        return;
+    }
 
-        for(int pos = 0; pos < len; pos++){
+    /**
+     * 文字列の一部を属性値として出力する。
+     * @param value 属性値を含む文字列
+     * @param start 開始位置
+     * @param end 終了位置
+     * @throws IOException 出力エラー
+     */
+    private void attrValOut(CharSequence value, int start, int end)
+            throws IOException{
+        int len = end;
+        int runStart = start;
+
+        for(int pos = start; pos < len; pos++){
             char chVal = value.charAt(pos);
-            switch (chVal){
-            case '&':
-                append("&amp;");
-                break;
-            case '<':
-                append("&lt;");
-                break;
-            case '>':
-                append("&gt;");
-                break;
-            case DQ_CHAR:
-                append("&quot;");
-                break;
-            case SQ_CHAR:
-                append("&apos;");
-                break;
-            default:
-                append(chVal);
-                break;
+            if(chVal >= ESC_RANGE) continue;
+
+            String escaped = ATTRVAL_ESC[chVal];
+            if(escaped == null) continue;
+
+            runOut(value, runStart, pos);
+            this.writer.write(escaped);
+            runStart = pos + 1;
+        }
+
+        runOut(value, runStart, len);
+
+        return;
+    }
+
+    /**
+     * 文字列の一部をそのまま出力する。
+     *
+     * <p>String以外の文字列は作業領域へ複製してから
+     * まとめて出力される。
+     *
+     * @param seq 文字列
+     * @param start 開始位置
+     * @param end 終了位置
+     * @throws IOException 出力エラー
+     */
+    private void runOut(CharSequence seq, int start, int end)
+            throws IOException{
+        if(start >= end) return;
+
+        if(seq instanceof String){
+            this.writer.write((String) seq, start, end - start);
+            return;
+        }
+
+        char[] buf = this.runBuf;
+        int pos = start;
+        while(pos < end){
+            int chunk = Math.min(end - pos, buf.length);
+            for(int idx = 0; idx < chunk; idx++){
+                buf[idx] = seq.charAt(pos + idx);
             }
+            this.writer.write(buf, 0, chunk);
+            pos += chunk;
         }
 
         return;
@@ -415,17 +1051,12 @@ private void attrValOut(CharSequence value) throws IOException{
      */
     public void timeAttrOut(CharSequence name, int hour, int minute)
             throws IOException{
-        append(name);
-
-        append('=');
-
-        append(DQ_CHAR);
-        digi2colOut(hour);
-        append(':');
-        digi2colOut(minute);
-        append(":00+09:00");
-        append(DQ_CHAR);
-
+        int pos = 0;
+        pos = digi2colFill(pos, hour);
+        pos = textFill(pos, ":");
+        pos = digi2colFill(pos, minute);
+        pos = textFill(pos, ":00+09:00");
+        bufAttrOut(name, pos);
         return;
     }
 
@@ -439,70 +1070,100 @@ public void timeAttrOut(CharSequence name, int hour, int minute)
      */
     public void dateAttrOut(CharSequence name, int month, int day)
             throws IOException{
-        append(name);
-
-        append('=');
-
-        append(DQ_CHAR);
-        append("--");
-        digi2colOut(month);
-        append('-');
-        digi2colOut(day);
-        append("+09:00");
-        append(DQ_CHAR);
-
+        int pos = 0;
+        pos = textFill(pos, "--");
+        pos = digi2colFill(pos, month);
+        pos = textFill(pos, "-");
+        pos = digi2colFill(pos, day);
+        pos = textFill(pos, "+09:00");
+        bufAttrOut(name, pos);
         return;
     }
 
     /**
-     * 二桁の整数を出力する。
+     * 二桁の整数を作業領域に置く。
      *
      * <p>負の値の出力は未定義。
      *
      * <p>100より大きい値の出力は未定義。
      *
+     * @param pos 作業領域上の位置
      * @param digit 整数
-     * @throws IOException 出力エラー
+     * @return 置いた表記の直後の位置
      */
-    private void digi2colOut(int digit) throws IOException{
+    private int digi2colFill(int pos, int digit){
         int col2 = Math.abs(digit) % 100;
 
         char ch1st = (char) ('0' + (col2 / 10));
         char ch2nd = (char) ('0' + (col2 % 10));
 
-        append(ch1st);
-        append(ch2nd);
+        this.attrBuf[pos]     = ch1st;
+        this.attrBuf[pos + 1] = ch2nd;
 
-        return;
+        return pos + 2;
     }
 
     /**
      * xsd:dateTime形式の日付時刻属性を出力する。
      * タイムゾーンは「+09:00」固定
+     *
+     * <p>年月日はカレンダーオブジェクトを用いずに算出される。
+     * グレゴリオ暦は1582年以前にも遡って適用される。
+     *
      * @param name 属性名
      * @param epochMs エポック時刻
      * @throws IOException 出力エラー
      */
     public void dateTimeAttr(CharSequence name, long epochMs)
             throws IOException{
-        Calendar calendar = new GregorianCalendar(TZ_TOKYO);
-
-        calendar.setTimeInMillis(epochMs);
-        int year = calendar.get(Calendar.YEAR);
-        int month = calendar.get(Calendar.MONTH) + 1;
-        int day = calendar.get(Calendar.DATE);
-        int hour = calendar.get(Calendar.HOUR_OF_DAY);
-        int minute = calendar.get(Calendar.MINUTE);
-        int sec = calendar.get(Calendar.SECOND);
-        int msec = calendar.get(Calendar.MILLISECOND);
-
-        String attrVal =
-                MessageFormat.format(
-                        FORM_XSD_DATETIME,
-                        year, month, day, hour, minute, sec, msec
-                );
-
-        attrOut(name, attrVal);
+        long localMs = epochMs + TZ_TOKYO.getOffset(epochMs);
+
+        long epochDay = Math.floorDiv(localMs, MS_DAY);
+        int msOfDay = (int) Math.floorMod(localMs, MS_DAY);
+
+        int msec = msOfDay % MS_SEC;
+        int secOfDay = msOfDay / MS_SEC;
+        int sec = secOfDay % SEC_MIN;
+        int minOfDay = secOfDay / SEC_MIN;
+        int minute = minOfDay % MIN_HOUR;
+        int hour = minOfDay / MIN_HOUR;
+
+        // 3月始まりの年として400年周期内の位置を求める
+        long days = epochDay + DAYS_TO_EPOCH;
+        long era = Math.floorDiv(days, DAYS_ERA);
+        long dayOfEra = days - era * DAYS_ERA;
+        long yearOfEra = (dayOfEra
+                          - dayOfEra / DAYS_4Y
+                          + dayOfEra / DAYS_100Y
+                          - dayOfEra / (DAYS_ERA - 1L)) / DAYS_YEAR;
+        long dayOfYear = dayOfEra
+                         - (DAYS_YEAR * yearOfEra
+                            + yearOfEra / 4L
+                            - yearOfEra / 100L);
+        long monthIdx = (5L * dayOfYear + 2L) / 153L;
+        long day = dayOfYear - (153L * monthIdx + 2L) / 5L + 1L;
+        long month;
+        if(monthIdx < 10L) month = monthIdx + 3L;
+        else               month = monthIdx - 9L;
+        long year = yearOfEra + era * 400L;
+        if(month <= 2L) year++;
+
+        int pos = 0;
+        pos = decimalFill(pos, year, 4);
+        pos = textFill(pos, "-");
+        pos = decimalFill(pos, month, 2);
+        pos = textFill(pos, "-");
+        pos = decimalFill(pos, day, 2);
+        pos = textFill(pos, "T");
+        pos = decimalFill(pos, hour, 2);
+        pos = textFill(pos, ":");
+        pos = decimalFill(pos, minute, 2);
+        pos = textFill(pos, ":");
+        pos = decimalFill(pos, sec, 2);
+        pos = textFill(pos, ".");
+        pos = decimalFill(pos, msec, 3);
+        pos = textFill(pos, "+09:00");
+        bufAttrOut(name, pos);
 
         return;
     }
@@ -536,6 +1197,41 @@ public void dumpDecodedContent(DecodedContent content)
         return;
     }
 
+    /**
+     * 行格納領域の1行をデコードエラー込みで出力する。
+     *
+     * <p>出力は同じ内容の{@link DecodedContent}を
+     * {@link #dumpDecodedContent(DecodedContent)}で出力した場合と一致する。
+     *
+     * @param arena 行格納領域
+     * @param lineId 行番号
+     * @throws IOException 出力エラー
+     */
+    void dumpArenaLine(LineArena arena, int lineId) throws IOException{
+        int last = arena.getLineStart(lineId);
+        int end = arena.getLineEnd(lineId);
+
+        int errTo = arena.getErrorTo(lineId);
+        for(int errId = arena.getErrorFrom(lineId); errId < errTo; errId++){
+            int charPos = arena.getErrorPos(errId);
+            charDataOut(arena.view(last, charPos));
+
+            byte bVal1 = arena.getErrorByte1st(errId);
+            if(arena.hasErrorByte2nd(errId)){
+                byte bVal2 = arena.getErrorByte2nd(errId);
+                dumpErrorBytes(bVal1, bVal2);
+            }else{
+                dumpDecodeError(bVal1);
+            }
+
+            last = charPos + 1;
+        }
+
+        charDataOut(arena.view(last, end));
+
+        return;
+    }
+
     /**
      * デコードエラー情報をrawdataタグで出力する。
      * 文字列集合に関するエラーの場合、windows31jでのデコード出力を試みる。
@@ -544,20 +1240,30 @@ public void dumpDecodedContent(DecodedContent content)
      */
     public void dumpErrorInfo(DecodeErrorInfo errorInfo)
             throws IOException{
-        if(this.isShiftJis && errorInfo.has2nd()){
-            byte bVal1 = errorInfo.getRawByte1st();
+        byte bVal1 = errorInfo.getRawByte1st();
+        if(errorInfo.has2nd()){
             byte bVal2 = errorInfo.getRawByte2nd();
-            dumpSjisMapError(bVal1, bVal2);
+            dumpErrorBytes(bVal1, bVal2);
         }else{
-            byte bVal1 = errorInfo.getRawByte1st();
             dumpDecodeError(bVal1);
-            if(errorInfo.has2nd()){
-                byte bVal2 = errorInfo.getRawByte2nd();
-                dumpDecodeError(bVal2);
-            }
         }
+        return;
+    }
 
-
+    /**
+     * 2バイトからなるデコードエラーをrawdataタグで出力する。
+     * Shift_JISの場合、windows31jでのデコード出力を試みる。
+     * @param bVal1 エラーデータ1
+     * @param bVal2 エラーデータ2
+     * @throws IOException 出力エラー
+     */
+    private void dumpErrorBytes(byte bVal1, byte bVal2) throws IOException{
+        if(this.isShiftJis){
+            dumpSjisMapError(bVal1, bVal2);
+        }else{
+            dumpDecodeError(bVal1);
+            dumpDecodeError(bVal2);
+        }
         return;
     }
 
@@ -568,15 +1274,13 @@ public void dumpErrorInfo(DecodeErrorInfo errorInfo)
      * @throws IOException 出力エラー
      */
     public void dumpSjisMapError(byte bVal1, byte bVal2) throws IOException{
-        short hexVal;
-        hexVal = (short) (bVal1 & 0xff);
+        int hexVal;
+        hexVal = bVal1 & 0xff;
         hexVal <<= 8;
-        hexVal |= (short) (bVal2 & 0xff);
-
-        String hexBin = toHex(hexVal);
+        hexVal |= bVal2 & 0xff;
 
         char replaceChar = Win31j.getWin31jChar(bVal1, bVal2);
-        rawDataOut(hexBin, replaceChar);
+        rawDataOut(hexVal, 4, replaceChar);
 
         return;
     }
@@ -587,32 +1291,35 @@ public void dumpSjisMapError(byte bVal1, byte bVal2) throws IOException{
      * @throws IOException 出力エラー
      */
     public void dumpDecodeError(byte bVal) throws IOException{
-        String hexBin = toHex(bVal);
-        char replaceChar = replaceChar((char) (bVal & 0xff));
-        rawDataOut(hexBin, replaceChar);
+        int hexVal = bVal & 0xff;
+        char replaceChar = replaceChar((char) hexVal);
+        rawDataOut(hexVal, 2, replaceChar);
         return;
     }
 
     /**
      * 生データ出力。
-     * @param hex 16進文字列
+     * @param hexVal 生データ値
+     * @param digits 16進表記の桁数
      * @param replace 代替キャラクタ
      * @throws IOException 出力エラー
      */
-    private void rawDataOut(String hex, char replace) throws IOException{
-        append("<rawdata");
+    private void rawDataOut(int hexVal, int digits, char replace)
+            throws IOException{
+        startTag("rawdata");
 
         String encName = this.charsetName;
         sp();
         attrOut("encoding", encName);
 
         sp();
-        attrOut("hexBin", hex);
+        hexAttrOut("hexBin", hexVal, digits);
 
         sp();
-        append(">");
+        closeStartTag();
         append(replace);
-        append("</rawdata>");
+        charEvent(replace);
+        endTag("rawdata");
 
         return;
     }
@@ -626,65 +1333,62 @@ private void rawDataOut(String hex, char replace) throws IOException{
      * <li>{@literal &, <, >, "}は無条件に文字参照化される。
      * </ul>
      * 参考：XML 1.0 規格 3.3.3節
+     *
+     * <p>置換の不要な文字の並びは置換表を用いて探され、
+     * 並びごとにまとめて出力される。
+     *
      * @param seq CDATA文字列
      * @throws IOException 出力エラー
      */
     public void charDataOut(CharSequence seq)
             throws IOException{
         int len = seq.length();
+        int last = len - 1;
+        int runStart = 0;
 
         boolean leadSpace = false;
 
         for(int pos = 0; pos < len; pos++){
             char chVal = seq.charAt(pos);
 
-            if(isWhiteSpace(chVal)){
-                boolean is1stPos  = pos == 0;
-                boolean isLastPos = pos >= len - 1;
-                if(is1stPos || isLastPos || leadSpace){
-                    charRefOut(chVal);
-                }else if(chVal != '\u0020'){
-                    charRefOut(chVal);
-                }else{
-                    append(chVal);
-                }
-                leadSpace = true;
-            }else{
-                nonSpaceOut(chVal);
+            byte cls;
+            if(chVal < ESC_RANGE)        cls = CHARDATA_CLASS[chVal];
+            else if(isXmlChar(chVal))    cls = CLS_PLAIN;
+            else                         cls = CLS_ESCAPE;
+
+            if(cls == CLS_PLAIN){
                 leadSpace = false;
+                continue;
             }
-        }
 
-        return;
-    }
+            if(    cls == CLS_SPACE
+                && ! leadSpace
+                && 0 < pos && pos < last){
+                leadSpace = true;
+                continue;
+            }
 
-    /**
-     * CharDataのホワイトスペース以外の文字を出力する。
-     * @param chVal 文字
-     * @throws IOException 出力エラー
-     */
-    private void nonSpaceOut(char chVal) throws IOException{
-        if(chVal == '&'){
-            append("&amp;");
-        }else if(chVal == '<'){
-            append("&lt;");
-        }else if(chVal == '>'){
-            append("&gt;");
-        }else if(chVal == DQ_CHAR){
-            append("&quot;");
-        }else if(chVal == SQ_CHAR){
-            append("&apos;");
-        }else if(chVal == BS_CHAR){
-            append(YEN_CHAR);
-        }else if(chVal == TILDE_CHAR){
-            append(OVERLINE_CHAR);
-        }else if(! isXmlChar(chVal)){
-            // TODO: U+007fの扱い
-            dumpRawData(chVal);
-        }else{
-            append(chVal);
+            runOut(seq, runStart, pos);
+            charsEvent(seq, runStart, pos);
+            runStart = pos + 1;
+
+            String escaped = null;
+            if(chVal < ESC_RANGE) escaped = CHARDATA_ESC[chVal];
+
+            if(escaped != null){
+                this.writer.write(escaped);
+                charEvent(CHARDATA_READ[chVal]);
+            }else{
+                // TODO: U+007fの扱い
+                dumpRawData(chVal);
+            }
+
+            leadSpace = isWhiteSpace(chVal);
         }
 
+        runOut(seq, runStart, len);
+        charsEvent(seq, runStart, len);
+
         return;
     }
 
@@ -695,9 +1399,11 @@ private void nonSpaceOut(char chVal) throws IOException{
      */
     public void dumpRawData(char chVal)
             throws IOException{
-        String hexBin = toHex(chVal);
+        int digits;
+        if(chVal > '\u00ff') digits = 4;
+        else                 digits = 2;
         char replaceChar = replaceChar(chVal);
-        rawDataOut(hexBin, replaceChar);
+        rawDataOut(chVal, digits, replaceChar);
         return;
     }
 
@@ -708,6 +1414,30 @@ public void dumpRawData(char chVal)
      */
     public void dumpVillageData(VillageData villageData)
             throws IOException{
+        dumpDocumentHead(villageData);
+        villageData.dumpPeriodList(this);
+        dumpDocumentTail(villageData);
+        return;
+    }
+
+    /**
+     * 村情報XML文書の先頭を出力する。
+     *
+     * <p>XML宣言から村のAvatar一覧までが出力される。
+     *
+     * @param villageData 村情報
+     * @throws IOException 出力エラー
+     */
+    public void dumpDocumentHead(VillageData villageData)
+            throws IOException{
+        if(this.handler != null){
+            try{
+                this.handler.startDocument();
+            }catch(SAXException e){
+                throw wrapEventError(e);
+            }
+        }
+
         append("<?xml");
         sp();
         attrOut("version", "1.0");
@@ -737,7 +1467,30 @@ public void dumpVillageData(VillageData villageData)
         nl();
         nl();
 
-        villageData.dumpXml(this);
+        villageData.dumpXmlHead(this);
+
+        return;
+    }
+
+    /**
+     * 村情報XML文書の末尾を出力する。
+     *
+     * <p>村のPeriod一覧の後に続く部分が出力される。
+     *
+     * @param villageData 村情報
+     * @throws IOException 出力エラー
+     */
+    public void dumpDocumentTail(VillageData villageData)
+            throws IOException{
+        villageData.dumpXmlTail(this);
+
+        if(this.handler != null){
+            try{
+                this.handler.endDocument();
+            }catch(SAXException e){
+                throw wrapEventError(e);
+            }
+        }
 
         nl();
         append("<!-- EOF -->");
@@ -7,14 +7,19 @@
 
 package jp.sourceforge.jindolf.archiver;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -25,6 +30,11 @@
 
 /**
  * XML各種外部リソースの解決。
+ *
+ * <p>同梱のDTDとXSDはクラスロード時に一度だけメモリへ読み込まれ、
+ * 以降の解決では入出力を伴わずにメモリから供給される。
+ *
+ * <p>スレッドセーフである。
  */
 public class XmlResolver implements LSResourceResolver{
 
@@ -46,30 +56,34 @@ public class XmlResolver implements LSResourceResolver{
     private static final String URI_BBSDTD =
             "http://jindolf.sourceforge.jp/xml/dtd/bbsArchive-110421.dtd";
 
+    private static final int CACHE_LIMIT = 256;
+    private static final int READ_SIZE = 4 * 1024;
+
     private static final DOMImplementationLS DOM_LS;
+    private static final Map<URI, byte[]> RESOURCE_MAP;
+
+    private static final Map<ResolveKey, Resolved> RESOLVE_CACHE =
+            new ConcurrentHashMap<>();
 
     static{
         try{
             DOM_LS = buildDomImplLS();
-        }catch(ParserConfigurationException e){
+            RESOURCE_MAP = buildResourceMap();
+        }catch(ParserConfigurationException
+                | URISyntaxException
+                | IOException e){
             throw new ExceptionInInitializerError(e);
         }
     }
 
 
-    private final Map<URI, URI> uriMap;
-
-
     /**
      * コンストラクタ。
+     *
+     * <p>同梱リソースと解決結果は全インスタンスで共有される。
      */
     public XmlResolver(){
         super();
-
-        this.uriMap = new HashMap<>();
-
-        setUriMap();
-
         return;
     }
 
@@ -141,55 +155,104 @@ public static URI buildBaseRelativeURI(String base, String relative)
 
 
     /**
-     * 置換マップを設定する。
+     * 同梱リソースを全て読み込み、オリジナルURIと対応付ける。
+     * @return オリジナルURIから同梱リソースの内容へのマップ
+     * @throws URISyntaxException URIが変
+     * @throws IOException 同梱リソースが読めない
      */
-    private void setUriMap(){
+    private static Map<URI, byte[]> buildResourceMap()
+            throws URISyntaxException, IOException{
+        Map<URI, byte[]> result = new HashMap<>();
 
-        try{
-            putMap(URI_BBSDTD,  RES_BBSDTD);
-            putMap(URI_BBSXSD,  RES_BBSXSD);
-            putMap(URI_COREXSD, RES_COREXSD);
-            putMap(URI_XMLXSD,  RES_XMLXSD);
-        }catch(URISyntaxException e){
-            assert false;
-            return;
-        }
+        putMap(result, URI_BBSDTD,  RES_BBSDTD);
+        putMap(result, URI_BBSXSD,  RES_BBSXSD);
+        putMap(result, URI_COREXSD, RES_COREXSD);
+        putMap(result, URI_XMLXSD,  RES_XMLXSD);
 
-        return;
+        return Collections.unmodifiableMap(result);
     }
 
     /**
-     * 置換マップを設定する。
+     * 同梱リソースを読み込み、置換マップに設定する。
+     * @param map 置換マップ
      * @param uri オリジナルURI
      * @param resource リソース名
      * @throws URISyntaxException URIが変
+     * @throws IOException 同梱リソースが読めない
      */
-    private void putMap(String uri, String resource)
-            throws URISyntaxException{
+    private static void putMap(Map<URI, byte[]> map,
+                               String uri, String resource)
+            throws URISyntaxException, IOException{
         URI orig = new URI(uri);
-
-        Class<?> klass = getClass();
-        URL resUrl = klass.getResource(resource);
-        URI resUri = resUrl.toURI();
-
         orig = orig.normalize();
-        resUri = resUri.normalize();
 
-        this.uriMap.put(orig, resUri);
+        byte[] bytes = loadResource(resource);
+
+        map.put(orig, bytes);
 
         return;
     }
 
+    /**
+     * 同梱リソースの内容を全て読み込む。
+     * @param resource リソース名
+     * @return 内容
+     * @throws IOException 同梱リソースが読めない
+     */
+    private static byte[] loadResource(String resource) throws IOException{
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        byte[] buf = new byte[READ_SIZE];
+
+        try(InputStream is = XmlResolver.class.getResourceAsStream(resource)){
+            if(is == null) throw new IOException(resource);
+            for(;;){
+                int len = is.read(buf);
+                if(len < 0) break;
+                bout.write(buf, 0, len);
+            }
+        }
+
+        byte[] result = bout.toByteArray();
+        return result;
+    }
+
     /**
      * URIを解決する。
-     * @param origUri オリジナルURI
-     * @return 解決リソースへのURI
+     *
+     * <p>解決結果はベースURIとシステムIDの組ごとにキャッシュされる。
+     *
+     * @param baseURI ベースURI。nullでもよい。
+     * @param systemId システムID。nullでもよい。
+     * @return 解決結果。URIとして変ならnull
      */
-    private URI resolveMap(URI origUri){
-        URI key = origUri.normalize();
-        URI result = this.uriMap.get(key);
+    private static Resolved resolve(String baseURI, String systemId){
+        ResolveKey key = new ResolveKey(baseURI, systemId);
+        Resolved result = RESOLVE_CACHE.get(key);
+        if(result != null) return result;
 
-        if(result == null) result = origUri;
+        URI origUri;
+        try{
+            origUri = buildBaseRelativeURI(baseURI, systemId);
+        }catch(URISyntaxException e){
+            return null;
+        }
+
+        byte[] bytes = RESOURCE_MAP.get(origUri);
+        if(bytes != null){
+            result = new Resolved(null, bytes);
+        }else{
+            URL url;
+            try{
+                url = origUri.toURL();
+            }catch(MalformedURLException e){
+                return null;
+            }
+            result = new Resolved(url, null);
+        }
+
+        if(RESOLVE_CACHE.size() < CACHE_LIMIT){
+            RESOLVE_CACHE.put(key, result);
+        }
 
         return result;
     }
@@ -209,30 +272,22 @@ public LSInput resolveResource(String type,
                                      String publicId,
                                      String systemId,
                                      String baseURI ){
-        URI origUri;
-        try{
-            origUri = buildBaseRelativeURI(baseURI, systemId);
-        }catch(URISyntaxException e){
-            assert false;
-            return null;
-        }
-
-        URI resourceUri = resolveMap(origUri);
-
-        URL resourceUrl;
-        try{
-            resourceUrl = resourceUri.toURL();
-        }catch(MalformedURLException e){
+        Resolved resolved = resolve(baseURI, systemId);
+        if(resolved == null){
             assert false;
             return null;
         }
 
         InputStream resourceStream;
-        try{
-            resourceStream = resourceUrl.openStream();
-        }catch(IOException e){
-            assert false;
-            return null;
+        if(resolved.bytes != null){
+            resourceStream = new ByteArrayInputStream(resolved.bytes);
+        }else{
+            try{
+                resourceStream = resolved.url.openStream();
+            }catch(IOException e){
+                assert false;
+                return null;
+            }
         }
 
         LSInput result = DOM_LS.createLSInput();
@@ -246,4 +301,74 @@ public LSInput resolveResource(String type,
         return result;
     }
 
+    /**
+     * ベースURIとシステムIDの組。
+     */
+    private static final class ResolveKey{
+
+        private final String baseURI;
+        private final String systemId;
+
+        /**
+         * コンストラクタ。
+         * @param baseURI ベースURI。nullでもよい。
+         * @param systemId システムID。nullでもよい。
+         */
+        ResolveKey(String baseURI, String systemId){
+            super();
+            this.baseURI = baseURI;
+            this.systemId = systemId;
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param obj {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object obj){
+            if(this == obj) return true;
+            if( ! (obj instanceof ResolveKey) ) return false;
+            ResolveKey other = (ResolveKey) obj;
+            if( ! Objects.equals(this.baseURI, other.baseURI) ) return false;
+            if( ! Objects.equals(this.systemId, other.systemId) ) return false;
+            return true;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public int hashCode(){
+            return Objects.hash(this.baseURI, this.systemId);
+        }
+
+    }
+
+    /**
+     * URIの解決結果。
+     *
+     * <p>同梱リソースならその内容を、それ以外なら読み込み先URLを保持する。
+     */
+    private static final class Resolved{
+
+        private final URL url;
+        private final byte[] bytes;
+
+        /**
+         * コンストラクタ。
+         * @param url 読み込み先URL。同梱リソースならnull
+         * @param bytes 同梱リソースの内容。それ以外ならnull
+         */
+        Resolved(URL url, byte[] bytes){
+            super();
+            this.url = url;
+            this.bytes = bytes;
+            return;
+        }
+
+    }
+
 }
@@ -7,13 +7,17 @@
 
 package jp.sourceforge.jindolf.archiver;
 
+import java.net.URL;
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
+import javax.xml.validation.ValidatorHandler;
 import org.w3c.dom.ls.LSResourceResolver;
 import org.xml.sax.SAXException;
 
@@ -22,6 +26,11 @@
  */
 public final class XmlUtils{
 
+    private static final String RES_BBSXSD =
+            "resources/bbsArchive-110421.xsd";
+
+    private static Schema schema = null;
+
     /**
      * 隠れコンストラクタ。
      */
@@ -48,24 +57,98 @@ public static DocumentBuilder createDocumentBuilder()
     }
 
     /**
-     * バリデータを生成する。
-     * @return バリデータ
+     * 同梱のXSDからスキーマを構築する。
+     *
+     * <p>XSD内のimportは同梱のリソースへ解決される。
+     *
+     * @return スキーマ
      * @throws SAXException 実装が要求に応えられない。
      */
-    public static Validator createValidator() throws SAXException{
+    private static Schema buildSchema() throws SAXException{
         SchemaFactory factory;
         String nsuri = XMLConstants.W3C_XML_SCHEMA_NS_URI;
         factory = SchemaFactory.newInstance(nsuri);
+        factory.setResourceResolver(new XmlResolver());
 
-        Schema schema;
-        schema = factory.newSchema();
+        URL xsdUrl = XmlUtils.class.getResource(RES_BBSXSD);
+        Source source = new StreamSource(xsdUrl.toExternalForm());
 
-        Validator validator = schema.newValidator();
+        Schema result = factory.newSchema(source);
 
+        return result;
+    }
+
+    /**
+     * 共有スキーマを得る。
+     *
+     * <p>同梱のXSDは最初の呼び出し時に一度だけ構築され、
+     * 以降は同じスキーマが共有される。
+     * スキーマはスレッドセーフであり、
+     * 文書ごとにXSDを読み込み直すことはない。
+     *
+     * @return スキーマ
+     * @throws SAXException 実装が要求に応えられない。
+     */
+    public static synchronized Schema getSchema() throws SAXException{
+        if(schema == null){
+            schema = buildSchema();
+        }
+        return schema;
+    }
+
+    /**
+     * バリデータを生成する。
+     *
+     * <p>バリデータは共有スキーマから生成されるため安価だが、
+     * スレッドセーフではない。
+     * 文書内のスキーマ位置指定は参照されない。
+     *
+     * @return バリデータ
+     * @throws SAXException 実装が要求に応えられない。
+     */
+    public static Validator createValidator() throws SAXException{
+        Schema shared = getSchema();
+        Validator validator = shared.newValidator();
+
+        // DTDの解決に用いる
         LSResourceResolver resolver = new XmlResolver();
         validator.setResourceResolver(resolver);
 
         return validator;
     }
 
+    /**
+     * SAXイベントを検証するバリデータを生成する。
+     *
+     * <p>文書を解析しないため、DTDは参照されない。
+     * スレッドセーフではなく、一つの文書の検証にのみ用いる。
+     *
+     * @return バリデータ
+     * @throws SAXException 実装が要求に応えられない。
+     */
+    public static ValidatorHandler createValidatorHandler()
+            throws SAXException{
+        Schema shared = getSchema();
+        ValidatorHandler handler = shared.newValidatorHandler();
+        return handler;
+    }
+
+    /**
+     * バリデータを生成直後の状態に戻す。
+     *
+     * <p>{@link Validator#reset()}はリソースリゾルバも取り除くため、
+     * 同梱のDTDを用いるリゾルバを設定し直す。
+     * 設定し直さなければDTDはネットワークから取得されてしまう。
+     *
+     * @param validator バリデータ
+     */
+    public static void resetValidator(Validator validator){
+        validator.reset();
+
+        LSResourceResolver resolver = new XmlResolver();
+        validator.setResourceResolver(resolver);
+
+        return;
+    }
+
 }
@@ -0,0 +1,62 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class CheckpointFetcherTest {
+
+    private static final String URL1 =
+            "http://example.com/wolf.cgi?vid=1&meslog=000_ready";
+
+    @TempDir
+    Path tempDir;
+
+    public CheckpointFetcherTest() {
+    }
+
+    /**
+     * Test of fetch and discard method, of class CheckpointFetcher.
+     */
+    @Test
+    public void testResume() throws IOException {
+        System.out.println("resume");
+
+        Path villageDir = tempDir.resolve("wolfg").resolve("1");
+        byte[] body = {(byte)0x41, (byte)0x42};
+
+        MemoryFetcher source = new MemoryFetcher();
+        source.putPage(URL1, body);
+        CheckpointFetcher fetcher = new CheckpointFetcher(source, villageDir);
+        fetcher.fetch(new URL(URL1));
+        assertEquals("checkpoint: 再開=0 保存=1", fetcher.getReport());
+
+        CheckpointFetcher resumed =
+                new CheckpointFetcher(new MemoryFetcher(), villageDir);
+        RawPage page = resumed.fetch(new URL(URL1));
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        page.writeTo(bout);
+        assertArrayEquals(body, bout.toByteArray());
+        assertEquals("checkpoint: 再開=1 保存=0", resumed.getReport());
+
+        resumed.discard();
+        assertFalse(Files.exists(villageDir));
+
+        return;
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import jp.osdn.jindolf.parser.content.ContentBuilder;
+import jp.osdn.jindolf.parser.content.ContentBuilderSJ;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ */
+public class ContentPoolTest {
+
+    public ContentPoolTest() {
+    }
+
+    /**
+     * Test of acquireBuilder method, of class ContentPool.
+     */
+    @Test
+    public void testAcquireBuilder() {
+        System.out.println("acquireBuilder");
+
+        ContentPool pool = new ContentPool(2);
+
+        ContentBuilder sjis = pool.acquireBuilder(true, 100);
+        ContentBuilder utf8 = pool.acquireBuilder(false, -1);
+        assertTrue(sjis instanceof ContentBuilderSJ);
+        assertFalse(utf8 instanceof ContentBuilderSJ);
+        assertEquals(2, pool.getCreatedCount());
+
+        pool.releaseBuilder(sjis);
+        pool.releaseBuilder(utf8);
+
+        assertSame(utf8, pool.acquireBuilder(false, 100));
+        assertSame(sjis, pool.acquireBuilder(true, 100));
+        assertNotSame(sjis, pool.acquireBuilder(true, 100));
+        assertEquals(3, pool.getCreatedCount());
+        assertEquals(2, pool.getReusedCount());
+
+        return;
+    }
+
+    /**
+     * Test of releaseBuilder method, of class ContentPool.
+     */
+    @Test
+    public void testReleaseBuilder() {
+        System.out.println("releaseBuilder");
+
+        ContentPool pool = new ContentPool(1);
+
+        ContentBuilder builder1 = pool.acquireBuilder(true, -1);
+        ContentBuilder builder2 = pool.acquireBuilder(true, -1);
+        pool.releaseBuilder(builder1);
+        pool.releaseBuilder(builder2);
+        assertSame(builder1, pool.acquireBuilder(true, -1));
+        assertNotSame(builder2, pool.acquireBuilder(true, -1));
+
+        ContentBuilder large = pool.acquireBuilder(true, -1);
+        char[] text = new char[ContentPool.MAX_RETAIN_CHARS + 1];
+        large.charContent(text, 0, text.length);
+        pool.releaseBuilder(large);
+        assertNotSame(large, pool.acquireBuilder(true, -1));
+
+        return;
+    }
+
+    /**
+     * Test of capacityFor method, of class ContentPool.
+     */
+    @Test
+    public void testCapacityFor() {
+        System.out.println("capacityFor");
+
+        assertEquals(4 * 1024, ContentPool.capacityFor(-1));
+        assertEquals(4 * 1024, ContentPool.capacityFor(10));
+        assertEquals(200000, ContentPool.capacityFor(200000));
+
+        return;
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class DirFetcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    public DirFetcherTest() {
+    }
+
+    /**
+     * Test of toPath method, of class DirFetcher.
+     */
+    @Test
+    public void testToPath() throws IOException {
+        System.out.println("toPath");
+
+        DirFetcher fetcher = new DirFetcher(tempDir);
+        URL url;
+        Path result;
+
+        url = new URL("http://ninjinix.com/wolf/index.rb?vid=1&meslog=000_ready");
+        result = fetcher.toPath(url);
+        assertEquals(
+                tempDir.resolve("ninjinix.com")
+                       .resolve("wolf")
+                       .resolve("index.rb?vid=1&meslog=000_ready"),
+                result);
+
+        url = new URL("http://ninjinix.com/");
+        result = fetcher.toPath(url);
+        assertEquals(tempDir.resolve("ninjinix.com").resolve("index.html"),
+                     result);
+
+        URL badUrl = new URL("http://ninjinix.com/wolf/../../etc");
+        assertThrows(IOException.class, () -> fetcher.toPath(badUrl));
+
+        return;
+    }
+
+    /**
+     * Test of fetch method, of class DirFetcher.
+     */
+    @Test
+    public void testFetch() throws IOException {
+        System.out.println("fetch");
+
+        DirFetcher fetcher = new DirFetcher(tempDir);
+        URL url = new URL("http://example.com/wolf.cgi?vid=3");
+
+        assertThrows(FileNotFoundException.class, () -> fetcher.fetch(url));
+
+        Path path = fetcher.toPath(url);
+        Files.createDirectories(path.getParent());
+        Files.write(path, new byte[]{1, 2, 3});
+        Files.setLastModifiedTime(path, FileTime.fromMillis(1000000L));
+
+        RawPage page = fetcher.fetch(url);
+        assertEquals(3, page.getLength());
+        assertEquals(1000000L, page.getDateMs());
+        assertFalse(page.isTransferred());
+
+        URL fileUrl = fetcher.getResourceUrl(url);
+        assertEquals("file", fileUrl.getProtocol());
+        page = fetcher.fetch(fileUrl);
+        assertEquals(3, page.getLength());
+
+        byte[] large = new byte[100 * 1024];
+        large[large.length - 1] = 0x7f;
+        Files.write(path, large);
+        page = fetcher.fetch(url);
+        assertEquals(large.length, page.getLength());
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        page.writeTo(bout);
+        assertArrayEquals(large, bout.toByteArray());
+
+        return;
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.StringWriter;
+import java.util.Random;
+import java.util.regex.Pattern;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import jp.sourceforge.jindolf.corelib.GameRole;
+import jp.sourceforge.jindolf.corelib.SysEventType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ */
+public class EventDataTest {
+
+    public EventDataTest() {
+    }
+
+    private static AvatarData avatar(String id) {
+        AvatarData result = new AvatarData();
+        result.setAvatarId(id);
+        result.setFullName(id);
+        return result;
+    }
+
+    private static String dump(EventData event) throws Exception {
+        StringWriter writer = new StringWriter();
+        XmlOut xmlOut = new XmlOut(writer);
+        event.dumpXml(xmlOut);
+        xmlOut.close();
+        return writer.toString();
+    }
+
+    /**
+     * Test of dumpXml method with COUNTING, of class EventData.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testDumpCounting() throws Exception {
+        System.out.println("dumpCounting");
+
+        AvatarData a1 = avatar("a1");
+        AvatarData a2 = avatar("a2");
+
+        EventData event = new EventData();
+        event.setEventType(SysEventType.COUNTING);
+        event.addLine(new DecodedContent("line"));
+        event.addAvatarData(a1);
+        event.addAvatarData(a2);
+        event.addAvatarData(a2);
+        event.addAvatarData(a1);
+        event.addAvatarData(a1);
+
+        assertEquals(
+                "<counting victim=\"a1\" >\n"
+                + "<li>line</li>\n"
+                + "<vote byWhom=\"a1\" target=\"a2\" />\n"
+                + "<vote byWhom=\"a2\" target=\"a1\" />\n"
+                + "</counting>\n",
+                dump(event));
+
+        return;
+    }
+
+    /**
+     * Test of dumpXml method with EXECUTION, of class EventData.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testDumpExecution() throws Exception {
+        System.out.println("dumpExecution");
+
+        AvatarData a1 = avatar("a1");
+        AvatarData a2 = avatar("a2");
+
+        EventData event = new EventData();
+        event.setEventType(SysEventType.EXECUTION);
+        event.addLine(new DecodedContent("line"));
+        for(int ct = 0; ct < 10; ct++){
+            event.addAvatarData(a2);
+            event.addInteger(ct);
+        }
+        event.addAvatarData(a1);
+
+        String xml = dump(event);
+        assertTrue(xml.startsWith("<execution victim=\"a1\" >\n"));
+        assertTrue(xml.contains(
+                "<nominated avatarId=\"a2\" count=\"9\" />\n"
+                + "</execution>\n"));
+
+        return;
+    }
+
+    /**
+     * Test of dumpXml method with PLAYERLIST, of class EventData.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testDumpPlayerList() throws Exception {
+        System.out.println("dumpPlayerList");
+
+        EventData event = new EventData();
+        event.setEventType(SysEventType.PLAYERLIST);
+        event.addLine(new DecodedContent("line"));
+
+        event.addAvatarData(avatar("a1"));
+        event.addDecodedContent(new DecodedContent(" http://x/ a \n"));
+        event.addDecodedContent(new DecodedContent("p<1>"));
+        event.addInteger(1);
+        event.addGameRole(GameRole.WOLF);
+
+        event.addAvatarData(avatar("a2"));
+        event.addDecodedContent(new DecodedContent(""));
+        event.addDecodedContent(new DecodedContent("p2"));
+        event.addInteger(0);
+        event.addGameRole(GameRole.SEER);
+
+        assertEquals(
+                "<playerList>\n"
+                + "<li>line</li>\n"
+                + "<playerInfo playerId=\"p&lt;1&gt;\" avatarId=\"a1\""
+                + " survive=\"true\" role=\"wolf\" uri=\"http://x/ a\" />\n"
+                + "<playerInfo playerId=\"p2\" avatarId=\"a2\""
+                + " survive=\"false\" role=\"seer\" />\n"
+                + "</playerList>\n",
+                dump(event));
+
+        return;
+    }
+
+    /**
+     * Test of normalizeUri method, of class EventData.
+     */
+    @Test
+    public void testNormalizeUri() {
+        System.out.println("normalizeUri");
+
+        Pattern headSp = Pattern.compile("^[\\s\\p{Cntrl}]+");
+        Pattern tailSp = Pattern.compile("[\\s\\p{Cntrl}]+$");
+        Pattern sp = Pattern.compile("[\\s]+");
+
+        char[] pool = {
+            'a', '/', ' ', '\t', '\n', '\r', '\u000b', '\f',
+            '\u0000', '\u007f', '\u00a0', '\u3000',
+            '\u0085', '\u2028', '\u2029',
+        };
+
+        Random rnd = new Random(1L);
+        StringBuilder result = new StringBuilder();
+        for(int ct = 0; ct < 5000; ct++){
+            StringBuilder text = new StringBuilder();
+            int len = rnd.nextInt(10);
+            for(int idx = 0; idx < len; idx++){
+                text.append(pool[rnd.nextInt(pool.length)]);
+            }
+
+            String expected = text.toString();
+            expected = headSp.matcher(expected).replaceAll("");
+            expected = tailSp.matcher(expected).replaceAll("");
+            expected = sp.matcher(expected).replaceAll("\u0020");
+
+            EventData.normalizeUri(text, result);
+            assertEquals(expected, result.toString());
+        }
+
+        return;
+    }
+
+}
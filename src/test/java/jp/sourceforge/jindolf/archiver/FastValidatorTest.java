@@ -0,0 +1,144 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import jp.sourceforge.jindolf.corelib.SysEventType;
+import jp.sourceforge.jindolf.corelib.TalkType;
+import org.xml.sax.SAXException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class FastValidatorTest {
+
+    public FastValidatorTest() {
+    }
+
+    private static TalkData createTalk(AvatarData avatar){
+        TalkData talk = new TalkData();
+        talk.setTalkType(TalkType.PUBLIC);
+        talk.setAvatarData(avatar);
+        talk.setXName("mes1");
+        talk.setFaceIconUri("face.jpg");
+        talk.setHour(23);
+        talk.setMinute(59);
+        talk.addLine(new DecodedContent("hello"));
+        return talk;
+    }
+
+    /**
+     * Test of validate method, of class FastValidator.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testValidate() throws Exception {
+        System.out.println("validate");
+
+        VillageData village = TestVillages.createVillage();
+        PeriodData period = village.getPeriodDataList().get(1);
+        AvatarData avatar = village.getAvatarData("ちょっと変な人");
+        period.addTopicData(createTalk(avatar));
+
+        EventData event = new EventData();
+        event.setEventType(SysEventType.MURDERED);
+        event.addAvatarData(avatar);
+        period.addTopicData(event);
+
+        FastValidator.validate(village);
+
+        AvatarData stranger = new AvatarData();
+        stranger.setAvatarId("stranger");
+        stranger.setFullName("stranger");
+        stranger.setShortName("stranger");
+        event.addAvatarData(stranger);
+        SAXException ex = assertThrows(SAXException.class, () -> {
+            FastValidator.validate(village);
+        });
+        assertEquals("murdered 要素が未定義の avatarId を参照しています。 stranger",
+                     ex.getMessage());
+
+        ex = assertThrows(SAXException.class, () -> {
+            FastValidator.validate(createVillageWithDup());
+        });
+        assertEquals("avatarId が重複しています。 dup", ex.getMessage());
+
+        VillageData village2 = TestVillages.createVillage();
+        village2.getPeriodDataList().get(2).setCommitMonth(13);
+        ex = assertThrows(SAXException.class, () -> {
+            FastValidator.validate(village2);
+        });
+        assertEquals("period 要素の nextCommitDay が範囲外です。 13",
+                     ex.getMessage());
+
+        return;
+    }
+
+    private static VillageData createVillageWithDup(){
+        VillageData village = TestVillages.createVillage();
+        village.getAvatarData("人1").setAvatarId("dup");
+        village.getAvatarData("人2").setAvatarId("dup");
+        return village;
+    }
+
+    /**
+     * Test of checkPeriod method, of class FastValidator.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testCheckPeriod() throws Exception {
+        System.out.println("checkPeriod");
+
+        VillageData village = TestVillages.createVillage();
+        PeriodData period = village.getPeriodDataList().get(0);
+        AvatarData avatar = village.getAvatarData("人1");
+        TalkData talk = createTalk(avatar);
+        talk.setXName(null);
+        period.addTopicData(talk);
+
+        FastValidator validator = new FastValidator();
+        validator.checkPeriod(village, village.getPeriodDataList().get(1));
+        assertFalse(validator.hasError());
+        validator.verify();
+
+        validator.checkPeriod(village, period);
+        assertTrue(validator.hasError());
+        SAXException ex = assertThrows(SAXException.class, () -> {
+            validator.verify();
+        });
+        assertEquals("talk 要素の xname がありません。", ex.getMessage());
+
+        return;
+    }
+
+    /**
+     * Test of checkPeriod method, of class FastValidator.
+     * 所属村が書き出し中の村と異なるPeriodの検査。
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testCheckPeriodInherited() throws Exception {
+        System.out.println("checkPeriod:inherited");
+
+        VillageData prev = TestVillages.createVillage();
+        PeriodData period = prev.getPeriodDataList().get(0);
+
+        VillageData village = TestVillages.createVillage();
+        AvatarData avatar = village.getAvatarData("人1");
+        period.addTopicData(createTalk(avatar));
+
+        FastValidator validator = new FastValidator();
+        validator.checkPeriod(village, period);
+        assertFalse(validator.hasError());
+        validator.verify();
+
+        return;
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class HostThrottleTest {
+
+    private static final long SEC = TimeUnit.SECONDS.toNanos(1L);
+
+    public HostThrottleTest() {
+    }
+
+    /**
+     * Test of reserve method, of class HostThrottle.
+     */
+    @Test
+    public void testReserve() {
+        System.out.println("reserve");
+
+        HostThrottle throttle = new HostThrottle(2.0, 2);
+
+        assertEquals(0L, throttle.reserve("a", 0L));
+        assertEquals(0L, throttle.reserve("a", 0L));
+        assertEquals(SEC / 2, throttle.reserve("a", 0L));
+        assertEquals(SEC, throttle.reserve("a", 0L));
+
+        assertEquals(0L, throttle.reserve("b", 0L));
+
+        assertEquals(SEC / 2, throttle.reserve("a", SEC));
+        assertEquals(0L, throttle.reserve("b", 10 * SEC));
+        assertEquals(0L, throttle.reserve("b", 10 * SEC));
+        assertEquals(SEC / 2, throttle.reserve("b", 10 * SEC));
+
+        return;
+    }
+
+    /**
+     * Test of constructor, of class HostThrottle.
+     */
+    @Test
+    public void testConstructor() {
+        System.out.println("constructor");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new HostThrottle(0.0, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HostThrottle(Double.NaN, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HostThrottle(1.0, 0));
+
+        return;
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class HttpFetcherTest {
+
+    public HttpFetcherTest() {
+    }
+
+    private static byte[] readAll(InputStream istream) throws IOException {
+        RawPage page = RawPage.readPage(istream, 0L);
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        page.writeTo(bout);
+        return bout.toByteArray();
+    }
+
+    /**
+     * Test of decodeContent method, of class HttpFetcher.
+     */
+    @Test
+    public void testDecodeContent() throws IOException {
+        System.out.println("decodeContent");
+
+        byte[] plain = "<html>ABCABCABCABC</html>".getBytes("US-ASCII");
+        ByteArrayOutputStream bout;
+        InputStream istream;
+
+        istream = HttpFetcher.decodeContent(
+                new ByteArrayInputStream(plain), null);
+        assertArrayEquals(plain, readAll(istream));
+
+        istream = HttpFetcher.decodeContent(
+                new ByteArrayInputStream(plain), "identity");
+        assertArrayEquals(plain, readAll(istream));
+
+        bout = new ByteArrayOutputStream();
+        try(OutputStream ostream = new GZIPOutputStream(bout)){
+            ostream.write(plain);
+        }
+        istream = HttpFetcher.decodeContent(
+                new ByteArrayInputStream(bout.toByteArray()), "gzip");
+        assertArrayEquals(plain, readAll(istream));
+
+        bout = new ByteArrayOutputStream();
+        try(OutputStream ostream = new DeflaterOutputStream(bout)){
+            ostream.write(plain);
+        }
+        istream = HttpFetcher.decodeContent(
+                new ByteArrayInputStream(bout.toByteArray()), "Deflate");
+        assertArrayEquals(plain, readAll(istream));
+
+        bout = new ByteArrayOutputStream();
+        Deflater rawDeflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try(OutputStream ostream = new DeflaterOutputStream(bout, rawDeflater)){
+            ostream.write(plain);
+        }
+        rawDeflater.end();
+        istream = HttpFetcher.decodeContent(
+                new ByteArrayInputStream(bout.toByteArray()), "deflate");
+        assertArrayEquals(plain, readAll(istream));
+
+        istream = HttpFetcher.decodeContent(
+                new ByteArrayInputStream(new byte[0]), "deflate");
+        try{
+            readAll(istream);
+            fail();
+        }catch(IOException e){
+            // NOTHING
+        }
+
+        try{
+            HttpFetcher.decodeContent(
+                    new ByteArrayInputStream(plain), "br");
+            fail();
+        }catch(IOException e){
+            assertEquals("未対応のContent-Encodingです。 br", e.getMessage());
+        }
+
+        return;
+    }
+
+    /**
+     * Test of isZlibHeader method, of class HttpFetcher.
+     */
+    @Test
+    public void testIsZlibHeader() throws IOException {
+        System.out.println("isZlibHeader");
+
+        for(int level = Deflater.NO_COMPRESSION;
+                level <= Deflater.BEST_COMPRESSION;
+                level++){
+            ByteArrayOutputStream bout = new ByteArrayOutputStream();
+            Deflater deflater = new Deflater(level);
+            try(OutputStream ostream =
+                    new DeflaterOutputStream(bout, deflater)){
+                ostream.write(0x41);
+            }
+            deflater.end();
+            byte[] zlib = bout.toByteArray();
+            assertTrue(HttpFetcher.isZlibHeader(zlib[0], zlib[1]));
+        }
+
+        assertFalse(HttpFetcher.isZlibHeader((byte) 0x78, (byte) 0x9d));
+        assertFalse(HttpFetcher.isZlibHeader((byte) 0x79, (byte) 0x9c));
+        assertFalse(HttpFetcher.isZlibHeader((byte) 0x3c, (byte) 0x68));
+
+        return;
+    }
+
+    /**
+     * Test of readPage method with size hint, of class RawPage.
+     */
+    @Test
+    public void testReadPageSizeHint() throws IOException {
+        System.out.println("readPageSizeHint");
+
+        byte[] plain = new byte[20000];
+        for(int idx = 0; idx < plain.length; idx++){
+            plain[idx] = (byte) idx;
+        }
+
+        int[] hints = {-1, 0, 1, 19999, 20000, 20001, 100000};
+        for(int hint : hints){
+            RawPage page = RawPage.readPage(
+                    new ByteArrayInputStream(plain), hint, 0L, null, null);
+            assertEquals(plain.length, page.getLength());
+            ByteArrayOutputStream bout = new ByteArrayOutputStream();
+            page.writeTo(bout);
+            assertArrayEquals(plain, bout.toByteArray());
+        }
+
+        assertEquals(-1, HttpFetcher.toSizeHint(-1L));
+        assertEquals(1234, HttpFetcher.toSizeHint(1234L));
+        assertEquals(-1, HttpFetcher.toSizeHint(1L << 40));
+
+        return;
+    }
+
+}
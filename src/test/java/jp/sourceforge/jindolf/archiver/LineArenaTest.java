@@ -0,0 +1,114 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.StringWriter;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ */
+public class LineArenaTest {
+
+    public LineArenaTest() {
+    }
+
+    private static DecodedContent errorLine() {
+        DecodedContent content = new DecodedContent();
+        content.append(" ab");
+        content.addDecodeError((byte) 0x87, (byte) 0x40);
+        content.append("c ");
+        content.addDecodeError((byte) 0xff);
+        content.append("d");
+        return content;
+    }
+
+    /**
+     * Test of addLine method, of class LineArena.
+     */
+    @Test
+    public void testAddLine() {
+        System.out.println("addLine");
+
+        LineArena arena = new LineArena(1, 1);
+
+        int id0 = arena.addLine(new DecodedContent("abc"));
+        int id1 = arena.addLine(errorLine());
+        int id2 = arena.addLine(new DecodedContent(""));
+        arena.trimToSize();
+
+        assertEquals(0, id0);
+        assertEquals(1, id1);
+        assertEquals(2, id2);
+        assertEquals(3, arena.getLineNum());
+
+        assertEquals("abc", arena.getLine(id0).toString());
+        assertEquals(" ab?c ?d", arena.getLine(id1).toString());
+        assertEquals("", arena.getLine(id2).toString());
+        assertEquals("b?", arena.getLine(id1).subSequence(2, 4).toString());
+
+        assertEquals(0, arena.getErrorFrom(id0));
+        assertEquals(0, arena.getErrorTo(id0));
+        assertEquals(0, arena.getErrorFrom(id1));
+        assertEquals(2, arena.getErrorTo(id1));
+        assertEquals(2, arena.getErrorFrom(id2));
+        assertEquals(2, arena.getErrorTo(id2));
+
+        assertEquals(3 + 3, arena.getErrorPos(0));
+        assertTrue(arena.hasErrorByte2nd(0));
+        assertEquals((byte) 0x87, arena.getErrorByte1st(0));
+        assertEquals((byte) 0x40, arena.getErrorByte2nd(0));
+        assertFalse(arena.hasErrorByte2nd(1));
+        assertEquals((byte) 0xff, arena.getErrorByte1st(1));
+
+        LineArena other = new LineArena();
+        int copied = other.addLine(arena, id1);
+        assertEquals(" ab?c ?d", other.getLine(copied).toString());
+        assertEquals(2, other.getErrorTo(copied));
+        assertEquals(3, other.getErrorPos(0));
+
+        try{
+            arena.getLine(3);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            // GOOD
+        }
+
+        return;
+    }
+
+    /**
+     * Test of dumpArenaLine method, of class XmlOut.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testDumpArenaLine() throws Exception {
+        System.out.println("dumpArenaLine");
+
+        DecodedContent content = errorLine();
+
+        StringWriter expected = new StringWriter();
+        XmlOut xmlOut = new XmlOut(expected);
+        xmlOut.dumpDecodedContent(content);
+        xmlOut.close();
+
+        LineArena arena = new LineArena();
+        arena.addLine(new DecodedContent("x"));
+        int lineId = arena.addLine(content);
+
+        StringWriter actual = new StringWriter();
+        xmlOut = new XmlOut(actual);
+        xmlOut.dumpArenaLine(arena, lineId);
+        xmlOut.close();
+
+        assertEquals(expected.toString(), actual.toString());
+        assertTrue(actual.toString().contains("hexBin=\"8740\""));
+
+        return;
+    }
+
+}
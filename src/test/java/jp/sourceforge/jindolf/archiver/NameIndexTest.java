@@ -0,0 +1,67 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ */
+public class NameIndexTest {
+
+    public NameIndexTest() {
+    }
+
+    /**
+     * Test of hashOf method, of class NameIndex.
+     */
+    @Test
+    public void testHashOf() {
+        System.out.println("hashOf");
+
+        String[] texts = {"", "a", "パン屋 オットー", "楽天家 ゲルト"};
+        for(String text : texts){
+            assertEquals(text.hashCode(), NameIndex.hashOf(text));
+            assertEquals(text.hashCode(),
+                         NameIndex.hashOf(new StringBuilder(text)));
+        }
+
+        return;
+    }
+
+    /**
+     * Test of get method, of class NameIndex.
+     */
+    @Test
+    public void testGet() {
+        System.out.println("get");
+
+        NameIndex<Integer> index = new NameIndex<>();
+
+        for(int ct = 0; ct < 1000; ct++){
+            assertTrue(index.putIfAbsent("name" + ct, ct));
+        }
+        assertFalse(index.putIfAbsent("name5", -1));
+        assertEquals(1000, index.size());
+
+        for(int ct = 0; ct < 1000; ct++){
+            StringBuilder seq = new StringBuilder("name").append(ct);
+            assertEquals(Integer.valueOf(ct), index.get(seq));
+        }
+        assertNull(index.get("name1000"));
+        assertNull(index.get(""));
+
+        try{
+            index.putIfAbsent(null, 1);
+            fail();
+        }catch(NullPointerException e){
+            // GOOD
+        }
+
+        return;
+    }
+
+}
@@ -29,7 +29,7 @@ public void testValues() {
         OptArg[] values;
         values = OptArg.values();
 
-        assertEquals(5, values.length);
+        assertEquals(18, values.length);
 
         int pos;
         pos = 0;
@@ -38,6 +38,19 @@ public void testValues() {
         assertEquals(OptArg.OPT_VID,    values[pos++]);
         assertEquals(OptArg.OPT_OUTDIR, values[pos++]);
         assertEquals(OptArg.OPT_STDOUT, values[pos++]);
+        assertEquals(OptArg.OPT_FETCHTHREADS, values[pos++]);
+        assertEquals(OptArg.OPT_VERBOSE, values[pos++]);
+        assertEquals(OptArg.OPT_CACHE, values[pos++]);
+        assertEquals(OptArg.OPT_MIRROR, values[pos++]);
+        assertEquals(OptArg.OPT_VIDFILE, values[pos++]);
+        assertEquals(OptArg.OPT_JOBS, values[pos++]);
+        assertEquals(OptArg.OPT_LANDCONNS, values[pos++]);
+        assertEquals(OptArg.OPT_RETRY, values[pos++]);
+        assertEquals(OptArg.OPT_RATE, values[pos++]);
+        assertEquals(OptArg.OPT_WORKDIR, values[pos++]);
+        assertEquals(OptArg.OPT_WATCH, values[pos++]);
+        assertEquals(OptArg.OPT_LOWMEM, values[pos++]);
+        assertEquals(OptArg.OPT_VALIDATE, values[pos++]);
 
         return;
     }
@@ -105,6 +118,58 @@ public void testParseOptArg() {
         optArg = OptArg.parseOptArg(arg);
         assertEquals(OptArg.OPT_STDOUT, optArg);
 
+        arg = "-fetch-threads";
+        optArg = OptArg.parseOptArg(arg);
+        assertEquals(OptArg.OPT_FETCHTHREADS, optArg);
+
+        arg = "-verbose";
+        optArg = OptArg.parseOptArg(arg);
+        assertEquals(OptArg.OPT_VERBOSE, optArg);
+
+        arg = "-cache";
+        optArg = OptArg.parseOptArg(arg);
+        assertEquals(OptArg.OPT_CACHE, optArg);
+
+        arg = "-mirror";
+        optArg = OptArg.parseOptArg(arg);
+        assertEquals(OptArg.OPT_MIRROR, optArg);
+
+        arg = "-vidfile";
+        optArg = OptArg.parseOptArg(arg);
+        assertEquals(OptArg.OPT_VIDFILE, optArg);
+
+        arg = "-jobs";
+        optArg = OptArg.parseOptArg(arg);
+        assertEquals(OptArg.OPT_JOBS, optArg);
+
+        arg = "-land-conns";
+        optArg = OptArg.parseOptArg(arg);
+        assertEquals(OptArg.OPT_LANDCONNS, optArg);
+
+        arg = "-retry";
+        optArg = OptArg.parseOptArg(arg);
+        assertEquals(OptArg.OPT_RETRY, optArg);
+
+        arg = "-rate";
+        optArg = OptArg.parseOptArg(arg);
+        assertEquals(OptArg.OPT_RATE, optArg);
+
+        arg = "-workdir";
+        optArg = OptArg.parseOptArg(arg);
+        assertEquals(OptArg.OPT_WORKDIR, optArg);
+
+        arg = "-watch";
+        optArg = OptArg.parseOptArg(arg);
+        assertEquals(OptArg.OPT_WATCH, optArg);
+
+        arg = "-lowmem";
+        optArg = OptArg.parseOptArg(arg);
+        assertEquals(OptArg.OPT_LOWMEM, optArg);
+
+        arg = "-validate";
+        optArg = OptArg.parseOptArg(arg);
+        assertEquals(OptArg.OPT_VALIDATE, optArg);
+
         return;
     }
 
@@ -122,10 +187,26 @@ public void testGetHelpMessage() {
           " 人狼BBS アーカイブ作成ツール\n\n"
         + "-h, -help, -?\n\tヘルプメッセージ\n"
         + "-land 国識別子\n"
-        + "-vid 村番号\n"
+        + "-vid 村番号\n\t1000-1999,2005 のように範囲やカンマ区切りも可\n"
         + "-outdir 出力ディレクトリ\n"
-        + "-stdout\n\t標準出力へ出力\n\n"
-        + "※ -outdir と -stdout は排他指定\n\n"
+        + "-stdout\n\t標準出力へ出力\n"
+        + "-fetch-threads スレッド数\n\t並行ダウンロード数(デフォルト1)\n"
+        + "-verbose\n\t処理統計を標準エラー出力へ出力\n"
+        + "-cache ディレクトリ\n\tダウンロード済みページのキャッシュ先\n"
+        + "-mirror ディレクトリ\n\t保存済みページのミラーから読み込む\n"
+        + "-vidfile ファイル\n\t村番号一覧ファイル\n"
+        + "-jobs 村数\n\t並行して処理する村の数(デフォルト1)\n"
+        + "-land-conns 接続数\n\t国ごとの同時接続数の上限(デフォルト無制限)\n"
+        + "-retry 回数\n\t通信やパースに失敗した際の再試行回数(デフォルト3)\n"
+        + "-rate 回数\n\tホストごとの毎秒リクエスト数の上限(デフォルト無制限)\n"
+        + "-workdir ディレクトリ\n\t中断した村を再開するための作業ディレクトリ\n"
+        + "-watch 秒\n\t進行中の村を指定間隔で監視し、変化があれば出力し直す\n"
+        + "-lowmem\n\t日ごとに一時ファイルへ書き出し、メモリ使用量を抑える\n"
+        + "-validate full|fast\n\tXML検証方式。"
+        + "fast なら出力しながらスキーマ検証(デフォルトfull)\n"
+        + "\t-lowmem 併用時の fast は村モデルの構造検査のみ\n\n"
+        + "※ -outdir と -stdout は排他指定\n"
+        + "※ 複数の村を指定する場合は -outdir が必要\n\n"
         + "利用可能な国識別子は ";
 
         String expResult;
@@ -173,6 +254,58 @@ public void testGetArgList() {
         assertEquals(1, result.size());
         assertTrue(result.contains("-outdir"));
 
+        result = OptArg.OPT_FETCHTHREADS.getArgList();
+        assertEquals(1, result.size());
+        assertTrue(result.contains("-fetch-threads"));
+
+        result = OptArg.OPT_VERBOSE.getArgList();
+        assertEquals(1, result.size());
+        assertTrue(result.contains("-verbose"));
+
+        result = OptArg.OPT_CACHE.getArgList();
+        assertEquals(1, result.size());
+        assertTrue(result.contains("-cache"));
+
+        result = OptArg.OPT_MIRROR.getArgList();
+        assertEquals(1, result.size());
+        assertTrue(result.contains("-mirror"));
+
+        result = OptArg.OPT_VIDFILE.getArgList();
+        assertEquals(1, result.size());
+        assertTrue(result.contains("-vidfile"));
+
+        result = OptArg.OPT_JOBS.getArgList();
+        assertEquals(1, result.size());
+        assertTrue(result.contains("-jobs"));
+
+        result = OptArg.OPT_LANDCONNS.getArgList();
+        assertEquals(1, result.size());
+        assertTrue(result.contains("-land-conns"));
+
+        result = OptArg.OPT_RETRY.getArgList();
+        assertEquals(1, result.size());
+        assertTrue(result.contains("-retry"));
+
+        result = OptArg.OPT_RATE.getArgList();
+        assertEquals(1, result.size());
+        assertTrue(result.contains("-rate"));
+
+        result = OptArg.OPT_WORKDIR.getArgList();
+        assertEquals(1, result.size());
+        assertTrue(result.contains("-workdir"));
+
+        result = OptArg.OPT_WATCH.getArgList();
+        assertEquals(1, result.size());
+        assertTrue(result.contains("-watch"));
+
+        result = OptArg.OPT_LOWMEM.getArgList();
+        assertEquals(1, result.size());
+        assertTrue(result.contains("-lowmem"));
+
+        result = OptArg.OPT_VALIDATE.getArgList();
+        assertEquals(1, result.size());
+        assertTrue(result.contains("-validate"));
+
         return;
     }
 
@@ -152,6 +152,154 @@ public void testParseOptInfo() {
         assertNull(result.getErrMsg());
         assertEquals("/var/tmp", result.getOutdir());
 
+        argList = Arrays.asList("-land", "wolfg", "-vid", "999", "-outdir", "/tmp");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals(1, result.getFetchThreads());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "999", "-outdir", "/tmp", "-fetch-threads", "4");
+        result = OptInfo.parseOptInfo(argList);
+        assertNull(result.getErrMsg());
+        assertEquals(4, result.getFetchThreads());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "999", "-outdir", "/tmp", "-fetch-threads", "0");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals("不正なスレッド数です。 0", result.getErrMsg());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "999", "-outdir", "/tmp", "-fetch-threads", "X");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals("不正なスレッド数です。 X", result.getErrMsg());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "999", "-outdir", "/tmp");
+        result = OptInfo.parseOptInfo(argList);
+        assertFalse(result.isVerbose());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "999", "-outdir", "/tmp", "-verbose");
+        result = OptInfo.parseOptInfo(argList);
+        assertNull(result.getErrMsg());
+        assertTrue(result.isVerbose());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "999", "-outdir", "/tmp");
+        result = OptInfo.parseOptInfo(argList);
+        assertNull(result.getCacheDir());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "999", "-outdir", "/tmp", "-cache", "/tmp/cache");
+        result = OptInfo.parseOptInfo(argList);
+        assertNull(result.getErrMsg());
+        assertEquals("/tmp/cache", result.getCacheDir());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "999", "-outdir", "/tmp", "-mirror", "/tmp/mirror");
+        result = OptInfo.parseOptInfo(argList);
+        assertNull(result.getErrMsg());
+        assertEquals("/tmp/mirror", result.getMirrorDir());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "999", "-outdir", "/tmp", "-mirror", "/tmp/mirror", "-cache", "/tmp/cache");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals("-mirror と -cache は同時に指定できません。", result.getErrMsg());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "10-12,5,11", "-outdir", "/tmp");
+        result = OptInfo.parseOptInfo(argList);
+        assertNull(result.getErrMsg());
+        assertEquals(10, result.getVid());
+        assertEquals(Arrays.asList(10, 11, 12, 5), result.getVidList());
+        assertTrue(result.isMultiVillage());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "10-12", "-stdout");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals("複数の村を出力するには -outdir を指定してください。", result.getErrMsg());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "12-10", "-outdir", "/tmp");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals("不正な村番号です。 12-10", result.getErrMsg());
+
+        argList = Arrays.asList("-land", "wolfg", "-vidfile", "/tmp/vids.txt", "-outdir", "/tmp");
+        result = OptInfo.parseOptInfo(argList);
+        assertNull(result.getErrMsg());
+        assertEquals(-1, result.getVid());
+        assertEquals("/tmp/vids.txt", result.getVidFile());
+        assertTrue(result.isMultiVillage());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1-9", "-outdir", "/tmp");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals(1, result.getJobs());
+        assertEquals(LandLimits.UNLIMITED, result.getLandConns());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1-9", "-outdir", "/tmp", "-jobs", "3", "-land-conns", "2");
+        result = OptInfo.parseOptInfo(argList);
+        assertNull(result.getErrMsg());
+        assertEquals(3, result.getJobs());
+        assertEquals(2, result.getLandConns());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1-9", "-outdir", "/tmp", "-jobs", "0");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals("不正な並行数です。 0", result.getErrMsg());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1-9", "-outdir", "/tmp", "-land-conns", "X");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals("不正な並行数です。 X", result.getErrMsg());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals(RetryPolicy.DEFAULT_RETRIES, result.getRetries());
+        assertEquals(0.0, result.getRequestRate());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1", "-stdout", "-retry", "0", "-rate", "0.5");
+        result = OptInfo.parseOptInfo(argList);
+        assertNull(result.getErrMsg());
+        assertEquals(0, result.getRetries());
+        assertEquals(0.5, result.getRequestRate());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1", "-retry", "-1");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals("不正な再試行回数です。 -1", result.getErrMsg());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1", "-rate", "0");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals("不正なリクエスト頻度です。 0", result.getErrMsg());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1", "-outdir", "/tmp", "-watch", "300");
+        result = OptInfo.parseOptInfo(argList);
+        assertNull(result.getErrMsg());
+        assertEquals(300, result.getWatchSec());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1", "-stdout", "-watch", "300");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals("-watch には一つの村と -outdir を指定してください。", result.getErrMsg());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1-2", "-outdir", "/tmp", "-watch", "300");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals("-watch には一つの村と -outdir を指定してください。", result.getErrMsg());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1", "-outdir", "/tmp", "-lowmem");
+        result = OptInfo.parseOptInfo(argList);
+        assertNull(result.getErrMsg());
+        assertTrue(result.isLowMem());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1", "-stdout", "-lowmem");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals("-lowmem には -outdir を指定してください。-watch とは同時に指定できません。", result.getErrMsg());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1", "-outdir", "/tmp", "-watch", "300", "-lowmem");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals("-lowmem には -outdir を指定してください。-watch とは同時に指定できません。", result.getErrMsg());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1", "-stdout");
+        result = OptInfo.parseOptInfo(argList);
+        assertFalse(result.isFastValidate());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1", "-stdout", "-validate", "fast");
+        result = OptInfo.parseOptInfo(argList);
+        assertNull(result.getErrMsg());
+        assertTrue(result.isFastValidate());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1", "-stdout", "-validate", "fast", "-validate", "full");
+        result = OptInfo.parseOptInfo(argList);
+        assertNull(result.getErrMsg());
+        assertFalse(result.isFastValidate());
+
+        argList = Arrays.asList("-land", "wolfg", "-vid", "1", "-stdout", "-validate", "none");
+        result = OptInfo.parseOptInfo(argList);
+        assertEquals("不正なXML検証方式です。 none", result.getErrMsg());
+
         return;
     }
 
@@ -0,0 +1,88 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class PageCacheTest {
+
+    private static final String URL1 =
+            "http://example.com/wolf.cgi?vid=1&meslog=000_ready";
+    private static final String URL2 =
+            "http://example.com/wolf.cgi?vid=1&meslog=000_progress";
+
+    @TempDir
+    Path tempDir;
+
+    public PageCacheTest() {
+    }
+
+    /**
+     * Test of load and store method, of class PageCache.
+     */
+    @Test
+    public void testStoreLoad() throws IOException {
+        System.out.println("store/load");
+
+        PageCache cache = new PageCache(tempDir.resolve("cache"));
+
+        assertNull(cache.load(URL1));
+
+        byte[] body = {(byte)0x41, (byte)0x82, (byte)0xa0};
+        RawPage page = new RawPage(body, 1234L, "\"abc\"", null);
+        cache.store(URL1, page);
+
+        RawPage result = cache.load(URL1);
+        assertNotNull(result);
+        assertEquals(3, result.getLength());
+        assertEquals(1234L, result.getDateMs());
+        assertEquals("\"abc\"", result.getEtag());
+        assertNull(result.getLastModified());
+
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        result.writeTo(bout);
+        assertArrayEquals(body, bout.toByteArray());
+
+        assertNull(cache.load(URL2));
+
+        return;
+    }
+
+    /**
+     * Test of markComplete method, of class PageCache.
+     */
+    @Test
+    public void testMarkComplete() throws IOException {
+        System.out.println("markComplete");
+
+        PageCache cache = new PageCache(tempDir);
+
+        cache.markComplete(URL1);
+        assertFalse(cache.isComplete(URL1));
+
+        cache.store(URL1, new RawPage(new byte[0], 0L));
+        assertFalse(cache.isComplete(URL1));
+
+        cache.markComplete(URL1);
+        assertTrue(cache.isComplete(URL1));
+        assertFalse(cache.isComplete(URL2));
+
+        cache.store(URL1, new RawPage(new byte[0], 0L));
+        assertFalse(cache.isComplete(URL1));
+
+        return;
+    }
+
+}
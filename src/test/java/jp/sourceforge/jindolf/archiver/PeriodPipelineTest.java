@@ -0,0 +1,232 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class PeriodPipelineTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static final byte[] PAGE =
+            "<html><body></body></html>".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path tempDir;
+
+    public PeriodPipelineTest() {
+    }
+
+    /**
+     * 固定のページを返すURLハンドラ。
+     */
+    private static class PageHandler extends URLStreamHandler {
+        private int opened = 0;
+
+        @Override
+        protected synchronized URLConnection openConnection(URL u){
+            this.opened++;
+            return new URLConnection(u){
+                @Override
+                public void connect(){
+                }
+
+                @Override
+                public InputStream getInputStream(){
+                    return new ByteArrayInputStream(PAGE);
+                }
+            };
+        }
+
+        synchronized int getOpened(){
+            return this.opened;
+        }
+    }
+
+    /**
+     * 取得回数を数えるMemoryFetcher。
+     */
+    private static class CountFetcher extends MemoryFetcher {
+        private final Map<String, Integer> countMap =
+                new ConcurrentHashMap<>();
+
+        @Override
+        public RawPage fetch(URL url) throws IOException {
+            this.countMap.merge(url.toString(), 1, Integer::sum);
+            return super.fetch(url);
+        }
+
+        int getCount(String urlText){
+            return this.countMap.getOrDefault(urlText, 0);
+        }
+    }
+
+    /**
+     * 接続時に例外を投げるURLハンドラ。
+     */
+    private static class FailHandler extends URLStreamHandler {
+        private final Throwable cause;
+
+        FailHandler(Throwable cause){
+            this.cause = cause;
+        }
+
+        @Override
+        protected URLConnection openConnection(URL u) throws IOException {
+            if(this.cause instanceof IOException){
+                throw (IOException) this.cause;
+            }
+            throw (Error) this.cause;
+        }
+    }
+
+    private static class StageError extends Error {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Test of fillVillageData method, of class PeriodPipeline.
+     * ダウンロードがErrorで失敗しても後段が待ち続けないこと。
+     */
+    @Test
+    public void testFillVillageDataError() throws Exception {
+        System.out.println("fillVillageData:Error");
+
+        StageError error = new StageError();
+        VillageData village = new VillageData(
+                TestVillages.createResourceList(3, new FailHandler(error)));
+        PeriodPipeline pipeline = new PeriodPipeline(2);
+
+        StageError thrown = assertTimeoutPreemptively(TIMEOUT, () ->
+            assertThrows(StageError.class, () -> {
+                pipeline.fillVillageData(village);
+            })
+        );
+        assertSame(error, thrown);
+    }
+
+    /**
+     * Test of fillVillageData method, of class PeriodPipeline.
+     * 割り込み以外のInterruptedIOExceptionも後段へ伝わること。
+     */
+    @Test
+    public void testFillVillageDataTimeout() throws Exception {
+        System.out.println("fillVillageData:timeout");
+
+        SocketTimeoutException timeout = new SocketTimeoutException();
+        VillageData village = new VillageData(
+                TestVillages.createResourceList(3, new FailHandler(timeout)));
+        PeriodPipeline pipeline = new PeriodPipeline(2);
+
+        IOException thrown = assertTimeoutPreemptively(TIMEOUT, () ->
+            assertThrows(IOException.class, () -> {
+                pipeline.fillVillageData(village);
+            })
+        );
+        assertSame(timeout, thrown);
+    }
+
+    /**
+     * Test of fillVillageData method, of class PeriodPipeline.
+     * ページキャッシュを介して全Periodがパースされること。
+     */
+    @Test
+    public void testFillVillageDataCache() throws Exception {
+        System.out.println("fillVillageData:cache");
+
+        PageCache cache = new PageCache(tempDir);
+
+        PageHandler handler = new PageHandler();
+        VillageData village = new VillageData(
+                TestVillages.createResourceList(3, handler));
+        HttpFetcher fetcher = new HttpFetcher(cache);
+        new PeriodPipeline(2, fetcher).fillVillageData(village);
+
+        assertEquals(3, handler.getOpened());
+        for(int day = 0; day < 3; day++){
+            assertNotNull(cache.load("test:" + day));
+            cache.markComplete("test:" + day);
+        }
+
+        IOException error = new IOException();
+        village = new VillageData(
+                TestVillages.createResourceList(3, new FailHandler(error)));
+        new PeriodPipeline(2, fetcher).fillVillageData(village);
+    }
+
+    /**
+     * Test of fillVillageData method, of class PeriodPipeline.
+     * メモリ上のページから村の全Periodがロードされること。
+     */
+    @Test
+    public void testFillVillageDataMemory() throws Exception {
+        System.out.println("fillVillageData:memory");
+
+        CountFetcher fetcher = new CountFetcher();
+        for(int day = 0; day < 3; day++){
+            fetcher.putPage(TestVillages.origUrlText(day), PAGE);
+        }
+
+        VillageData village = new VillageData(TestVillages.createResourceList(3));
+        PeriodPipeline pipeline = new PeriodPipeline(2, fetcher);
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            pipeline.fillVillageData(village);
+        });
+
+        for(int day = 0; day < 3; day++){
+            assertEquals(1, fetcher.getCount(TestVillages.origUrlText(day)));
+        }
+        List<StageCounter> counters = pipeline.getStageCounters();
+        StageCounter parseCounter = counters.get(counters.size() - 1);
+        assertEquals(3, parseCounter.getItems());
+
+        return;
+    }
+
+    /**
+     * Test of fillVillageData method, of class PeriodPipeline.
+     * 取得できないページがあれば村のロードが失敗すること。
+     */
+    @Test
+    public void testFillVillageDataMissing() throws Exception {
+        System.out.println("fillVillageData:missing");
+
+        CountFetcher fetcher = new CountFetcher();
+        fetcher.putPage(TestVillages.origUrlText(0), PAGE);
+        fetcher.putPage(TestVillages.origUrlText(2), PAGE);
+
+        VillageData village = new VillageData(TestVillages.createResourceList(3));
+        PeriodPipeline pipeline = new PeriodPipeline(1, fetcher);
+        assertTimeoutPreemptively(TIMEOUT, () ->
+            assertThrows(FileNotFoundException.class, () -> {
+                pipeline.fillVillageData(village);
+            })
+        );
+
+        return;
+    }
+
+}
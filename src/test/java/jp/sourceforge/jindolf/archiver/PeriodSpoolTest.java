@@ -0,0 +1,159 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+import jp.sourceforge.jindolf.corelib.DisclosureType;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class PeriodSpoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    public PeriodSpoolTest() {
+    }
+
+    /**
+     * Test of write and transferTo method, of class PeriodSpool.
+     */
+    @Test
+    public void testTransferTo() throws IOException {
+        System.out.println("transferTo");
+
+        DisclosureType complete = DisclosureType.COMPLETE;
+        DisclosureType uncomplete = DisclosureType.UNCOMPLETE;
+
+        VillageData expVillage = TestVillages.createVillage(complete, uncomplete, complete);
+        StringWriter expected = new StringWriter();
+        new XmlOut(expected).dumpVillageData(expVillage);
+
+        VillageData village = TestVillages.createVillage(complete, uncomplete, complete);
+        Charset cs = village.getLandDef().getEncoding();
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+
+        try(PeriodSpool spool = new PeriodSpool(tempDir, cs)){
+            village.setPeriodSpool(spool);
+            village.spoolPeriods();
+            assertTrue(village.getPeriodDataList().isEmpty());
+            assertEquals(uncomplete, spool.getDisclosureType());
+            assertEquals(uncomplete, village.getDisclosureType());
+
+            XmlOut xmlOut = new XmlOut(
+                    new OutputStreamWriter(bout, StandardCharsets.UTF_8));
+            xmlOut.dumpDocumentHead(village);
+            xmlOut.flush();
+            spool.transferTo(Channels.newChannel(bout));
+            xmlOut.dumpDocumentTail(village);
+        }
+
+        String result = new String(bout.toByteArray(), StandardCharsets.UTF_8);
+        assertEquals(expected.toString(), result);
+
+        try(Stream<Path> files = Files.list(tempDir)){
+            assertEquals(0L, files.count());
+        }
+
+        return;
+    }
+
+    /**
+     * 指定回数の書き込みを受け付けない出力先。
+     */
+    private static class StallChannel implements WritableByteChannel {
+
+        private final WritableByteChannel out;
+        private int stalls;
+
+        StallChannel(WritableByteChannel out, int stalls) {
+            super();
+            this.out = out;
+            this.stalls = stalls;
+            return;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if(stalls > 0){
+                stalls--;
+                return 0;
+            }
+            return out.write(src);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return out.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+            return;
+        }
+
+    }
+
+    /**
+     * Test of transferTo method, of class PeriodSpool.
+     * ファイル間転送が進まなくても複写を終えること。
+     */
+    @Test
+    public void testTransferToStall() throws IOException {
+        System.out.println("transferTo");
+
+        DisclosureType complete = DisclosureType.COMPLETE;
+
+        VillageData village = TestVillages.createVillage(complete, complete, complete);
+        Charset cs = village.getLandDef().getEncoding();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+
+        try(PeriodSpool spool = new PeriodSpool(tempDir, cs)){
+            village.setPeriodSpool(spool);
+            village.spoolPeriods();
+
+            long size = spool.transferTo(Channels.newChannel(expected));
+            assertTrue(size > 0L);
+
+            WritableByteChannel target =
+                    new StallChannel(Channels.newChannel(bout), 1);
+            long result = assertTimeoutPreemptively(
+                    Duration.ofSeconds(10L), () -> spool.transferTo(target));
+            assertEquals(size, result);
+
+            WritableByteChannel dead = new StallChannel(
+                    Channels.newChannel(new ByteArrayOutputStream()),
+                    Integer.MAX_VALUE);
+            assertTimeoutPreemptively(Duration.ofSeconds(10L), () -> {
+                assertThrows(IOException.class, () -> spool.transferTo(dead));
+            });
+        }
+
+        assertArrayEquals(expected.toByteArray(), bout.toByteArray());
+
+        return;
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class RetryFetcherTest {
+
+    public RetryFetcherTest() {
+    }
+
+    /**
+     * Test of fetch method, of class RetryFetcher.
+     */
+    @Test
+    public void testFetch() throws IOException {
+        System.out.println("fetch");
+
+        URL url = new URL("http://example.com/wolf.cgi?vid=1");
+        AtomicInteger calls = new AtomicInteger();
+        ResourceFetcher flaky = target -> {
+            if(calls.incrementAndGet() < 3) throw new IOException("reset");
+            return new RawPage(new byte[0], 0L);
+        };
+
+        RetryPolicy policy = new RetryPolicy(2, 0L, 0L);
+        RetryFetcher fetcher = new RetryFetcher(flaky, policy);
+        assertNotNull(fetcher.fetch(url));
+        assertEquals(3, calls.get());
+        assertEquals(2, policy.getRetryCount());
+
+        calls.set(0);
+        policy = new RetryPolicy(1, 0L, 0L);
+        RetryFetcher fetcher1 = new RetryFetcher(flaky, policy);
+        assertThrows(IOException.class, () -> fetcher1.fetch(url));
+        assertEquals(2, calls.get());
+
+        calls.set(0);
+        ResourceFetcher missing = target -> {
+            calls.incrementAndGet();
+            throw new FileNotFoundException();
+        };
+        RetryFetcher fetcher2 = new RetryFetcher(missing, policy);
+        assertThrows(FileNotFoundException.class, () -> fetcher2.fetch(url));
+        assertEquals(1, calls.get());
+
+        return;
+    }
+
+    /**
+     * Test of getCeilingMs method, of class RetryPolicy.
+     */
+    @Test
+    public void testCeiling() {
+        System.out.println("ceiling");
+
+        RetryPolicy policy = new RetryPolicy(10, 1000L, 5000L);
+        assertEquals(1000L, policy.getCeilingMs(0));
+        assertEquals(2000L, policy.getCeilingMs(1));
+        assertEquals(4000L, policy.getCeilingMs(2));
+        assertEquals(5000L, policy.getCeilingMs(3));
+        assertEquals(5000L, policy.getCeilingMs(100));
+
+        for(int ct = 0; ct < 100; ct++){
+            long backoff = policy.getBackoffMs(1);
+            assertTrue(0L <= backoff && backoff <= 2000L);
+        }
+
+        return;
+    }
+
+}
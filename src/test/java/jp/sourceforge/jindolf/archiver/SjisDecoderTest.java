@@ -0,0 +1,117 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import io.bitbucket.olyutorskii.jiocema.DecodeBreakException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import jp.osdn.jindolf.parser.content.ContentBuilderSJ;
+import jp.osdn.jindolf.parser.content.DecodeErrorInfo;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import jp.osdn.jindolf.parser.content.SjisNotifier;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class SjisDecoderTest {
+
+    public SjisDecoderTest() {
+    }
+
+    private static DecodedContent decodeOrig(byte[] bytes)
+            throws IOException, DecodeBreakException {
+        ContentBuilderSJ builder = new ContentBuilderSJ();
+        SjisNotifier decoder = new SjisNotifier();
+        decoder.setCharDecodeListener(builder);
+        decoder.decode(new ByteArrayInputStream(bytes));
+        return builder.getContent();
+    }
+
+    private static DecodedContent decodeTable(byte[] bytes)
+            throws IOException, DecodeBreakException {
+        ContentBuilderSJ builder = new ContentBuilderSJ();
+        SjisDecoder decoder = new SjisDecoder();
+        decoder.setCharDecodeListener(builder);
+        decoder.decode(new ByteArrayInputStream(bytes));
+        return builder.getContent();
+    }
+
+    private static void assertSameContent(byte[] bytes)
+            throws IOException, DecodeBreakException {
+        DecodedContent expected = decodeOrig(bytes);
+        DecodedContent result = decodeTable(bytes);
+
+        assertEquals(expected.toString(), result.toString());
+
+        List<DecodeErrorInfo> expErrs = expected.getDecodeErrorList();
+        List<DecodeErrorInfo> errs = result.getDecodeErrorList();
+        assertEquals(expErrs.size(), errs.size());
+        for(int idx = 0; idx < errs.size(); idx++){
+            DecodeErrorInfo expErr = expErrs.get(idx);
+            DecodeErrorInfo err = errs.get(idx);
+            assertEquals(expErr.getCharPosition(), err.getCharPosition());
+            assertEquals(expErr.has2nd(), err.has2nd());
+            assertEquals(expErr.getRawByte1st(), err.getRawByte1st());
+            if(err.has2nd()){
+                assertEquals(expErr.getRawByte2nd(), err.getRawByte2nd());
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * Test of decode method, of class SjisDecoder.
+     */
+    @Test
+    public void testAllPairs() throws Exception {
+        System.out.println("all pairs");
+
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        for(int b1 = 0; b1 < 0x100; b1++){
+            for(int b2 = 0; b2 < 0x100; b2++){
+                bout.write(b1);
+                bout.write(b2);
+                bout.write('A');
+            }
+        }
+        assertSameContent(bout.toByteArray());
+
+        for(int b1 = 0x80; b1 < 0x100; b1++){
+            assertSameContent(new byte[]{(byte) b1});
+            assertSameContent(new byte[]{'A', (byte) b1});
+        }
+
+        assertSameContent(new byte[0]);
+        assertSameContent("<html>人狼BBS</html>".getBytes("Shift_JIS"));
+
+        return;
+    }
+
+    /**
+     * Test of decode method, of class SjisDecoder.
+     */
+    @Test
+    public void testRandom() throws Exception {
+        System.out.println("random");
+
+        Random random = new Random(12345L);
+        for(int ct = 0; ct < 200; ct++){
+            byte[] bytes = new byte[random.nextInt(2000)];
+            random.nextBytes(bytes);
+            assertSameContent(bytes);
+        }
+
+        return;
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class SnifWriterTest {
+
+    public SnifWriterTest() {
+    }
+
+    private static String readAll(Reader reader) throws IOException{
+        StringBuilder result = new StringBuilder();
+        char[] buf = new char[1000];
+        try(Reader in = reader){
+            for(;;){
+                int len = in.read(buf, 0, buf.length);
+                if(len < 0) break;
+                result.append(buf, 0, len);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Test of getSnifReader method, of class SnifWriter.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testGetSnifReader() throws Exception {
+        System.out.println("getSnifReader");
+
+        Random rnd = new Random(1L);
+        StringBuilder text = new StringBuilder();
+        for(int ct = 0; ct < 100000; ct++){
+            text.append((char) ('A' + rnd.nextInt(26)));
+        }
+        String str = text.toString();
+
+        StringWriter fout = new StringWriter();
+        SnifWriter writer = new SnifWriter(fout);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try{
+            Future<String> future =
+                    executor.submit(() -> readAll(writer.getSnifReader()));
+
+            int pos = 0;
+            while(pos < str.length()){
+                int len = Math.min(rnd.nextInt(20000), str.length() - pos);
+                switch(rnd.nextInt(4)){
+                case 0:
+                    writer.write(str, pos, len);
+                    break;
+                case 1:
+                    writer.write(str.toCharArray(), pos, len);
+                    break;
+                case 2:
+                    writer.flush();
+                    len = 0;
+                    break;
+                default:
+                    len = 1;
+                    writer.write(str.charAt(pos));
+                    break;
+                }
+                pos += len;
+            }
+            writer.close();
+
+            assertEquals(str, future.get());
+        }finally{
+            executor.shutdownNow();
+        }
+
+        assertEquals(str, fout.toString());
+
+        return;
+    }
+
+    /**
+     * Test of write method after snif reader closed, of class SnifWriter.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testReaderClosed() throws Exception {
+        System.out.println("readerClosed");
+
+        Writer writer = new SnifWriter(new StringWriter());
+        Reader reader = ((SnifWriter) writer).getSnifReader();
+
+        writer.write("abc");
+        writer.flush();
+        assertEquals('a', reader.read());
+        reader.close();
+
+        char[] buf = new char[100000];
+        assertThrows(IOException.class, () -> writer.write(buf));
+        assertThrows(IOException.class, () -> reader.read());
+
+        writer.close();
+
+        return;
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLStreamHandler;
+import java.util.ArrayList;
+import java.util.List;
+import jp.sourceforge.jindolf.corelib.DisclosureType;
+import jp.sourceforge.jindolf.corelib.LandDef;
+import jp.sourceforge.jindolf.corelib.PeriodType;
+
+
+/**
+ * テスト用の"wolfg"国の村1を生成する。
+ * 発言などのTopicは各テストで加える。
+ */
+final class TestVillages {
+
+    private static final String BASE = "http://example.com/wolf.cgi?vid=1&meslog=";
+
+    private TestVillages() {
+        assert false;
+        throw new AssertionError();
+    }
+
+    static String origUrlText(int day) {
+        return BASE + day;
+    }
+
+    private static PeriodType periodType(int day, int days) {
+        PeriodType type;
+        if(day == 0)             type = PeriodType.PROLOGUE;
+        else if(day == days - 1) type = PeriodType.EPILOGUE;
+        else                     type = PeriodType.PROGRESS;
+        return type;
+    }
+
+    /**
+     * ロード元URLを持たない日ページのロード元情報一覧を生成する。
+     */
+    static List<PeriodResource> createResourceList(int days) {
+        LandDef landDef = LandUtils.getLandDef("wolfg");
+        List<PeriodResource> result = new ArrayList<>();
+        for(int day = 0; day < days; day++){
+            result.add(new PeriodResource(landDef, 1, periodType(day, days),
+                                          day, origUrlText(day), 0L, null));
+        }
+        return result;
+    }
+
+    /**
+     * 日ごとに"test:日"のURLを持つロード元情報一覧を生成する。
+     */
+    static List<PeriodResource> createResourceList(int days,
+                                                   URLStreamHandler handler)
+            throws IOException {
+        LandDef landDef = LandUtils.getLandDef("wolfg");
+        List<PeriodResource> result = new ArrayList<>();
+        for(int day = 0; day < days; day++){
+            URL url = new URL(null, "test:" + day, handler);
+            result.add(new PeriodResource(landDef, 1, periodType(day, days),
+                                          day, origUrlText(day), 0L, url));
+        }
+        return result;
+    }
+
+    /**
+     * スキーマに適合する3日分の村を生成する。
+     */
+    static VillageData createVillage() {
+        return createVillage(3);
+    }
+
+    /**
+     * スキーマに適合する指定日数の村を生成する。
+     */
+    static VillageData createVillage(int days) {
+        List<PeriodResource> resList = createResourceList(days);
+
+        VillageData village = new VillageData(resList);
+        village.setFullName("村1");
+        village.setCommitHour(0);
+        village.setCommitMinute(0);
+        for(PeriodResource resource : resList){
+            PeriodData period = new PeriodData(village, resource);
+            period.setCommitMonth(1);
+            period.setCommitDay(resource.getDay() + 1);
+            period.setCommitHour(0);
+            period.setCommitMinute(0);
+            village.addPeriodData(period);
+        }
+
+        return village;
+    }
+
+    /**
+     * 日ごとの開示状況を指定して村を生成する。
+     */
+    static VillageData createVillage(DisclosureType... types) {
+        VillageData village = createVillage(types.length);
+        List<PeriodData> periodList = village.getPeriodDataList();
+        for(int idx = 0; idx < types.length; idx++){
+            periodList.get(idx).setDisclosureType(types[idx]);
+        }
+        return village;
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class Utf8ChannelWriterTest {
+
+    private static final char[] POOL = {
+        'A', 'z', '<', '\n', '\u00a5', '\u03b1', '\u203e', '\u4e9c',
+        '\ufffd', '\uffff', '\ud842', '\udfb7',
+    };
+
+    public Utf8ChannelWriterTest() {
+    }
+
+    private static void writeRandomly(Writer writer, String text, Random rnd)
+            throws IOException{
+        int pos = 0;
+        while(pos < text.length()){
+            int len = Math.min(rnd.nextInt(20), text.length() - pos);
+            switch(rnd.nextInt(3)){
+            case 0:
+                writer.write(text, pos, len);
+                break;
+            case 1:
+                writer.write(text.toCharArray(), pos, len);
+                break;
+            default:
+                len = 1;
+                writer.write(text.charAt(pos));
+                break;
+            }
+            pos += len;
+        }
+        return;
+    }
+
+    /**
+     * Test of write method, of class Utf8ChannelWriter.
+     * @throws IOException
+     */
+    @Test
+    public void testWrite() throws IOException {
+        System.out.println("write");
+
+        Random rnd = new Random(1L);
+
+        for(int ct = 0; ct < 200; ct++){
+            StringBuilder text = new StringBuilder();
+            int textLen = rnd.nextInt(300);
+            for(int idx = 0; idx < textLen; idx++){
+                text.append(POOL[rnd.nextInt(POOL.length)]);
+            }
+            String str = text.toString();
+
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            try(Writer writer =
+                    new OutputStreamWriter(expected, StandardCharsets.UTF_8)){
+                writer.write(str);
+            }
+
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            int bufSize = 4 + rnd.nextInt(16);
+            try(Writer writer = new Utf8ChannelWriter(
+                    Channels.newChannel(result), bufSize)){
+                writeRandomly(writer, str, rnd);
+            }
+
+            assertArrayEquals(expected.toByteArray(), result.toByteArray());
+        }
+
+        return;
+    }
+
+    /**
+     * Test of close method, of class Utf8ChannelWriter.
+     * @throws IOException
+     */
+    @Test
+    public void testClose() throws IOException {
+        System.out.println("close");
+
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        Writer writer = new Utf8ChannelWriter(Channels.newChannel(bout));
+        writer.write("A\ud842");
+        writer.flush();
+        assertArrayEquals(new byte[]{0x41}, bout.toByteArray());
+
+        writer.close();
+        writer.close();
+        assertArrayEquals(new byte[]{0x41, 0x3f}, bout.toByteArray());
+
+        assertThrows(IOException.class, () -> writer.write('B'));
+
+        return;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class VidSpecTest {
+
+    @TempDir
+    Path tempDir;
+
+    public VidSpecTest() {
+    }
+
+    /**
+     * Test of parse method, of class VidSpec.
+     */
+    @Test
+    public void testParse() {
+        System.out.println("parse");
+
+        List<Integer> result;
+
+        result = VidSpec.parse("999");
+        assertEquals(Arrays.asList(999), result);
+
+        result = VidSpec.parse("1-3");
+        assertEquals(Arrays.asList(1, 2, 3), result);
+
+        result = VidSpec.parse("7,1-3, 2 ,0");
+        assertEquals(Arrays.asList(7, 1, 2, 3, 0), result);
+
+        result = VidSpec.parse("5-5");
+        assertEquals(Arrays.asList(5), result);
+
+        assertNull(VidSpec.parse(""));
+        assertNull(VidSpec.parse("ZZZ"));
+        assertNull(VidSpec.parse("-1"));
+        assertNull(VidSpec.parse("3-1"));
+        assertNull(VidSpec.parse("1,,2"));
+        assertNull(VidSpec.parse("1-"));
+        assertNull(VidSpec.parse("0-" + VidSpec.MAX_VIDS));
+
+        result = VidSpec.parse("1-" + VidSpec.MAX_VIDS);
+        assertEquals(VidSpec.MAX_VIDS, result.size());
+
+        return;
+    }
+
+    /**
+     * Test of loadFile method, of class VidSpec.
+     */
+    @Test
+    public void testLoadFile() throws IOException {
+        System.out.println("loadFile");
+
+        Path file = tempDir.resolve("vids.txt");
+        List<String> lines = Arrays.asList(
+                "# comment",
+                "",
+                "100-102",
+                "  5 ",
+                "101,7");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+
+        List<Integer> result;
+
+        result = VidSpec.loadFile(file, Collections.emptyList());
+        assertEquals(Arrays.asList(100, 101, 102, 5, 7), result);
+
+        result = VidSpec.loadFile(file, Arrays.asList(7, 8));
+        assertEquals(Arrays.asList(7, 8, 100, 101, 102, 5), result);
+
+        Files.write(file, Arrays.asList("1", "X"), StandardCharsets.UTF_8);
+        IOException e = assertThrows(IOException.class,
+                () -> VidSpec.loadFile(file, Collections.emptyList()));
+        assertTrue(e.getMessage().endsWith("2行目: 不正な村番号です。 X"));
+
+        return;
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class VillageSchedulerTest {
+
+    public VillageSchedulerTest() {
+    }
+
+    /**
+     * Test of run method, of class VillageScheduler.
+     */
+    @Test
+    public void testRun() throws InterruptedException {
+        System.out.println("run");
+
+        VillageScheduler scheduler = new VillageScheduler(2);
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<Integer> vidList = Arrays.asList(5, 1, 4, 2, 3, 6);
+        Map<Integer, String> result =
+                scheduler.run(vidList, vid -> {
+            int now = running.incrementAndGet();
+            maxRunning.accumulateAndGet(now, Math::max);
+            try{
+                Thread.sleep(20);
+            }catch(InterruptedException e){
+                return "interrupted";
+            }finally{
+                running.decrementAndGet();
+            }
+            if(vid == 4) throw new IllegalStateException();
+            if(vid % 2 == 1) return "odd" + vid;
+            return null;
+        });
+
+        assertTrue(maxRunning.get() <= 2);
+        assertEquals(Arrays.asList(5, 1, 4, 3),
+                     Arrays.asList(result.keySet().toArray()));
+        assertEquals("odd5", result.get(5));
+        assertTrue(result.get(4).startsWith("java.lang.IllegalStateException"));
+
+        return;
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import jp.sourceforge.jindolf.corelib.DisclosureType;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class VillageWatcherTest {
+
+    public VillageWatcherTest() {
+    }
+
+    /**
+     * Test of countReusable method, of class VillageWatcher.
+     */
+    @Test
+    public void testCountReusable() {
+        System.out.println("countReusable");
+
+        DisclosureType complete = DisclosureType.COMPLETE;
+        DisclosureType uncomplete = DisclosureType.UNCOMPLETE;
+        DisclosureType hot = DisclosureType.HOT;
+
+        assertEquals(0, VillageWatcher.countReusable(
+                null, TestVillages.createResourceList(3)));
+
+        VillageData prev = TestVillages.createVillage(complete, uncomplete, hot);
+        assertEquals(2, VillageWatcher.countReusable(
+                prev, TestVillages.createResourceList(3)));
+        assertEquals(1, VillageWatcher.countReusable(
+                prev, TestVillages.createResourceList(4)));
+
+        prev = TestVillages.createVillage(complete, complete, complete);
+        assertEquals(3, VillageWatcher.countReusable(
+                prev, TestVillages.createResourceList(3)));
+        assertEquals(2, VillageWatcher.countReusable(
+                prev, TestVillages.createResourceList(2)));
+
+        return;
+    }
+
+    /**
+     * Test of inheritFrom method, of class VillageData.
+     */
+    @Test
+    public void testInheritFrom() {
+        System.out.println("inheritFrom");
+
+        VillageData prev = TestVillages.createVillage(DisclosureType.COMPLETE,
+                                         DisclosureType.COMPLETE,
+                                         DisclosureType.HOT);
+        prev.setFullName("A村");
+        AvatarData avatar = prev.getAvatarData("楽天家 ゲルト");
+
+        VillageData result = new VillageData(TestVillages.createResourceList(4));
+        result.inheritFrom(prev, 2);
+
+        assertEquals("A村", result.getFullName());
+        assertSame(avatar, result.getAvatarData("楽天家 ゲルト"));
+        assertEquals(2, result.getPeriodDataList().size());
+        assertSame(prev.getPeriodDataList().get(1),
+                   result.getPeriodDataList().get(1));
+
+        VillageData other = new VillageData(TestVillages.createResourceList(3));
+        assertThrows(IllegalArgumentException.class,
+                () -> other.inheritFrom(prev, 4));
+
+        return;
+    }
+
+}
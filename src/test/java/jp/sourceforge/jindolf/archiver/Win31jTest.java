@@ -0,0 +1,57 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class Win31jTest {
+
+    public Win31jTest() {
+    }
+
+    /**
+     * Test of getWin31jChar method, of class Win31j.
+     */
+    @Test
+    public void testGetWin31jChar() {
+        System.out.println("getWin31jChar");
+
+        CharsetDecoder decoder = Win31j.CS_WIN31J.newDecoder();
+        decoder.onMalformedInput(CodingErrorAction.REPORT);
+        decoder.onUnmappableCharacter(CodingErrorAction.REPORT);
+
+        for(int b1 = 0; b1 < 0x100; b1++){
+            for(int b2 = 0; b2 < 0x100; b2++){
+                ByteBuffer buf = ByteBuffer.wrap(
+                        new byte[]{(byte) b1, (byte) b2});
+                char expected;
+                try{
+                    expected = decoder.decode(buf).charAt(0);
+                }catch(CharacterCodingException e){
+                    expected = Win31j.REP_CHAR;
+                }
+                char result = Win31j.getWin31jChar((byte) b1, (byte) b2);
+                assertEquals(expected, result);
+            }
+        }
+
+        assertEquals('①', Win31j.getWin31jChar((byte)0x87, (byte)0x40));
+        assertEquals(Win31j.REP_CHAR,
+                     Win31j.getWin31jChar((byte)0x81, (byte)0x00));
+
+        return;
+    }
+
+}
@@ -3,10 +3,23 @@
 
 package jp.sourceforge.jindolf.archiver;
 
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.net.URI;
+import java.text.MessageFormat;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+import javax.xml.parsers.SAXParserFactory;
 import jp.osdn.jindolf.parser.content.DecodeErrorInfo;
 import jp.osdn.jindolf.parser.content.DecodedContent;
+import jp.sourceforge.jindolf.corelib.SysEventType;
+import jp.sourceforge.jindolf.corelib.TalkType;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
 
 import org.junit.jupiter.api.Test;
 
@@ -371,6 +384,24 @@ public void testCharDataOut() throws Exception {
         xmlOut.close();
         assertEquals("&#x20;&#x20;&#x20;B", writer.toString());
 
+        writer = new StringWriter();
+        xmlOut = new XmlOut(writer);
+        xmlOut.charDataOut("A\uffffB\t");
+        xmlOut.close();
+        assertEquals("A<rawdata encoding=\"Shift_JIS\" hexBin=\"ffff\" >\ufffd</rawdata>B&#x09;", writer.toString());
+
+        StringBuilder longText = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for(int ct = 0; ct < 100; ct++){
+            longText.append("亜 ~&");
+            expected.append("亜 \u203e&amp;");
+        }
+        writer = new StringWriter();
+        xmlOut = new XmlOut(writer);
+        xmlOut.charDataOut(longText);
+        xmlOut.close();
+        assertEquals(expected.toString(), writer.toString());
+
         return;
     }
 
@@ -493,6 +524,89 @@ public void testDateTimeAttr() throws Exception {
         xmlOut.close();
         assertEquals("A=\"2016-06-26T01:18:06.000+09:00\"", writer.toString());
 
+        String form = "A=\"{0,number,#0000}-{1,number,#00}-{2,number,#00}"
+                + "T{3,number,#00}:{4,number,#00}:{5,number,#00}"
+                + ".{6,number,#000}+09:00\"";
+        Calendar calendar = new GregorianCalendar(TimeZone.getTimeZone("Asia/Tokyo"));
+        Random rnd = new Random(1L);
+        for(int ct = 0; ct < 1000; ct++){
+            long epochMs = (rnd.nextLong() >>> 23) - (1L << 40);
+            calendar.setTimeInMillis(epochMs);
+            String expected = MessageFormat.format(form,
+                    calendar.get(Calendar.YEAR),
+                    calendar.get(Calendar.MONTH) + 1,
+                    calendar.get(Calendar.DATE),
+                    calendar.get(Calendar.HOUR_OF_DAY),
+                    calendar.get(Calendar.MINUTE),
+                    calendar.get(Calendar.SECOND),
+                    calendar.get(Calendar.MILLISECOND));
+
+            writer = new StringWriter();
+            xmlOut = new XmlOut(writer);
+            xmlOut.dateTimeAttr("A", epochMs);
+            xmlOut.close();
+            assertEquals(expected, writer.toString());
+        }
+
+        return;
+    }
+
+    /**
+     * Test of relativeUriAttrOut method, of class XmlOut.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testRelativeUriAttrOut() throws Exception {
+        System.out.println("relativeUriAttrOut");
+
+        String[][] cases = {
+            {"http://x.com/wolf/", "http://x.com/wolf/index.rb?vid=1&meslog=000_ready"},
+            {"http://x.com/wolf/", "http://x.com/wolf/"},
+            {"http://x.com/wolf/", "http://x.com/wolf/?a=b/c#d"},
+            {"http://x.com/wolf/", "http://x.com/wolf/../a"},
+            {"http://x.com/wolf/", "http://x.com/wolf/./a"},
+            {"http://x.com/wolf/", "http://x.com/wolf/.."},
+            {"http://x.com/wolf/", "http://x.com/wolf/a/b"},
+            {"http://x.com/wolf/", "http://x.com/other/a"},
+            {"http://x.com/w//", "http://x.com/w//a"},
+            {"http://x.com/a?q=/", "http://x.com/a?q=/b"},
+        };
+
+        for(String[] pair : cases){
+            URI base = URI.create(pair[0]);
+            String rel = base.relativize(URI.create(pair[1])).toString();
+            String expected = "A=\"" + rel.replace("&", "&amp;") + "\"";
+
+            Writer writer = new StringWriter();
+            XmlOut xmlOut = new XmlOut(writer);
+            xmlOut.relativeUriAttrOut("A", pair[0], pair[1]);
+            xmlOut.close();
+            assertEquals(expected, writer.toString(), pair[1]);
+        }
+
+        assertEquals(18, XmlOut.relativeStart("http://x.com/wolf/", "http://x.com/wolf/index.rb"));
+        assertEquals(-1, XmlOut.relativeStart("http://x.com/wolf/", "http://x.com/wolf/a/b"));
+
+        return;
+    }
+
+    /**
+     * Test of attrOut method with int value, of class XmlOut.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testAttrOutInt() throws Exception {
+        System.out.println("attrOut int");
+
+        int[] values = {0, 7, 10, 999, -1, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for(int value : values){
+            Writer writer = new StringWriter();
+            XmlOut xmlOut = new XmlOut(writer);
+            xmlOut.attrOut("A", value);
+            xmlOut.close();
+            assertEquals("A=\"" + value + "\"", writer.toString());
+        }
+
         return;
     }
 
@@ -760,4 +874,148 @@ public void testToHex_short() {
         return;
     }
 
+    /**
+     * SAXイベントを文字列に記録する。
+     * 要素間の書式用の空白は記録しない。
+     */
+    private static class EventLog extends DefaultHandler {
+
+        private final StringBuilder log = new StringBuilder();
+        private final StringBuilder text = new StringBuilder();
+
+        EventLog() {
+            super();
+            return;
+        }
+
+        private void flushText() {
+            if(text.toString().trim().length() > 0){
+                log.append("T[").append(text).append("]\n");
+            }
+            text.setLength(0);
+            return;
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) {
+            log.append("P[").append(prefix).append('=').append(uri)
+               .append("]\n");
+            return;
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) {
+            log.append("E[").append(prefix).append("]\n");
+            return;
+        }
+
+        @Override
+        public void startElement(String uri, String localName,
+                                 String qName, Attributes atts) {
+            flushText();
+            log.append("S[").append(uri).append('|').append(localName)
+               .append('|').append(qName);
+            for(int idx = 0; idx < atts.getLength(); idx++){
+                log.append(' ').append(atts.getURI(idx))
+                   .append('|').append(atts.getLocalName(idx))
+                   .append('|').append(atts.getQName(idx))
+                   .append('=').append(atts.getValue(idx));
+            }
+            log.append("]\n");
+            return;
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            flushText();
+            log.append("/[").append(uri).append('|').append(localName)
+               .append('|').append(qName).append("]\n");
+            return;
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            text.append(ch, start, length);
+            return;
+        }
+
+        @Override
+        public void endDocument() {
+            flushText();
+            log.append("END\n");
+            return;
+        }
+
+        @Override
+        public String toString() {
+            return log.toString();
+        }
+
+    }
+
+    private static VillageData createVillage() {
+        VillageData village = TestVillages.createVillage();
+        village.setFullName("村1 <&\"'>");
+
+        PeriodData period = village.getPeriodDataList().get(1);
+        AvatarData avatar = village.getAvatarData("ちょっと変な人");
+
+        TalkData talk = new TalkData();
+        talk.setTalkType(TalkType.PUBLIC);
+        talk.setAvatarData(avatar);
+        talk.setXName("mes1");
+        talk.setFaceIconUri("face.jpg");
+        talk.setHour(23);
+        talk.setMinute(59);
+        talk.addLine(new DecodedContent(" a\\b~c  d\te&f<g>h\u0001 "));
+        talk.addLine(new DecodedContent(""));
+        talk.addLine(new DecodedContent("x"));
+        period.addTopicData(talk);
+
+        EventData event = new EventData();
+        event.setEventType(SysEventType.MURDERED);
+        event.addAvatarData(avatar);
+        event.addLine(new DecodedContent("murdered"));
+        period.addTopicData(event);
+
+        return village;
+    }
+
+    /**
+     * Test of setContentHandler method, of class XmlOut.
+     * 通知される内容が出力をXMLパーサで読んだ場合と一致すること。
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testSetContentHandler() throws Exception {
+        System.out.println("setContentHandler");
+
+        VillageData village = createVillage();
+
+        StringWriter plain = new StringWriter();
+        new XmlOut(plain).dumpVillageData(village);
+
+        StringWriter writer = new StringWriter();
+        XmlOut xmlOut = new XmlOut(writer);
+        EventLog written = new EventLog();
+        xmlOut.setContentHandler(written);
+        xmlOut.dumpVillageData(village);
+
+        assertEquals(plain.toString(), writer.toString());
+
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setFeature(
+                "http://apache.org/xml/features/nonvalidating/load-external-dtd",
+                false);
+        EventLog parsed = new EventLog();
+        factory.newSAXParser().parse(
+                new InputSource(new StringReader(writer.toString())), parsed);
+
+        assertTrue(written.toString().contains("|rawdata|rawdata"));
+        assertEquals(parsed.toString(), written.toString());
+
+        return;
+    }
+
 }
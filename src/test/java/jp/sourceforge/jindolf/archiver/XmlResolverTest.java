@@ -0,0 +1,99 @@
+/*
+ */
+
+package jp.sourceforge.jindolf.archiver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import org.w3c.dom.ls.LSInput;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class XmlResolverTest {
+
+    private static final String URI_BBSDTD =
+            "http://jindolf.sourceforge.jp/xml/dtd/bbsArchive-110421.dtd";
+
+    public XmlResolverTest() {
+    }
+
+    private static byte[] readAll(InputStream is) throws IOException{
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try(InputStream in = is){
+            for(;;){
+                int bVal = in.read();
+                if(bVal < 0) break;
+                bout.write(bVal);
+            }
+        }
+        return bout.toByteArray();
+    }
+
+    /**
+     * Test of buildBaseRelativeURI method, of class XmlResolver.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testBuildBaseRelativeURI() throws Exception {
+        System.out.println("buildBaseRelativeURI");
+
+        URI result;
+
+        result = XmlResolver.buildBaseRelativeURI(
+                "http://example.com/a/b.xsd", "../c.xsd");
+        assertEquals(URI.create("http://example.com/c.xsd"), result);
+
+        result = XmlResolver.buildBaseRelativeURI(
+                "http://example.com/a/b.xsd", "http://example.org/d.xsd");
+        assertEquals(URI.create("http://example.org/d.xsd"), result);
+
+        result = XmlResolver.buildBaseRelativeURI(null, URI_BBSDTD);
+        assertEquals(URI.create(URI_BBSDTD), result);
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            XmlResolver.buildBaseRelativeURI("a/b.xsd", "c.xsd");
+        });
+
+        return;
+    }
+
+    /**
+     * Test of resolveResource method, of class XmlResolver.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testResolveResource() throws Exception {
+        System.out.println("resolveResource");
+
+        byte[] expected = readAll(XmlResolver.class.getResourceAsStream(
+                "resources/bbsArchive-110421.dtd"));
+
+        XmlResolver resolver = new XmlResolver();
+
+        LSInput input1 = resolver.resolveResource(
+                null, null, null, URI_BBSDTD, null);
+        LSInput input2 = new XmlResolver().resolveResource(
+                null, null, null, URI_BBSDTD, null);
+        LSInput input3 = resolver.resolveResource(
+                null, null, null,
+                "bbsArchive-110421.dtd",
+                "http://jindolf.sourceforge.jp/xml/dtd/dummy.xml");
+
+        assertNotSame(input1, input2);
+        assertEquals(URI_BBSDTD, input1.getSystemId());
+        assertArrayEquals(expected, readAll(input1.getByteStream()));
+        assertArrayEquals(expected, readAll(input2.getByteStream()));
+        assertArrayEquals(expected, readAll(input3.getByteStream()));
+
+        return;
+    }
+
+}
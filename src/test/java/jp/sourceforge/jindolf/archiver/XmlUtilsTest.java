@@ -3,8 +3,18 @@
 
 package jp.sourceforge.jindolf.archiver;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import javax.xml.parsers.DocumentBuilder;
+import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Validator;
+import javax.xml.validation.ValidatorHandler;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.XMLFilterImpl;
 
 import org.junit.jupiter.api.Test;
 
@@ -19,6 +29,57 @@ public class XmlUtilsTest {
     public XmlUtilsTest() {
     }
 
+    private static String createDocument() throws Exception {
+        return createDocument(TestVillages.createVillage());
+    }
+
+    private static String createDocument(VillageData village)
+            throws Exception {
+        StringWriter writer = new StringWriter();
+        new XmlOut(writer).dumpVillageData(village);
+        String doc = writer.toString();
+        // 国定義の実装に依らない時間帯表記とする
+        doc = doc.replaceFirst("timezone=\"[^\"]*\"", "timezone=\"GMT+09:00\"");
+        return doc;
+    }
+
+    private static void validateOnWrite(VillageData village)
+            throws Exception {
+        ValidatorHandler handler = XmlUtils.createValidatorHandler();
+        XmlOut xmlOut = new XmlOut(new StringWriter());
+        xmlOut.setContentHandler(new TimezoneFilter(handler));
+        xmlOut.dumpVillageData(village);
+        return;
+    }
+
+    /**
+     * 国定義の実装に依らない時間帯表記に置き換える。
+     */
+    private static class TimezoneFilter extends XMLFilterImpl {
+
+        TimezoneFilter(ContentHandler handler) {
+            super();
+            setContentHandler(handler);
+            return;
+        }
+
+        @Override
+        public void startElement(String uri, String localName,
+                                 String qName, Attributes atts)
+                throws SAXException {
+            Attributes fixed = atts;
+            int idx = atts.getIndex("", "timezone");
+            if(idx >= 0){
+                AttributesImpl copy = new AttributesImpl(atts);
+                copy.setValue(idx, "GMT+09:00");
+                fixed = copy;
+            }
+            super.startElement(uri, localName, qName, fixed);
+            return;
+        }
+
+    }
+
     /**
      * Test of createDocumentBuilder method, of class XmlUtils.
      * @throws java.lang.Exception
@@ -51,4 +112,81 @@ public void testCreateValidator() throws Exception {
         return;
     }
 
+    /**
+     * Test of resetValidator method, of class XmlUtils.
+     * 同一のバリデータで繰り返し検証できること。
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testResetValidator() throws Exception {
+        System.out.println("resetValidator");
+
+        String doc = createDocument();
+
+        Validator validator = XmlUtils.createValidator();
+        for(int ct = 0; ct < 2; ct++){
+            XmlUtils.resetValidator(validator);
+            assertTrue(validator.getResourceResolver() instanceof XmlResolver);
+            // 同梱のDTDとXSDのみを用い、ネットワークには接続しない
+            validator.validate(new StreamSource(new StringReader(doc)));
+        }
+
+        return;
+    }
+
+    /**
+     * Test of getSchema method, of class XmlUtils.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testGetSchema() throws Exception {
+        System.out.println("getSchema");
+
+        assertSame(XmlUtils.getSchema(), XmlUtils.getSchema());
+
+        String doc = createDocument();
+
+        Validator validator = XmlUtils.createValidator();
+        validator.validate(new StreamSource(new StringReader(doc)));
+
+        String broken = doc.replace("vid=\"1\"", "vid=\"x\"");
+        assertNotEquals(doc, broken);
+        Validator other = XmlUtils.createValidator();
+        assertThrows(SAXException.class, () -> {
+            other.validate(new StreamSource(new StringReader(broken)));
+        });
+
+        return;
+    }
+
+    /**
+     * Test of createValidatorHandler method, of class XmlUtils.
+     * 出力と同時の検証が出力を読み直す検証と同じ判定を下すこと。
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testCreateValidatorHandler() throws Exception {
+        System.out.println("createValidatorHandler");
+
+        VillageData village = TestVillages.createVillage();
+        validateOnWrite(village);
+        Validator validator = XmlUtils.createValidator();
+        String doc = createDocument(village);
+        validator.validate(new StreamSource(new StringReader(doc)));
+
+        VillageData broken = TestVillages.createVillage();
+        broken.getPeriodDataList().get(1).setCommitMonth(13);
+        IOException thrown = assertThrows(IOException.class, () -> {
+            validateOnWrite(broken);
+        });
+        assertTrue(thrown.getCause() instanceof SAXException);
+        Validator other = XmlUtils.createValidator();
+        String brokenDoc = createDocument(broken);
+        assertThrows(SAXException.class, () -> {
+            other.validate(new StreamSource(new StringReader(brokenDoc)));
+        });
+
+        return;
+    }
+
 }